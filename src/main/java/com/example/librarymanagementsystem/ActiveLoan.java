@@ -0,0 +1,64 @@
+/*
+ * Cade Mock
+ * CWID: 50350556
+ * Date (Last Updated) : 10/19/2026
+ * Email: cmock2@leomail.tamuc.edu
+ */
+
+package com.example.librarymanagementsystem;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One copy of a title that is on loan, the row of every loan listing (View Active Loans, pageLoans(), read views
+ * and replicas). A title with several copies on loan has one ActiveLoan per copy.
+ *
+ * @param book  The title the copy belongs to.
+ * @param loan  The copy and who has it.
+ */
+public record ActiveLoan(Book book, CopyLedger.Loan loan) {
+    // Returns the copies of a book that are on loan, in copy order, or an empty list without allocating
+    public static List<ActiveLoan> of(Book book) {
+        if (!book.hasCopyOnLoan()) {
+            return List.of();
+        }
+        List<CopyLedger.Loan> loans = book.getLoans();
+        List<ActiveLoan> activeLoans = new ArrayList<>(loans.size());
+        for (CopyLedger.Loan loan : loans) {
+            activeLoans.add(new ActiveLoan(book, loan));
+        }
+        return activeLoans;
+    }
+
+    public String getISBN() {
+        return book.getISBN();
+    }
+
+    public int getCopy() {
+        return loan.copy();
+    }
+
+    public String getBorrowerID() {
+        return loan.borrowerID();
+    }
+
+    public LocalDate getBorrowedDate() {
+        return loan.borrowedDate();
+    }
+
+    public LocalDate getDueDate() {
+        return loan.dueDate();
+    }
+
+    // Checks if the copy is overdue by comparing the due date with the current date
+    public boolean isOverdue() {
+        return loan.isOverdue();
+    }
+
+    // Checks if the copy is overdue on a given day, so scans can read the clock once
+    public boolean isOverdue(LocalDate today) {
+        return loan.isOverdue(today);
+    }
+}
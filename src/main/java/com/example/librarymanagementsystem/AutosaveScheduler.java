@@ -0,0 +1,83 @@
+/*
+ * Cade Mock
+ * CWID: 50350556
+ * Date (Last Updated) : 10/19/2026
+ * Email: cmock2@leomail.tamuc.edu
+ */
+
+package com.example.librarymanagementsystem;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically saves the library to its data file in the background.
+ *
+ * Every interval the scheduler takes a snapshot of the library (see Library.snapshot()) and writes it on its own
+ * thread, so borrowing and returning books in the app is never paused by file I/O.
+ * If nothing has changed since the last autosave, the save is skipped.
+ */
+public class AutosaveScheduler implements AutoCloseable {
+    private final Library library;
+    private final Path dataFile;
+    private final Duration interval;
+    private final ScheduledExecutorService executor;
+    private long lastSavedVersion = -1; // version of the last snapshot written, only used on the autosave thread
+
+    /**
+     * Creates an autosave scheduler for a library. Call start() to begin saving.
+     *
+     * @param library   The library to save.
+     * @param interval  How often the library should be saved.
+     */
+    public AutosaveScheduler(Library library, Duration interval) {
+        this.library = library;
+        this.dataFile = Path.of(library.getDataFile());
+        this.interval = interval;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "library-autosave");
+            thread.setDaemon(true); // don't keep the app running just for autosaves
+            return thread;
+        });
+    }
+
+    // Starts saving the library every interval
+    public void start() {
+        long millis = interval.toMillis();
+        executor.scheduleWithFixedDelay(this::autosave, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Takes a snapshot of the library and writes it if the library changed since the last autosave.
+     * Errors are printed instead of thrown so a failed save doesn't stop later autosaves.
+     */
+    private void autosave() {
+        try {
+            LibrarySnapshot snapshot = library.snapshot();
+            if (snapshot.getVersion() == lastSavedVersion) {
+                return; // nothing changed, skip writing the file
+            }
+            snapshot.writeTo(dataFile);
+            lastSavedVersion = snapshot.getVersion();
+        } catch (Exception e) {
+            System.out.println("Autosave failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops the scheduler, letting an autosave that is already running finish first.
+     * This should be called before the final save when the app exits.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Cade Mock
+ * CWID: 50350556
+ * Date (Last Updated) : 10/19/2026
+ * Email: cmock2@leomail.tamuc.edu
+ */
+
+package com.example.librarymanagementsystem;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The bibliographic records (title and author of each ISBN) shared by all branches of a Consortium.
+ *
+ * Each title is recorded once, and every title and author string is kept once no matter how many titles or
+ * branches use it, so the branches' Book records all point to the same strings instead of holding their own copies.
+ * The store is thread-safe, branches can be loaded and stocked in parallel.
+ */
+public class BibliographicStore {
+    /**
+     * The bibliographic details of one title.
+     *
+     * @param ISBN    The ISBN of the title.
+     * @param title   The title, shared with every other record and book using it.
+     * @param author  The author, shared with every other record and book using it.
+     */
+    public record Record(String ISBN, String title, String author) {
+    }
+
+    private final ConcurrentHashMap<String, Record> records = new ConcurrentHashMap<>(); // ISBN -> record
+    private final ConcurrentHashMap<String, String> strings = new ConcurrentHashMap<>(); // each title and author once
+
+    /**
+     * Records a title, or returns the existing record if the ISBN is already known (the first record wins).
+     *
+     * @param ISBN    The ISBN of the title.
+     * @param title   The title.
+     * @param author  The author.
+     * @return        The record stored for the ISBN.
+     */
+    public Record register(String ISBN, String title, String author) {
+        Record record = records.get(ISBN);
+        if (record != null) {
+            return record;
+        }
+        return records.computeIfAbsent(ISBN, key -> new Record(key, share(title), share(author)));
+    }
+
+    // Returns the record of an ISBN, or null if the title isn't known
+    public Record find(String ISBN) {
+        return records.get(ISBN);
+    }
+
+    // Returns the number of titles recorded
+    public int size() {
+        return records.size();
+    }
+
+    // Returns the number of distinct title and author strings kept
+    public int getStringCount() {
+        return strings.size();
+    }
+
+    // Returns the stored string equal to the given one, storing it if it's new
+    String share(String text) {
+        String shared = strings.putIfAbsent(text, text);
+        return shared == null ? text : shared;
+    }
+
+    // Registers a book loaded by a branch and makes it use the shared title and author strings
+    void adopt(Book book) {
+        register(book.getISBN(), book.getTitle(), book.getAuthor());
+        book.useSharedDetails(share(book.getTitle()), share(book.getAuthor()));
+    }
+}
@@ -7,8 +7,14 @@
 
 package com.example.librarymanagementsystem;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Represents a book in the library system.
@@ -22,17 +28,53 @@ import java.time.LocalDate;
  * - Borrower ID: The ID of the member who borrowed the book (if applicable).
  * - Borrowed Date: The date the book was borrowed (if applicable).
  * - Due Date: The date the book is due to be returned (if applicable).
+ * - Extra Copies: Further copies of the same title and their loans (see CopyLedger), if the library has more than one.
+ * - Borrow Count: How many times any copy was borrowed, used to rank search suggestions.
+ * - Search Key: The title, author and ISBN normalized for searching (see SearchKey), computed once and saved.
  *
  * This class is used to manage and track the state of books in the library system.
+ * The availability, borrower and date attributes describe the first copy (copy 0), so a title with a single copy
+ * works exactly as before.
+ *
+ * To keep a large catalog small, the loan is stored without objects of its own: the dates are epoch days, and whether
+ * the book is available and which dates are set are flags in one state word. The getters build the usual LocalDate
+ * values from these. The borrower is kept as the Member ID string, which is the same object the member holds.
+ * The saved form still has the original fields, so data files are the same as before.
  */
 public class Book implements Serializable {
+    private static final long serialVersionUID = -7692954547797387443L; // keeps existing library_data.dat files readable
+    static final int LOAN_DAYS = 7; // a loan is due one week after it starts
+
+    // Flags of the state word
+    private static final int AVAILABLE = 1; // the book is available, clear when it is borrowed
+    private static final int HAS_BORROWED_DATE = 1 << 1; // borrowedDay is set
+    private static final int HAS_DUE_DATE = 1 << 2; // dueDay is set
+
+    // The fields that are saved, the same as the ones earlier versions of this class had
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("title", String.class),
+            new ObjectStreamField("author", String.class),
+            new ObjectStreamField("ISBN", String.class),
+            new ObjectStreamField("isAvailable", boolean.class),
+            new ObjectStreamField("borrowerID", String.class),
+            new ObjectStreamField("borrowedDate", LocalDate.class),
+            new ObjectStreamField("dueDate", LocalDate.class),
+            new ObjectStreamField("extraCopies", CopyLedger.class),
+            new ObjectStreamField("borrowCount", int.class),
+            new ObjectStreamField("searchKey", String.class)
+    };
+
     private String title;
     private String author;
     private String ISBN;
-    private boolean isAvailable; // true if book is available, false if borrowed
+    private int state; // AVAILABLE and HAS_ flags
     private String borrowerID; // ID of the member who borrowed the book
-    private LocalDate borrowedDate; // The date the book was borrowed
-    private LocalDate dueDate; // The due date for returning the book
+    private int borrowedDay; // epoch day the book was borrowed, if HAS_BORROWED_DATE is set
+    private int dueDay; // epoch day the book is due, if HAS_DUE_DATE is set
+    private CopyLedger extraCopies; // copies after the first, null while the title has a single copy
+    private int borrowCount; // times any copy of this title was borrowed
+    private String searchKey; // SearchKey of the title, author and ISBN
+    transient int ordinal; // position in the owning library's book list, maintained by Library
 
 
     /**
@@ -47,10 +89,27 @@ public class Book implements Serializable {
         this.title = title;
         this.author = author;
         this.ISBN = ISBN;
-        this.isAvailable = true; // available by default
-        this.borrowerID = null; // no borrower initially
-        this.borrowedDate = null;
-        this.dueDate = null;
+        this.searchKey = SearchKey.of(title, author, ISBN);
+        this.state = AVAILABLE; // available by default, with no borrower or dates
+    }
+
+    /**
+     * Copy constructor used when taking a snapshot of the library.
+     * The copy has the same details and loan state as the original but is not affected by later changes to it.
+     *
+     * @param other The book to copy.
+     */
+    public Book(Book other) {
+        this.title = other.title;
+        this.author = other.author;
+        this.ISBN = other.ISBN;
+        this.searchKey = other.searchKey;
+        this.state = other.state;
+        this.borrowerID = other.borrowerID;
+        this.borrowedDay = other.borrowedDay;
+        this.dueDay = other.dueDay;
+        this.extraCopies = other.extraCopies == null ? null : new CopyLedger(other.extraCopies);
+        this.borrowCount = other.borrowCount;
     }
 
     // Getters and Setters for a Book object
@@ -66,12 +125,17 @@ public class Book implements Serializable {
         return ISBN;
     }
 
+    // Returns the title, author and ISBN normalized for searching, fields in that order (see SearchKey)
+    String getSearchKey() {
+        return searchKey;
+    }
+
     public boolean isAvailable() {
-        return isAvailable;
+        return (state & AVAILABLE) != 0;
     }
 
     public void setAvailable(boolean available) {
-        isAvailable = available;
+        state = available ? state | AVAILABLE : state & ~AVAILABLE;
     }
 
     public String getBorrowerID() {
@@ -83,7 +147,7 @@ public class Book implements Serializable {
     }
 
     public LocalDate getBorrowedDate() {
-        return borrowedDate;
+        return (state & HAS_BORROWED_DATE) == 0 ? null : LocalDate.ofEpochDay(borrowedDay);
     }
 
     /**
@@ -95,31 +159,149 @@ public class Book implements Serializable {
     public void setBorrowedDate(LocalDate borrowedDate) {
         if (borrowedDate == null) {
             // clear both borrowedDate and dueDate when borrowedDate is null
-            this.borrowedDate = null;
-            this.dueDate = null;
+            state &= ~(HAS_BORROWED_DATE | HAS_DUE_DATE);
         } else {
-            // set the borrowed date
-            this.borrowedDate = borrowedDate;
-            // set the due date as one week after the borrowed date
-            this.dueDate = borrowedDate.plusWeeks(1); // Calculate due date only if borrowedDate is not null
+            // set the borrowed date, and the due date as one week after it
+            this.borrowedDay = epochDay(borrowedDate);
+            this.dueDay = borrowedDay + LOAN_DAYS;
+            state |= HAS_BORROWED_DATE | HAS_DUE_DATE;
         }
     }
 
 
     public void setDueDate(LocalDate dueDate) {
-        this.dueDate = dueDate;
+        if (dueDate == null) {
+            state &= ~HAS_DUE_DATE;
+        } else {
+            this.dueDay = epochDay(dueDate);
+            state |= HAS_DUE_DATE;
+        }
     }
 
     public LocalDate getDueDate() {
-        return dueDate;
+        return (state & HAS_DUE_DATE) == 0 ? null : LocalDate.ofEpochDay(dueDay);
     }
 
     // Checks if the book is overdue by comparing the due date with the current date
     public boolean isOverdue() {
-        if (dueDate == null) {
-            return false;
+        return isOverdue(LocalDate.now());
+    }
+
+    /**
+     * Checks if the book is overdue on a given day.
+     * Scans over many books should read the clock once and pass the same day to every book.
+     *
+     * @param today  The current date.
+     * @return       True if the book has a due date before today.
+     */
+    public boolean isOverdue(LocalDate today) {
+        return (state & HAS_DUE_DATE) != 0 && today.toEpochDay() > dueDay;
+    }
+
+    // Replaces the title and author with equal strings shared with other records (see BibliographicStore)
+    void useSharedDetails(String sharedTitle, String sharedAuthor) {
+        if (sharedTitle.equals(title) && sharedAuthor.equals(author)) {
+            this.title = sharedTitle;
+            this.author = sharedAuthor;
         }
-        return LocalDate.now().isAfter(dueDate);
+    }
+
+    // Returns how many times any copy of this title was borrowed
+    public int getBorrowCount() {
+        return borrowCount;
+    }
+
+    // Counts a loan of any copy, used by the library when it lends one
+    void recordBorrow() {
+        borrowCount++;
+    }
+
+    // Returns the number of physical copies of this title
+    public int getCopyCount() {
+        return extraCopies == null ? 1 : 1 + extraCopies.size();
+    }
+
+    // Returns the number of copies on the shelf, without looking at the copies one by one
+    public int getAvailableCopies() {
+        return (isAvailable() ? 1 : 0) + (extraCopies == null ? 0 : extraCopies.available());
+    }
+
+    // Checks whether any copy of this title can be borrowed
+    public boolean hasAvailableCopy() {
+        return isAvailable() || (extraCopies != null && extraCopies.available() > 0);
+    }
+
+    // Checks whether any copy of this title is on loan, not just the first one like isAvailable()
+    public boolean hasCopyOnLoan() {
+        return getAvailableCopies() < getCopyCount();
+    }
+
+    // Returns every copy on loan, the first copy (copy 0) first
+    public List<CopyLedger.Loan> getLoans() {
+        List<CopyLedger.Loan> loans = new ArrayList<>();
+        if (!isAvailable()) {
+            loans.add(new CopyLedger.Loan(0, getBorrowerID(), getBorrowedDate(), getDueDate()));
+        }
+        if (extraCopies != null) {
+            extraCopies.addLoans(loans);
+        }
+        return loans;
+    }
+
+    // Returns the ledger of the copies after the first, null if there is only one copy
+    CopyLedger getExtraCopies() {
+        return extraCopies;
+    }
+
+    // Adds more copies of this title, used by Library.addCopies()
+    void addCopies(int count) {
+        if (extraCopies == null) {
+            extraCopies = new CopyLedger();
+        }
+        extraCopies.addCopies(count);
+    }
+
+    // Writes the book in the saved form of the original fields
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("title", title);
+        fields.put("author", author);
+        fields.put("ISBN", ISBN);
+        fields.put("isAvailable", isAvailable());
+        fields.put("borrowerID", getBorrowerID());
+        fields.put("borrowedDate", getBorrowedDate());
+        fields.put("dueDate", getDueDate());
+        fields.put("extraCopies", extraCopies);
+        fields.put("borrowCount", borrowCount);
+        fields.put("searchKey", searchKey);
+        out.writeFields();
+    }
+
+    // Reads a book saved by this or an earlier version of the class, older files don't have the newer fields
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        title = (String) fields.get("title", null);
+        author = (String) fields.get("author", null);
+        ISBN = (String) fields.get("ISBN", null);
+        state = 0;
+        setAvailable(fields.get("isAvailable", false));
+        setBorrowerID((String) fields.get("borrowerID", null));
+        LocalDate borrowedDate = (LocalDate) fields.get("borrowedDate", null);
+        if (borrowedDate != null) {
+            borrowedDay = epochDay(borrowedDate);
+            state |= HAS_BORROWED_DATE;
+        }
+        setDueDate((LocalDate) fields.get("dueDate", null)); // saved as is, it isn't always a week after borrowing
+        extraCopies = (CopyLedger) fields.get("extraCopies", null);
+        borrowCount = fields.get("borrowCount", 0);
+        searchKey = (String) fields.get("searchKey", null);
+        if (searchKey == null) {
+            searchKey = SearchKey.of(title, author, ISBN);
+        }
+    }
+
+    private static int epochDay(LocalDate date) {
+        return Math.toIntExact(date.toEpochDay()); // covers every date within five million years
     }
 
     // Formats the book details as a string for display purposes in the app
@@ -129,10 +311,10 @@ public class Book implements Serializable {
                 "Title='" + title + '\'' +
                 ", Author='" + author + '\'' +
                 ", ISBN='" + ISBN + '\'' +
-                ", Available=" + isAvailable +
-                ", BorrowerID='" + borrowerID + '\'' +
-                ", BorrowedDate=" + borrowedDate +
-                ", DueDate=" + dueDate +
+                ", Available=" + isAvailable() +
+                ", BorrowerID='" + getBorrowerID() + '\'' +
+                ", BorrowedDate=" + getBorrowedDate() +
+                ", DueDate=" + getDueDate() +
                 '}';
     }
-}
\ No newline at end of file
+}
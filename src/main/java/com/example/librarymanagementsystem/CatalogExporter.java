@@ -0,0 +1,356 @@
+/*
+ * Cade Mock
+ * CWID: 50350556
+ * Date (Last Updated) : 10/19/2026
+ * Email: cmock2@leomail.tamuc.edu
+ */
+
+package com.example.librarymanagementsystem;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Exports the library's catalog and loans to a file for audits and reporting, without building the whole
+ * export in memory.
+ *
+ * Three formats are supported:
+ * - CSV: a header line, then `title,author,isbn,copy,available,borrowerID,borrowedDate,dueDate` per row.
+ * - JSONL: one JSON object per row per line, with the same fields.
+ * - SNAPSHOT: the compressed block format used for `library_data.dat` (see SnapshotFile), including all members.
+ *
+ * A title has one row for each of its copies on loan, with the copy number and the loan, and one more row with
+ * available set to true and no copy number if any of its copies are on the shelf. Filters select rows, and the
+ * snapshot format writes every book that has a selected row.
+ *
+ * The library is walked in batches with a cursor (see Library.copyBooks()), so it is only locked while a batch
+ * is copied. Text formats are encoded straight into one reusable byte buffer that is written to a FileChannel
+ * whenever it fills up, so memory use stays the same no matter how large the catalog is.
+ */
+public class CatalogExporter {
+    static final int BATCH_SIZE = 1024; // books copied from the library per lock
+    static final int BUFFER_SIZE = 64 * 1024; // size of the reusable output buffer
+
+    /**
+     * One row of an export: a copy of a title on loan, or the copies of a title on the shelf.
+     *
+     * @param book  The title.
+     * @param loan  The copy on loan, or null for the row of the copies on the shelf.
+     */
+    public record Row(Book book, CopyLedger.Loan loan) {
+        public boolean isLoan() {
+            return loan != null;
+        }
+    }
+
+    // Filters for the rows to export
+    public static final Predicate<Row> ALL_BOOKS = row -> true;
+    public static final Predicate<Row> ACTIVE_LOANS = Row::isLoan;
+    public static final Predicate<Row> OVERDUE_LOANS = row -> row.isLoan() && row.loan().isOverdue();
+
+    // Filter for the copies overdue on a given day, reads the clock once instead of once per row like OVERDUE_LOANS
+    public static Predicate<Row> overdueLoans(LocalDate today) {
+        return row -> row.isLoan() && row.loan().isOverdue(today);
+    }
+
+    // The supported export formats
+    public enum Format {
+        CSV,
+        JSONL,
+        SNAPSHOT
+    }
+
+    private CatalogExporter() {
+    }
+
+    /**
+     * Exports the rows that match the filter to a file, replacing any existing file.
+     *
+     * @param library  The library to export.
+     * @param file     The file to write.
+     * @param format   The format to write.
+     * @param filter   Which rows to export, for example ALL_BOOKS, ACTIVE_LOANS or OVERDUE_LOANS.
+     * @return         The number of rows written, or of books for the snapshot format.
+     * @throws IOException  If an I/O error occurs during file operations.
+     */
+    public static long export(Library library, Path file, Format format, Predicate<Row> filter) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (format == Format.SNAPSHOT) {
+                return exportSnapshot(library, channel, filter);
+            }
+
+            ByteSink out = new ByteSink(channel);
+            if (format == Format.CSV) {
+                out.ascii("title,author,isbn,copy,available,borrowerID,borrowedDate,dueDate\n");
+            }
+
+            long written = 0;
+            List<Book> batch = new ArrayList<>(BATCH_SIZE);
+            int cursor = 0;
+            while (cursor >= 0) {
+                cursor = library.copyBooks(cursor, batch, BATCH_SIZE);
+                for (Book book : batch) {
+                    for (Row row : rows(book)) {
+                        if (!filter.test(row)) {
+                            continue;
+                        }
+                        if (format == Format.CSV) {
+                            writeCsv(out, row);
+                        } else {
+                            writeJson(out, row);
+                        }
+                        written++;
+                    }
+                }
+            }
+            out.flush();
+            return written;
+        }
+    }
+
+    // Writes the books with a selected row and all members in the snapshot format
+    private static long exportSnapshot(Library library, FileChannel channel, Predicate<Row> filter) throws IOException {
+        long written = 0;
+        try (SnapshotFile.Writer writer = new SnapshotFile.Writer(channel)) {
+            List<Book> books = new ArrayList<>(BATCH_SIZE);
+            int cursor = 0;
+            while (cursor >= 0) {
+                cursor = library.copyBooks(cursor, books, BATCH_SIZE);
+                for (Book book : books) {
+                    if (rows(book).stream().anyMatch(filter)) {
+                        writer.addBook(book);
+                        written++;
+                    }
+                }
+            }
+
+            List<Member> members = new ArrayList<>(BATCH_SIZE);
+            cursor = 0;
+            while (cursor >= 0) {
+                cursor = library.copyMembers(cursor, members, BATCH_SIZE);
+                for (Member member : members) {
+                    writer.addMember(member);
+                }
+            }
+        }
+        return written;
+    }
+
+    // Returns the rows of a book: the copies on the shelf if there are any, then each copy on loan
+    private static List<Row> rows(Book book) {
+        List<CopyLedger.Loan> loans = book.hasCopyOnLoan() ? book.getLoans() : List.of();
+        List<Row> rows = new ArrayList<>(loans.size() + 1);
+        if (book.hasAvailableCopy()) {
+            rows.add(new Row(book, null));
+        }
+        for (CopyLedger.Loan loan : loans) {
+            rows.add(new Row(book, loan));
+        }
+        return rows;
+    }
+
+    // Writes one row as a CSV line
+    private static void writeCsv(ByteSink out, Row row) throws IOException {
+        out.csvField(row.book().getTitle());
+        out.ascii(",");
+        out.csvField(row.book().getAuthor());
+        out.ascii(",");
+        out.csvField(row.book().getISBN());
+        out.ascii(",");
+        if (!row.isLoan()) {
+            out.ascii(",true,,,\n"); // no copy number or loan
+            return;
+        }
+        out.number(row.loan().copy());
+        out.ascii(",false,");
+        if (row.loan().borrowerID() != null) {
+            out.csvField(row.loan().borrowerID());
+        }
+        out.ascii(",");
+        out.date(row.loan().borrowedDate());
+        out.ascii(",");
+        out.date(row.loan().dueDate());
+        out.ascii("\n");
+    }
+
+    // Writes one row as a JSON object on its own line
+    private static void writeJson(ByteSink out, Row row) throws IOException {
+        out.ascii("{\"title\":");
+        out.jsonString(row.book().getTitle());
+        out.ascii(",\"author\":");
+        out.jsonString(row.book().getAuthor());
+        out.ascii(",\"isbn\":");
+        out.jsonString(row.book().getISBN());
+        if (!row.isLoan()) {
+            out.ascii(",\"copy\":null,\"available\":true,\"borrowerID\":null,\"borrowedDate\":null,\"dueDate\":null}\n");
+            return;
+        }
+        out.ascii(",\"copy\":");
+        out.number(row.loan().copy());
+        out.ascii(",\"available\":false,\"borrowerID\":");
+        out.jsonString(row.loan().borrowerID());
+        out.ascii(",\"borrowedDate\":");
+        out.jsonDate(row.loan().borrowedDate());
+        out.ascii(",\"dueDate\":");
+        out.jsonDate(row.loan().dueDate());
+        out.ascii("}\n");
+    }
+
+    /**
+     * Encodes text as UTF-8 into a reusable buffer and writes it to a channel whenever the buffer is full.
+     */
+    private static class ByteSink {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        ByteSink(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        // Writes text that is known to be plain ASCII
+        void ascii(String text) throws IOException {
+            for (int i = 0; i < text.length(); i++) {
+                put((byte) text.charAt(i));
+            }
+        }
+
+        // Writes a CSV field, quoting it only if it contains a comma, quote or line break
+        void csvField(String text) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < text.length() && !quote; i++) {
+                char c = text.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                utf8(text);
+                return;
+            }
+            put((byte) '"');
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '"') {
+                    put((byte) '"'); // quotes are escaped by doubling them
+                }
+                i += utf8Char(text, i) - 1;
+            }
+            put((byte) '"');
+        }
+
+        // Writes a JSON string (or null), escaping quotes, backslashes and control characters
+        void jsonString(String text) throws IOException {
+            if (text == null) {
+                ascii("null");
+                return;
+            }
+            put((byte) '"');
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '"' || c == '\\') {
+                    put((byte) '\\');
+                    put((byte) c);
+                } else if (c < 0x20) {
+                    ascii("\\u00");
+                    put((byte) Character.forDigit(c >> 4, 16));
+                    put((byte) Character.forDigit(c & 0xF, 16));
+                } else {
+                    i += utf8Char(text, i) - 1;
+                }
+            }
+            put((byte) '"');
+        }
+
+        // Writes a date as yyyy-mm-dd without creating a string, nothing is written for null
+        void date(LocalDate date) throws IOException {
+            if (date == null) {
+                return;
+            }
+            digits(date.getYear(), 4);
+            put((byte) '-');
+            digits(date.getMonthValue(), 2);
+            put((byte) '-');
+            digits(date.getDayOfMonth(), 2);
+        }
+
+        void jsonDate(LocalDate date) throws IOException {
+            if (date == null) {
+                ascii("null");
+                return;
+            }
+            put((byte) '"');
+            date(date);
+            put((byte) '"');
+        }
+
+        // Writes a non-negative number without creating a string
+        void number(int value) throws IOException {
+            digits(value, 1);
+        }
+
+        // Writes a non-negative number padded with zeros to at least the given width
+        private void digits(int value, int width) throws IOException {
+            int divisor = 1;
+            for (int i = 1; i < width || divisor <= value / 10; i++) {
+                divisor *= 10;
+            }
+            for (; divisor > 0; divisor /= 10) {
+                put((byte) ('0' + value / divisor % 10));
+            }
+        }
+
+        void utf8(String text) throws IOException {
+            for (int i = 0; i < text.length(); i++) {
+                i += utf8Char(text, i) - 1;
+            }
+        }
+
+        /*
+         * Encodes the character at index as UTF-8, combining a surrogate pair into one code point, and returns the
+         * number of chars it used. A surrogate without its other half is written as '?', like String.getBytes() does.
+         */
+        private int utf8Char(String text, int index) throws IOException {
+            int codePoint = text.codePointAt(index);
+            if (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE) {
+                put((byte) '?');
+            } else if (codePoint < 0x80) {
+                put((byte) codePoint);
+            } else if (codePoint < 0x800) {
+                put((byte) (0xC0 | (codePoint >> 6)));
+                put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (codePoint < 0x10000) {
+                put((byte) (0xE0 | (codePoint >> 12)));
+                put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                put((byte) (0x80 | (codePoint & 0x3F)));
+            } else {
+                put((byte) (0xF0 | (codePoint >> 18)));
+                put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                put((byte) (0x80 | (codePoint & 0x3F)));
+            }
+            return Character.charCount(codePoint);
+        }
+
+        private void put(byte value) throws IOException {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put(value);
+        }
+
+        // Writes everything in the buffer to the channel and empties it
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * Cade Mock
+ * CWID: 50350556
+ * Date (Last Updated) : 10/19/2026
+ * Email: cmock2@leomail.tamuc.edu
+ */
+
+package com.example.librarymanagementsystem;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Imports a vendor catalog file into a library in bulk.
+ *
+ * Two file formats are supported:
+ * - CSV: one book per line as `title,author,isbn`. Fields may be quoted with double quotes, and a first line
+ *   of exactly `title,author,isbn` (any case) is skipped as a header.
+ * - MARC: one book per line as `|`-separated MARC-style fields, each starting with a three-digit tag:
+ *   `020 9780261103573|100 Tolkien, J. R. R.|245 The Hobbit`. Tag 020 is the ISBN, 100 the author and 245 the title.
+ *   A `$a` subfield marker after the tag is ignored, and other tags are skipped.
+ *
+ * The file is memory-mapped and split at line boundaries into chunks that are parsed in parallel. Duplicate ISBNs
+ * are found with a shared concurrent map (the first occurrence in the file wins), and the accepted books are
+ * added to the library in one call to Library.addBooks(). Every rejected line is reported with its line number.
+ */
+public class CatalogImporter {
+    static final int CHUNK_SIZE = 8 * 1024 * 1024; // target size of each parsed chunk in bytes
+
+    // The supported catalog file formats
+    public enum Format {
+        CSV,
+        MARC
+    }
+
+    /**
+     * Describes a line of the catalog file that was not imported.
+     *
+     * @param line    The line number in the file (starting at 1).
+     * @param reason  Why the line was rejected.
+     * @param text    The text of the line.
+     */
+    public record RejectedRow(long line, String reason, String text) {
+    }
+
+    /**
+     * Summarizes an import.
+     *
+     * @param imported  The number of books added to the library.
+     * @param rejected  The lines that were not imported, in file order.
+     * @param millis    How long the import took.
+     */
+    public record ImportResult(int imported, List<RejectedRow> rejected, long millis) {
+    }
+
+    // A parsed line, the byte offset identifies the line and decides which duplicate wins
+    private record ParsedRow(long offset, int lineInChunk, Book book) {
+    }
+
+    // The result of parsing one chunk, line numbers are relative to the start of the chunk
+    private record ChunkResult(List<ParsedRow> rows, List<RejectedRow> rejected, int lines) {
+    }
+
+    private CatalogImporter() {
+    }
+
+    /**
+     * Imports a catalog file into a library.
+     *
+     * @param library  The library to add the books to.
+     * @param file     The catalog file.
+     * @param format   The format of the catalog file.
+     * @return         A summary with the number of imported books and the rejected lines.
+     * @throws IOException  If the file can't be read.
+     */
+    public static ImportResult importFile(Library library, Path file, Format format) throws IOException {
+        long start = System.currentTimeMillis();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel);
+            // ISBN -> offset of its first line, sized for roughly one book per 32 bytes so it rarely has to grow
+            ConcurrentHashMap<String, Long> firstOffsets =
+                    new ConcurrentHashMap<>((int) Math.min(channel.size() / 32 + 16, 1 << 26));
+
+            // parse every chunk in parallel, each chunk is mapped separately so files over 2 GB work too
+            List<ChunkResult> chunks = IntStream.range(0, bounds.length - 1).parallel()
+                    .mapToObj(i -> parseChunk(channel, bounds[i], bounds[i + 1], format, i == 0, firstOffsets))
+                    .toList();
+
+            // merge the chunks in file order, turning chunk-relative line numbers into file line numbers
+            List<RejectedRow> rejected = new ArrayList<>();
+            List<Book> accepted = new ArrayList<>();
+            List<Long> acceptedLines = new ArrayList<>();
+            long firstLine = 1;
+            for (ChunkResult chunk : chunks) {
+                for (RejectedRow row : chunk.rejected()) {
+                    rejected.add(new RejectedRow(firstLine + row.line(), row.reason(), row.text()));
+                }
+                for (ParsedRow row : chunk.rows()) {
+                    long line = firstLine + row.lineInChunk();
+                    if (firstOffsets.get(row.book().getISBN()) != row.offset()) {
+                        rejected.add(new RejectedRow(line, "Duplicate ISBN in file", describe(row.book())));
+                    } else {
+                        accepted.add(row.book());
+                        acceptedLines.add(line);
+                    }
+                }
+                firstLine += chunk.lines();
+            }
+
+            List<Book> alreadyInLibrary = library.addBooks(accepted); // one bulk insert and index rebuild
+            if (!alreadyInLibrary.isEmpty()) {
+                Set<Book> existing = Collections.newSetFromMap(new IdentityHashMap<>());
+                existing.addAll(alreadyInLibrary);
+                for (int i = 0; i < accepted.size(); i++) {
+                    if (existing.contains(accepted.get(i))) {
+                        rejected.add(new RejectedRow(acceptedLines.get(i), "ISBN already in library",
+                                describe(accepted.get(i))));
+                    }
+                }
+            }
+            rejected.sort(Comparator.comparingLong(RejectedRow::line));
+
+            return new ImportResult(accepted.size() - alreadyInLibrary.size(), rejected,
+                    System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Splits the file into chunks of about CHUNK_SIZE bytes that start at the beginning of a line.
+     * Only a few bytes around each boundary are read here.
+     */
+    private static long[] chunkBounds(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long boundary = nextLineStart(channel, CHUNK_SIZE, size, probe);
+        while (boundary < size) {
+            bounds.add(boundary);
+            boundary = nextLineStart(channel, boundary + CHUNK_SIZE, size, probe);
+        }
+        bounds.add(size);
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    // Returns the position just after the first newline at or after position, or size if there is none
+    private static long nextLineStart(FileChannel channel, long position, long size, ByteBuffer probe)
+            throws IOException {
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    // Parses all lines in [start, end), runs on the fork-join pool
+    private static ChunkResult parseChunk(FileChannel channel, long start, long end, Format format,
+                                          boolean firstChunk, ConcurrentHashMap<String, Long> firstOffsets) {
+        List<ParsedRow> rows = new ArrayList<>();
+        List<RejectedRow> rejected = new ArrayList<>();
+        MappedByteBuffer buffer;
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to map catalog file: " + e.getMessage(), e);
+        }
+
+        byte[] lineBytes = new byte[256]; // reused for every line, grown for long lines
+        int line = 0;
+        int lineStart = 0;
+        int length = buffer.limit();
+        while (lineStart < length) {
+            int lineEnd = lineStart;
+            while (lineEnd < length && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int textEnd = lineEnd;
+            if (textEnd > lineStart && buffer.get(textEnd - 1) == '\r') {
+                textEnd--; // Windows line endings
+            }
+            int lineLength = textEnd - lineStart;
+            if (lineBytes.length < lineLength) {
+                lineBytes = new byte[Math.max(lineLength, lineBytes.length * 2)];
+            }
+            buffer.get(lineStart, lineBytes, 0, lineLength);
+            String text = new String(lineBytes, 0, lineLength, StandardCharsets.UTF_8);
+
+            boolean header = firstChunk && line == 0 && format == Format.CSV
+                    && text.replace(" ", "").equalsIgnoreCase("title,author,isbn");
+            if (!header && !text.isBlank()) {
+                long offset = start + lineStart;
+                try {
+                    Book book = format == Format.CSV ? parseCsv(text) : parseMarc(text);
+                    firstOffsets.merge(book.getISBN(), offset, Math::min);
+                    rows.add(new ParsedRow(offset, line, book));
+                } catch (IllegalArgumentException e) {
+                    rejected.add(new RejectedRow(line, e.getMessage(), text));
+                }
+            }
+            line++;
+            lineStart = lineEnd + 1;
+        }
+        return new ChunkResult(rows, rejected, line);
+    }
+
+    // Parses a `title,author,isbn` line, supporting double-quoted fields with "" as an escaped quote
+    static Book parseCsv(String text) {
+        if (text.indexOf('"') < 0) {
+            // fast path for lines without quotes, which is almost every line in a vendor catalog
+            int firstComma = text.indexOf(',');
+            int secondComma = firstComma < 0 ? -1 : text.indexOf(',', firstComma + 1);
+            if (secondComma >= 0 && text.indexOf(',', secondComma + 1) < 0) {
+                return createBook(text.substring(0, firstComma), text.substring(firstComma + 1, secondComma),
+                        text.substring(secondComma + 1));
+            }
+        }
+
+        List<String> fields = new ArrayList<>(3);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        if (fields.size() != 3) {
+            throw new IllegalArgumentException("Expected 3 fields but found " + fields.size());
+        }
+        return createBook(fields.get(0), fields.get(1), fields.get(2));
+    }
+
+    // Parses a `020 isbn|100 author|245 title` line
+    static Book parseMarc(String text) {
+        String title = null;
+        String author = null;
+        String isbn = null;
+        for (String field : text.split("\\|")) {
+            String trimmed = field.trim();
+            if (trimmed.length() < 3) {
+                continue;
+            }
+            String value = trimmed.substring(3).trim();
+            if (value.startsWith("$a")) {
+                value = value.substring(2).trim();
+            }
+            switch (trimmed.substring(0, 3)) {
+                case "020" -> isbn = value;
+                case "100" -> author = value;
+                case "245" -> title = value;
+                default -> {
+                    // other MARC fields aren't stored by the library
+                }
+            }
+        }
+        return createBook(title, author, isbn);
+    }
+
+    // Validates the fields of a row the same way the Add Book form does, and creates the book
+    private static Book createBook(String title, String author, String isbn) {
+        if (title == null || title.isBlank() || author == null || author.isBlank() || isbn == null || isbn.isBlank()) {
+            throw new IllegalArgumentException("Missing title, author or ISBN");
+        }
+        StringBuilder digits = new StringBuilder(isbn.length());
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            } else if (c != '-' && c != ' ') { // hyphens and spaces are allowed as separators
+                throw new IllegalArgumentException("ISBN must be numeric");
+            }
+        }
+        if (digits.isEmpty()) {
+            throw new IllegalArgumentException("ISBN must be numeric");
+        }
+        return new Book(title.trim(), author.trim(), digits.toString());
+    }
+
+    private static String describe(Book book) {
+        return book.getTitle() + " by " + book.getAuthor() + " (ISBN: " + book.getISBN() + ")";
+    }
+}
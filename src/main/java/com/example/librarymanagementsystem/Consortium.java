@@ -0,0 +1,220 @@
+/*
+ * Cade Mock
+ * CWID: 50350556
+ * Date (Last Updated) : 10/19/2026
+ * Email: cmock2@leomail.tamuc.edu
+ */
+
+package com.example.librarymanagementsystem;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the branches of a library consortium in one process, on top of one shared bibliographic store.
+ *
+ * Titles and authors are recorded once in the consortium's BibliographicStore. Each branch is its own Library,
+ * with its own lock, data file, members and loans, and holds Book records for the titles on its shelves. Those
+ * records share the store's title and author strings, so a title held by every branch is only stored once.
+ * - Branch-scoped searches go to that branch's Library.
+ * - Consortium-wide searches run on every branch in parallel and the results are merged in branch order.
+ *
+ * The set of branches is fixed when the consortium is created.
+ */
+public class Consortium implements AutoCloseable {
+    /**
+     * A title held by a branch, as found by a consortium-wide search.
+     *
+     * @param branch  The name of the branch.
+     * @param book    The branch's record of the title, with its copies and loans.
+     */
+    public record Holding(String branch, Book book) {
+    }
+
+    private final Map<String, Library> branches; // branch name -> library, in the order the branches were given
+    private final BibliographicStore catalog = new BibliographicStore();
+    private final ExecutorService searchExecutor; // runs the per-branch searches, saves and loads in parallel
+
+    /**
+     * Creates a consortium. The branch named {name} is saved to "{dataFilePrefix}_{name}.dat".
+     *
+     * @param branchNames     The names of the branches, which must be unique.
+     * @param dataFilePrefix  The prefix of each branch's data file.
+     */
+    public Consortium(List<String> branchNames, String dataFilePrefix) {
+        if (branchNames.isEmpty()) {
+            throw new IllegalArgumentException("A consortium needs at least one branch");
+        }
+        LinkedHashMap<String, Library> libraries = new LinkedHashMap<>();
+        for (String name : branchNames) {
+            if (name.isBlank() || libraries.put(name, new Library(dataFilePrefix + "_" + name + ".dat")) != null) {
+                throw new IllegalArgumentException("Branch names must be unique and not blank: '" + name + "'");
+            }
+        }
+        branches = Collections.unmodifiableMap(libraries);
+        searchExecutor = Executors.newFixedThreadPool(branches.size(), runnable -> {
+            Thread thread = new Thread(runnable, "consortium-branch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Getters for the branches and the shared store
+    public List<String> getBranchNames() {
+        return new ArrayList<>(branches.keySet());
+    }
+
+    public Library getBranch(String name) {
+        Library branch = branches.get(name);
+        if (branch == null) {
+            throw new IllegalArgumentException("No such branch: " + name);
+        }
+        return branch;
+    }
+
+    public BibliographicStore getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Records a title in the shared store, so branches can hold it.
+     *
+     * @param ISBN    The ISBN of the title.
+     * @param title   The title.
+     * @param author  The author.
+     * @return        The stored record, the existing one if the ISBN was already recorded.
+     */
+    public BibliographicStore.Record addTitle(String ISBN, String title, String author) {
+        return catalog.register(ISBN, title, author);
+    }
+
+    /**
+     * Puts copies of a recorded title on a branch's shelves. If the branch already holds the title the copies are
+     * added to its existing record (see Library.addCopies()).
+     *
+     * @param branch  The name of the branch.
+     * @param ISBN    The ISBN of a title recorded with addTitle().
+     * @param copies  The number of copies to add.
+     * @return        True if the copies were added, false if the title isn't recorded or copies isn't positive.
+     */
+    public boolean addHolding(String branch, String ISBN, int copies) {
+        Library library = getBranch(branch);
+        BibliographicStore.Record record = catalog.find(ISBN);
+        if (record == null || copies <= 0) {
+            return false;
+        }
+        if (library.addBook(new Book(record.title(), record.author(), ISBN))) {
+            return copies == 1 || library.addCopies(ISBN, copies - 1);
+        }
+        return library.addCopies(ISBN, copies); // the branch already has the title
+    }
+
+    /**
+     * Searches one branch's holdings, like Library.searchBooks(String).
+     *
+     * @param branch  The name of the branch.
+     * @param query   The search string to look for in the book details.
+     * @return        The branch's books that match the query.
+     */
+    public List<Book> searchBooks(String branch, String query) {
+        return getBranch(branch).searchBooks(query);
+    }
+
+    /**
+     * Searches every branch in parallel and merges the results.
+     * Results are ordered by branch, then in each branch's own order.
+     *
+     * @param query  The search string to look for in the book details.
+     * @return       The matching holdings of every branch.
+     */
+    public List<Holding> searchBooks(String query) {
+        List<Future<List<Holding>>> futures = new ArrayList<>(branches.size());
+        for (Map.Entry<String, Library> branch : branches.entrySet()) {
+            futures.add(searchExecutor.submit(() -> {
+                List<Holding> holdings = new ArrayList<>();
+                for (Book book : branch.getValue().searchBooks(query)) {
+                    holdings.add(new Holding(branch.getKey(), book));
+                }
+                return holdings;
+            }));
+        }
+
+        List<Holding> results = new ArrayList<>();
+        for (Future<List<Holding>> future : futures) {
+            try {
+                results.addAll(future.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Branch search failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while searching branches", e);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Saves every branch to its own data file, in parallel.
+     *
+     * @throws IOException  If any branch fails to save.
+     */
+    public void saveData() throws IOException {
+        runOnEveryBranch(Library::saveData, "save");
+    }
+
+    /**
+     * Loads every branch from its own data file, in parallel, and records their titles in the shared store.
+     * Books read from the files get the store's title and author strings, so the duplicates read from the files
+     * can be garbage collected. Should be called before the branches are used.
+     *
+     * @throws IOException  If any branch fails to load.
+     */
+    public void loadData() throws IOException {
+        runOnEveryBranch(library -> {
+            library.loadData();
+            for (Book book : library.getBookList()) {
+                catalog.adopt(book);
+            }
+        }, "load");
+    }
+
+    // Stops the branch threads
+    @Override
+    public void close() {
+        searchExecutor.shutdown();
+    }
+
+    // A save or load of one branch
+    private interface BranchTask {
+        void run(Library library) throws Exception;
+    }
+
+    // Runs a task on every branch in parallel and waits for all of them, rethrowing the first failure
+    private void runOnEveryBranch(BranchTask task, String action) throws IOException {
+        List<Future<Void>> futures = new ArrayList<>(branches.size());
+        for (Library library : branches.values()) {
+            futures.add(searchExecutor.submit(() -> {
+                task.run(library);
+                return null;
+            }));
+        }
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new IOException("Failed to " + action + " branch: " + e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the branches to " + action);
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Cade Mock
+ * CWID: 50350556
+ * Date (Last Updated) : 10/19/2026
+ * Email: cmock2@leomail.tamuc.edu
+ */
+
+package com.example.librarymanagementsystem;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Tracks the extra physical copies of a title, numbered from 1 (copy 0 is the one described by the Book itself).
+ *
+ * Which copies are on loan is kept in a bitmap, one bit per copy, and the number of copies on the shelf in a counter,
+ * so checking whether a copy is available is O(1). Borrowing takes the lowest free copy by finding the first word of
+ * the bitmap that isn't full, starting from a hint that points at the first word that may have a free copy.
+ * The loan table keeps the borrower and borrowed date of each copy, with the copy each borrower has so returns
+ * don't search either. A member can only have one copy of a title.
+ *
+ * Like the first copy in Book, borrowed dates are stored as epoch days with a bitmap saying which are set, and the
+ * due date is derived from the borrowed date and Book.LOAN_DAYS, so a loan costs no date objects.
+ */
+public class CopyLedger implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * One copy on loan.
+     *
+     * @param copy          The copy number, 0 for the copy described by the Book itself.
+     * @param borrowerID    The ID of the member who borrowed the copy.
+     * @param borrowedDate  The date the copy was borrowed.
+     * @param dueDate       The date the copy is due back.
+     */
+    public record Loan(int copy, String borrowerID, LocalDate borrowedDate, LocalDate dueDate) {
+        // Checks if the copy is overdue by comparing the due date with the current date
+        public boolean isOverdue() {
+            return isOverdue(LocalDate.now());
+        }
+
+        // Checks if the copy is overdue on a given day, so scans can read the clock once
+        public boolean isOverdue(LocalDate today) {
+            return dueDate != null && today.isAfter(dueDate);
+        }
+    }
+
+    private int size; // number of copies in the ledger
+    private int available; // number of copies in the ledger that aren't on loan
+    private long[] onLoan = new long[0]; // bit i is set when copy i + 1 is on loan, bits past the last copy are set too
+    private int freeHint; // no word of onLoan before this one has a free copy
+    private String[] borrowers = new String[0]; // borrower of each copy, null if it's on the shelf
+    private long[] dated = new long[0]; // bit i is set when copy i + 1 has a borrowed date
+    private int[] borrowedDays = new int[0]; // epoch day each copy was borrowed, if its bit in dated is set
+    private final HashMap<String, Integer> copyByBorrower = new HashMap<>(); // Member ID -> index of their copy
+
+    CopyLedger() {
+    }
+
+    // Copy constructor used when a Book is copied for a snapshot
+    CopyLedger(CopyLedger other) {
+        size = other.size;
+        available = other.available;
+        onLoan = other.onLoan.clone();
+        freeHint = other.freeHint;
+        borrowers = other.borrowers.clone();
+        dated = other.dated.clone();
+        borrowedDays = other.borrowedDays.clone();
+        copyByBorrower.putAll(other.copyByBorrower);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int available() {
+        return available;
+    }
+
+    // Adds copies to the shelf, numbered after the existing ones
+    void addCopies(int count) {
+        int newSize = size + count;
+        int words = (newSize + 63) >>> 6;
+        if (words > onLoan.length) {
+            onLoan = Arrays.copyOf(onLoan, words);
+            dated = Arrays.copyOf(dated, words);
+        }
+        if (newSize > borrowers.length) {
+            int capacity = Math.max(newSize, borrowers.length * 2);
+            borrowers = Arrays.copyOf(borrowers, capacity);
+            borrowedDays = Arrays.copyOf(borrowedDays, capacity);
+        }
+        for (int i = size; i < newSize; i++) {
+            onLoan[i >>> 6] &= ~(1L << i); // clear the "past the last copy" bits of the new copies
+        }
+        for (int i = newSize; i < words << 6; i++) {
+            onLoan[i >>> 6] |= 1L << i;
+        }
+        freeHint = Math.min(freeHint, size >>> 6);
+        size = newSize;
+        available += count;
+    }
+
+    /**
+     * Lends the lowest numbered free copy.
+     *
+     * @param memberID      The ID of the member borrowing the copy, who mustn't have a copy already.
+     * @param borrowedDate  The date the copy is borrowed.
+     * @return              The copy number, or -1 if every copy is on loan.
+     */
+    int lend(String memberID, LocalDate borrowedDate) {
+        if (available == 0 || copyByBorrower.containsKey(memberID)) {
+            return -1;
+        }
+        while (onLoan[freeHint] == -1L) {
+            freeHint++; // the counter says there is a free copy, so this stops before the end
+        }
+        int index = (freeHint << 6) + Long.numberOfTrailingZeros(~onLoan[freeHint]);
+        onLoan[freeHint] |= 1L << index;
+        available--;
+        borrowers[index] = memberID;
+        if (borrowedDate != null) {
+            borrowedDays[index] = Math.toIntExact(borrowedDate.toEpochDay());
+            dated[index >>> 6] |= 1L << index;
+        }
+        copyByBorrower.put(memberID, index);
+        return index + 1;
+    }
+
+    /**
+     * Puts the copy a member has back on the shelf.
+     *
+     * @param memberID  The ID of the member returning the copy.
+     * @return          The copy number, or -1 if the member has no copy from this ledger.
+     */
+    int release(String memberID) {
+        Integer index = memberID == null ? null : copyByBorrower.remove(memberID);
+        if (index == null) {
+            return -1;
+        }
+        onLoan[index >>> 6] &= ~(1L << index);
+        available++;
+        borrowers[index] = null;
+        dated[index >>> 6] &= ~(1L << index);
+        freeHint = Math.min(freeHint, index >>> 6);
+        return index + 1;
+    }
+
+    // Checks whether a member has one of the copies
+    boolean hasCopy(String memberID) {
+        return copyByBorrower.containsKey(memberID);
+    }
+
+    // Adds the copies on loan to the list, in copy order
+    void addLoans(List<Loan> loans) {
+        for (int i = 0; i < size; i++) {
+            if (borrowers[i] == null) {
+                continue;
+            }
+            if ((dated[i >>> 6] & 1L << i) == 0) {
+                loans.add(new Loan(i + 1, borrowers[i], null, null));
+            } else {
+                loans.add(new Loan(i + 1, borrowers[i], LocalDate.ofEpochDay(borrowedDays[i]),
+                        LocalDate.ofEpochDay((long) borrowedDays[i] + Book.LOAN_DAYS)));
+            }
+        }
+    }
+
+    // Estimates the bytes the ledger retains, not counting the borrower strings (see HeapFootprint)
+    long estimateBytes() {
+        return HeapFootprint.object(5, 12)
+                + 2 * HeapFootprint.array(onLoan.length, 8)
+                + HeapFootprint.array(borrowers.length, HeapFootprint.REFERENCE)
+                + HeapFootprint.array(borrowedDays.length, 4)
+                + HeapFootprint.hashMap(copyByBorrower.size())
+                + copyByBorrower.size() * HeapFootprint.object(0, 4); // the boxed copy indexes
+    }
+
+    // Returns the copies on loan, in copy order
+    public List<Loan> getLoans() {
+        List<Loan> loans = new ArrayList<>(size - available);
+        addLoans(loans);
+        return loans;
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Cade Mock
+ * CWID: 50350556
+ * Date (Last Updated) : 10/19/2026
+ * Email: cmock2@leomail.tamuc.edu
+ */
+
+package com.example.librarymanagementsystem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds books whose title or author words are close to a misspelled query, such as "Tolkein" for "Tolkien".
+ *
+ * Every distinct normalized word (see SearchKey) of the titles and authors is kept once in a sorted array. Words
+ * that share a prefix are next to each other, so the array can be walked like a trie: each prefix is one step of
+ * the usual edit distance table against the query word, and a prefix is abandoned as soon as every entry of its row
+ * is over the maximum distance (a Levenshtein automaton simulated with the table). With a small maximum distance
+ * only a tiny part of the dictionary is visited, and no trie nodes have to be stored.
+ *
+ * New words go to a short unsorted list that is checked word by word and merged into the array once it fills up.
+ * Each word keeps the books it appears in. Removed books are taken out of those lists, words without books are just
+ * skipped when searching. The index is not thread-safe on its own, the library only uses it while holding its lock.
+ */
+class FuzzyIndex {
+    static final int PENDING_LIMIT = 1024; // new words collected before they are merged into the sorted array
+
+    // A matching book and the total edit distance of its closest words to the query words
+    private record Match(Book book, int distance) {
+    }
+
+    private String[] sorted = new String[0]; // the dictionary, sorted
+    private final List<String> pending = new ArrayList<>(); // words added since the last merge
+    private final HashMap<String, List<Book>> postings = new HashMap<>(); // word -> books with that word
+
+    // Adds a book's title and author words to the index
+    void addBook(Book book) {
+        addTerms(book);
+        if (pending.size() >= PENDING_LIMIT) {
+            merge();
+        }
+    }
+
+    // Adds many books at once, sorting their new words in one merge
+    void addBooks(List<Book> books) {
+        for (Book book : books) {
+            addTerms(book);
+        }
+        merge();
+    }
+
+    private void addTerms(Book book) {
+        for (String term : terms(book)) {
+            List<Book> books = postings.get(term);
+            if (books == null) {
+                books = new ArrayList<>(2);
+                postings.put(term, books);
+                pending.add(term);
+            }
+            books.add(book);
+        }
+    }
+
+    void removeBook(Book book) {
+        for (String term : terms(book)) {
+            List<Book> books = postings.get(term);
+            if (books != null) {
+                books.remove(book);
+            }
+        }
+    }
+
+    /**
+     * Finds the books that contain a word within maxDistance edits of every word in the query.
+     *
+     * @param query        The words to look for, in any case.
+     * @param maxDistance  The most edits (insertions, deletions or substitutions) allowed per query word.
+     * @param limit        The most books to return.
+     * @return             The matching books, closest first, then by title.
+     */
+    List<Book> search(String query, int maxDistance, int limit) {
+        List<String> words = SearchKey.words(query);
+        if (words.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // for each query word, the distance of each book's closest word, books must match every query word
+        Map<Book, Integer> totals = null;
+        for (String word : words) {
+            HashMap<Book, Integer> closest = new HashMap<>();
+            for (Map.Entry<String, Integer> term : within(word, maxDistance).entrySet()) {
+                for (Book book : postings.get(term.getKey())) {
+                    closest.merge(book, term.getValue(), Math::min);
+                }
+            }
+            if (totals == null) {
+                totals = closest;
+            } else {
+                totals.keySet().retainAll(closest.keySet());
+                totals.replaceAll((book, distance) -> distance + closest.get(book));
+            }
+        }
+
+        List<Match> matches = new ArrayList<>(totals.size());
+        for (Map.Entry<Book, Integer> entry : totals.entrySet()) {
+            matches.add(new Match(entry.getKey(), entry.getValue()));
+        }
+        matches.sort(Comparator.comparingInt(Match::distance)
+                .thenComparing(match -> match.book().getTitle(), String.CASE_INSENSITIVE_ORDER)
+                .thenComparing(match -> match.book().getISBN()));
+        List<Book> results = new ArrayList<>(Math.min(limit, matches.size()));
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            results.add(matches.get(i).book());
+        }
+        return results;
+    }
+
+    // Returns the dictionary words within maxDistance of the word that still belong to a book, with their distance
+    private Map<String, Integer> within(String word, int maxDistance) {
+        HashMap<String, Integer> found = new HashMap<>();
+        int[] firstRow = new int[word.length() + 1];
+        for (int j = 0; j <= word.length(); j++) {
+            firstRow[j] = j; // distance from the empty prefix to each prefix of the word
+        }
+        walk(word, maxDistance, 0, sorted.length, 0, firstRow, found);
+        for (String term : pending) {
+            int distance = distance(word, term, maxDistance);
+            if (distance <= maxDistance) {
+                found.put(term, distance);
+            }
+        }
+        found.values().removeIf(distance -> distance > maxDistance);
+        found.keySet().removeIf(term -> postings.get(term).isEmpty());
+        return found;
+    }
+
+    /**
+     * Visits the words in sorted[from, to), which all share their first depth characters (the current prefix).
+     * row[j] is the edit distance between that prefix and the first j characters of the query word.
+     */
+    private void walk(String word, int maxDistance, int from, int to, int depth, int[] row, Map<String, Integer> found) {
+        if (from < to && sorted[from].length() == depth) {
+            found.put(sorted[from], row[word.length()]); // the prefix itself is a word, it sorts first
+            from++;
+        }
+        int[] next = new int[row.length];
+        while (from < to) {
+            char c = sorted[from].charAt(depth);
+            int end = groupEnd(from, to, depth, c);
+
+            // one more row of the table for the prefix extended by c
+            next[0] = depth + 1;
+            int rowMin = next[0];
+            for (int j = 1; j < row.length; j++) {
+                int cost = word.charAt(j - 1) == c ? 0 : 1;
+                next[j] = Math.min(Math.min(next[j - 1] + 1, row[j] + 1), row[j - 1] + cost);
+                rowMin = Math.min(rowMin, next[j]);
+            }
+            if (rowMin <= maxDistance) {
+                walk(word, maxDistance, from, end, depth + 1, next.clone(), found);
+            }
+            from = end;
+        }
+    }
+
+    // Returns the end of the run of words in [from, to) with character c at position depth, by binary search
+    private int groupEnd(int from, int to, int depth, char c) {
+        int low = from + 1;
+        int high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle].charAt(depth) == c) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Adds the dictionary and the book lists of its words to a footprint estimate
+    void estimateFootprint(HeapFootprint footprint) {
+        long bytes = HeapFootprint.array(sorted.length, HeapFootprint.REFERENCE) + HeapFootprint.arrayList(pending.size())
+                + HeapFootprint.hashMap(postings.size());
+        for (Map.Entry<String, List<Book>> posting : postings.entrySet()) {
+            bytes += footprint.string(posting.getKey()) + HeapFootprint.arrayList(posting.getValue().size());
+        }
+        footprint.add("Fuzzy index", HeapFootprint.Scale.BOOKS, bytes);
+    }
+
+    // Merges the pending words into the sorted array
+    private void merge() {
+        String[] added = pending.toArray(new String[0]);
+        Arrays.sort(added);
+        String[] merged = new String[sorted.length + added.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < sorted.length && j < added.length) {
+            merged[k++] = sorted[i].compareTo(added[j]) <= 0 ? sorted[i++] : added[j++];
+        }
+        while (i < sorted.length) {
+            merged[k++] = sorted[i++];
+        }
+        while (j < added.length) {
+            merged[k++] = added[j++];
+        }
+        sorted = merged;
+        pending.clear();
+    }
+
+    /**
+     * Computes the Levenshtein edit distance between two words with two rows of the usual table.
+     * Stops early and returns limit + 1 once every entry of a row is over the limit.
+     */
+    static int distance(String a, String b, int limit) {
+        if (Math.abs(a.length() - b.length()) > limit) {
+            return limit + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    // The distinct words of a book's title and author
+    private static Set<String> terms(Book book) {
+        Set<String> terms = new LinkedHashSet<>(SearchKey.words(book.getTitle()));
+        terms.addAll(SearchKey.words(book.getAuthor()));
+        return terms;
+    }
+}
@@ -0,0 +1,336 @@
+/*
+ * Cade Mock
+ * CWID: 50350556
+ * Date (Last Updated) : 10/19/2026
+ * Email: cmock2@leomail.tamuc.edu
+ */
+
+package com.example.librarymanagementsystem;
+
+import java.lang.ref.Reference;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Estimates how much heap a library retains, broken down by component, to size JVM heaps and catch footprint
+ * regressions (see Library.estimateFootprint()).
+ *
+ * Sizes are computed from the object layout of a 64-bit HotSpot JVM with compressed references, which is what a
+ * heap under 32 GB uses: 12 byte object headers, 16 byte array headers, 4 byte references and 8 byte alignment.
+ * Every component (the books, the members, each index and cache) adds its own estimate, and each string is counted
+ * once, by the first component that reaches it, however many objects share it. Each component is marked as growing
+ * with the books, with the members, or as fixed, so the estimate can be projected to a larger catalog.
+ *
+ * The estimates can be checked against the heap the JVM actually uses with measureRetainedBytes().
+ *
+ * Usage: java -cp target/classes com.example.librarymanagementsystem.HeapFootprint [books=100000] [members=10000]
+ *        [targetBooks=1000000] [targetMembers=100000] [measure=true]
+ */
+public class HeapFootprint {
+    static final int OBJECT_HEADER = 12;
+    static final int ARRAY_HEADER = 16;
+    static final int REFERENCE = 4;
+    static final int ALIGNMENT = 8;
+    static final double HEAP_HEADROOM = 2.0; // heap to reserve per retained byte, so the collector has room to work
+
+    // What a component's size grows with, used to project it to a larger catalog
+    public enum Scale {
+        BOOKS,
+        MEMBERS,
+        FIXED
+    }
+
+    /**
+     * The estimated size of one part of a library.
+     *
+     * @param name   What the bytes are used for.
+     * @param scale  What the size grows with.
+     * @param bytes  The estimated retained bytes.
+     */
+    public record Component(String name, Scale scale, long bytes) {
+    }
+
+    /**
+     * The estimated footprint of a library.
+     *
+     * @param books       The number of books in the library.
+     * @param members     The number of members in the library.
+     * @param components  The estimate of each component, largest first.
+     */
+    public record Report(int books, int members, List<Component> components) {
+        public long totalBytes() {
+            return components.stream().mapToLong(Component::bytes).sum();
+        }
+
+        // Returns the bytes of the components that grow with the books, per book
+        public long bytesPerBook() {
+            return books == 0 ? 0 : bytesOf(Scale.BOOKS) / books;
+        }
+
+        // Returns the bytes of the components that grow with the members, per member
+        public long bytesPerMember() {
+            return members == 0 ? 0 : bytesOf(Scale.MEMBERS) / members;
+        }
+
+        /**
+         * Projects the retained bytes to another catalog size, scaling each component with what it grows with.
+         * Components of a kind the library has none of (such as member components of a library without members)
+         * can't be projected and are left out.
+         *
+         * @param targetBooks    The number of books to project to.
+         * @param targetMembers  The number of members to project to.
+         * @return               The projected retained bytes.
+         */
+        public long projectBytes(long targetBooks, long targetMembers) {
+            double bytes = bytesOf(Scale.FIXED);
+            if (books > 0) {
+                bytes += (double) bytesOf(Scale.BOOKS) * targetBooks / books;
+            }
+            if (members > 0) {
+                bytes += (double) bytesOf(Scale.MEMBERS) * targetMembers / members;
+            }
+            return Math.round(bytes);
+        }
+
+        // Returns the heap to give the JVM for a catalog of the target size, with room for garbage collection
+        public long recommendedHeapBytes(long targetBooks, long targetMembers) {
+            return Math.round(projectBytes(targetBooks, targetMembers) * HEAP_HEADROOM);
+        }
+
+        private long bytesOf(Scale scale) {
+            return components.stream().filter(component -> component.scale() == scale).mapToLong(Component::bytes).sum();
+        }
+
+        @Override
+        public String toString() {
+            long total = totalBytes();
+            StringBuilder text = new StringBuilder(String.format("%d books, %d members: %s retained%n",
+                    books, members, formatBytes(total)));
+            for (Component component : components) {
+                text.append(String.format("  %-28s %-8s %12s %5.1f%%%n", component.name(), component.scale(),
+                        formatBytes(component.bytes()), total == 0 ? 0.0 : 100.0 * component.bytes() / total));
+            }
+            text.append(String.format("%d bytes per book, %d bytes per member", bytesPerBook(), bytesPerMember()));
+            return text.toString();
+        }
+    }
+
+    private final int books;
+    private final int members;
+    private final Map<String, Component> components = new LinkedHashMap<>();
+    private final Set<String> countedStrings = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    HeapFootprint(int books, int members) {
+        this.books = books;
+        this.members = members;
+    }
+
+    // Adds bytes to a component, creating it the first time
+    void add(String name, Scale scale, long bytes) {
+        components.merge(name, new Component(name, scale, bytes),
+                (old, added) -> new Component(name, scale, old.bytes() + added.bytes()));
+    }
+
+    // Returns the size of a string the first time it is seen, 0 if it is null or was already counted
+    long string(String text) {
+        if (text == null || !countedStrings.add(text)) {
+            return 0;
+        }
+        boolean latin1 = text.chars().allMatch(c -> c <= 0xFF); // compact strings store these one byte per char
+        return object(1, 6) + array(text.length(), latin1 ? 1 : 2); // value, hash, coder, hashIsZero
+    }
+
+    // Adds the books with their copies, and their strings
+    void addBooks(List<Book> bookList) {
+        long bytes = 0;
+        long strings = 0;
+        for (Book book : bookList) {
+            if (book == null) {
+                continue; // tombstone
+            }
+            bytes += book(book); // the loan dates are stored as ints inside the book
+            strings += string(book.getTitle()) + string(book.getAuthor()) + string(book.getISBN()) + string(book.getBorrowerID())
+                    + string(book.getSearchKey());
+            if (book.getExtraCopies() != null) {
+                for (CopyLedger.Loan loan : book.getExtraCopies().getLoans()) {
+                    strings += string(loan.borrowerID());
+                }
+            }
+        }
+        add("Books", Scale.BOOKS, bytes);
+        add("Book strings", Scale.BOOKS, strings);
+    }
+
+    // Adds the members with their loan lists, and their strings
+    void addMembers(List<Member> memberList) {
+        long bytes = 0;
+        long strings = 0;
+        for (Member member : memberList) {
+            if (member == null) {
+                continue; // tombstone
+            }
+            bytes += member(member);
+            strings += string(member.getName()) + string(member.getMemberID()) + string(member.getSearchKey());
+            for (String ISBN : member.getBorrowedBooks()) {
+                strings += string(ISBN);
+            }
+        }
+        add("Members", Scale.MEMBERS, bytes);
+        add("Member strings", Scale.MEMBERS, strings);
+    }
+
+    Report report() {
+        List<Component> sorted = new ArrayList<>(components.values());
+        sorted.sort((a, b) -> Long.compare(b.bytes(), a.bytes()));
+        return new Report(books, members, List.copyOf(sorted));
+    }
+
+    // Size of an object with the given fields, aligned
+    static long object(int references, int primitiveBytes) {
+        return align(OBJECT_HEADER + (long) references * REFERENCE + primitiveBytes);
+    }
+
+    // Size of an array, aligned
+    static long array(int length, int elementBytes) {
+        return align(ARRAY_HEADER + (long) length * elementBytes);
+    }
+
+    // Size of a book and its copy ledger, not counting its strings and dates
+    static long book(Book book) {
+        long bytes = object(6, 20); // six references, state, two dates, borrowCount, ordinal
+        return book.getExtraCopies() == null ? bytes : bytes + book.getExtraCopies().estimateBytes();
+    }
+
+    // Size of a member and its loan list, not counting its strings
+    static long member(Member member) {
+        return object(4, 4) + arrayList(member.getBorrowedBooks().size()); // name, memberID, borrowedBooks, searchKey, ordinal
+    }
+
+    static long localDate(LocalDate date) {
+        return date == null ? 0 : object(0, 8); // year, month, day
+    }
+
+    // An ArrayList with its backing array, assumed to be full (the capacity isn't visible)
+    static long arrayList(int size) {
+        return object(1, 8) + array(size, REFERENCE);
+    }
+
+    // A HashMap with its table and nodes, at the default load factor
+    static long hashMap(int size) {
+        return object(4, 16) + array(tableLength(size), REFERENCE) + size * object(3, 4);
+    }
+
+    // A LinkedHashMap, whose nodes also link the insertion or access order
+    static long linkedHashMap(int size) {
+        return object(6, 17) + array(tableLength(size), REFERENCE) + size * object(5, 4);
+    }
+
+    // A ConcurrentHashMap, sized like a HashMap whose nodes have no subclasses
+    static long concurrentHashMap(int size) {
+        return object(6, 24) + array(tableLength(size), REFERENCE) + size * object(3, 4);
+    }
+
+    // A TreeMap with its entries
+    static long treeMap(int size) {
+        return object(6, 8) + size * object(5, 1);
+    }
+
+    // Table length of a hash map with this many entries, the power of two that keeps it under 75% full
+    private static int tableLength(int size) {
+        if (size == 0) {
+            return 0;
+        }
+        int needed = (int) Math.ceil(size / 0.75);
+        return Math.max(16, Integer.highestOneBit(needed - 1) << 1);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        int unit = (63 - Long.numberOfLeadingZeros(bytes)) / 10; // 1 for KB, 2 for MB, ...
+        return String.format("%.1f %sB", bytes / Math.pow(1024, unit), " KMGTPE".charAt(unit));
+    }
+
+    /**
+     * Measures the heap an object graph actually retains, by collecting garbage before and after building it.
+     * Other threads allocating at the same time make the result noisy, so use it on a quiet JVM.
+     *
+     * @param builder  Builds the object graph to measure.
+     * @return         The growth of the used heap while the graph is reachable.
+     */
+    public static long measureRetainedBytes(Supplier<?> builder) {
+        long before = usedHeapAfterGc();
+        Object retained = builder.get();
+        long after = usedHeapAfterGc();
+        Reference.reachabilityFence(retained);
+        return after - before;
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc(); // a few rounds, the first one may leave garbage that is only found later
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Options look like name=value: " + arg);
+            }
+            options.put(pair[0], pair[1]);
+        }
+        int bookCount = Integer.parseInt(options.getOrDefault("books", "100000"));
+        int memberCount = Integer.parseInt(options.getOrDefault("members", "10000"));
+        long targetBooks = Long.parseLong(options.getOrDefault("targetBooks", "1000000"));
+        long targetMembers = Long.parseLong(options.getOrDefault("targetMembers", "100000"));
+
+        Library[] library = new Library[1];
+        long measured = measureRetainedBytes(() -> library[0] = sampleLibrary(bookCount, memberCount));
+        Report report = library[0].estimateFootprint();
+        System.out.println(report);
+        System.out.printf("Projected for %d books and %d members: %s retained, run with -Xmx%dm%n", targetBooks,
+                targetMembers, formatBytes(report.projectBytes(targetBooks, targetMembers)),
+                (report.recommendedHeapBytes(targetBooks, targetMembers) >> 20) + 1);
+        if (Boolean.parseBoolean(options.getOrDefault("measure", "true"))) {
+            System.out.printf("Measured: %s retained, the estimate is off by %+.1f%%%n", formatBytes(measured),
+                    100.0 * (report.totalBytes() - measured) / measured);
+        }
+    }
+
+    // Builds a library with made-up books and members, a loan for every third member and a few searches cached
+    private static Library sampleLibrary(int bookCount, int memberCount) {
+        Library library = new Library("footprint_test.dat"); // never saved
+        List<Book> books = new ArrayList<>(bookCount);
+        for (int i = 0; i < bookCount; i++) {
+            books.add(new Book("Sample Title " + i, "Sample Author " + (i % 997), String.valueOf(10_000_000 + i)));
+        }
+        library.addBooks(books);
+        for (int i = 0; i < memberCount; i++) {
+            library.addMember(new Member("Sample Member " + i, "SM" + i));
+            if (i % 3 == 0 && i < bookCount) {
+                library.borrowBook(String.valueOf(10_000_000 + i), "SM" + i);
+            }
+        }
+        for (int i = 0; i < 10; i++) {
+            library.searchBooks("Author " + i);
+        }
+        return library;
+    }
+}
@@ -8,55 +8,460 @@
 package com.example.librarymanagementsystem;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * Represents the library system, managing books, members, and their interactions.
  * Implements Serializable to enable data persistence for saving and loading the entire library state.
  *
  * Responsibilities of the Library class include:
- * - Managing a collection of books and members.
+ * - Managing a collection of books and members, indexed by ISBN and Member ID for fast lookups.
  * - Handling operations like borrowing and returning books.
  * - Providing search functionality for books and members.
  * - Facilitating data persistence through saving and loading operations.
  *
+ * All operations that read or change the library state are synchronized on the library instance,
+ * so a snapshot taken for saving (see snapshot()) never captures a half-applied borrow or return.
+ * Every change is also reported to event listeners as a numbered LibraryEvent, in the order the changes happen.
+ *
  * Note: Unsure if Serializable is needed here
  */
 public class Library implements Serializable {
-    private ArrayList<Book> bookList; // List of all books in the library
-    private ArrayList<Member> memberList; // List of all members in the library
+    public static final String DEFAULT_DATA_FILE = "library_data.dat"; // file used by the app and tests
+    static final double COMPACTION_RATIO = 0.25; // compact a list once this fraction of it is tombstones
+    static final int COMPACTION_MIN_SIZE = 64; // lists shorter than this are never compacted in the background
+    static final int SEARCH_CACHE_SIZE = 256; // most recent search queries whose results are kept
+
+    // Relevance ranks used by searchBooks(query, k), higher ranks are listed first
+    private static final int RANK_EXACT_ISBN = 6;
+    private static final int RANK_TITLE_PREFIX = 5;
+    private static final int RANK_TITLE_WORD = 4;
+    private static final int RANK_TITLE_SUBSTRING = 3;
+    private static final int RANK_AUTHOR = 2;
+    private static final int RANK_ISBN_PART = 1;
+
+    private ArrayList<Book> bookList; // List of all books in the library, removed books are left as null (tombstones)
+    private ArrayList<Member> memberList; // List of all members in the library, with null tombstones like bookList
+    private transient int bookTombstones; // number of null entries in bookList
+    private transient int memberTombstones; // number of null entries in memberList
+    private transient boolean compactionScheduled; // a background compaction has been requested but hasn't run yet
+    private transient long compactions; // number of compactions so far, ordinals only change when this does
+    private transient HashMap<String, Book> bookIndex; // ISBN -> book, rebuilt whenever the lists are replaced
+    private transient HashMap<String, Member> memberIndex; // Member ID -> member
+    private final String dataFile; // file the library is saved to and loaded from
+    private transient long version; // incremented on every change, used to skip saves when nothing changed
+    private final transient HashMap<String, Integer> loanReservations = new HashMap<>(); // memberID -> loans reserved by reserveLoan
+    private transient long eventSequence; // sequence number of the last event sent to the listeners
+    private final transient List<Consumer<LibraryEvent>> eventListeners = new CopyOnWriteArrayList<>();
+    private transient SearchCache searchCache = new SearchCache(SEARCH_CACHE_SIZE, Library::matches);
+    private transient PageIndex pageIndex = new PageIndex(); // sorted listings for pageBooks(), pageMembers() and pageLoans()
+    private transient MemberSearchIndex memberSearchIndex = new MemberSearchIndex(); // for searchMembers()
+    private transient FuzzyIndex fuzzyIndex; // title/author words for searchBooksFuzzy(), built on the first fuzzy search
+    private transient SuggestionIndex suggestionIndex; // title/author completions for suggest(), built on the first suggestion
+    private transient volatile MultiVersionStore versions; // versions for openReadView(), created by the first reader
+
+    /**
+     * Summarizes a bulk member removal (see removeMembers()).
+     *
+     * @param removed        Copies of the removed members as they were before their loans were released.
+     * @param loansReleased  The number of books that were returned because their borrower was removed.
+     * @param notFound       The requested Member IDs that didn't exist.
+     */
+    public record MemberRemovalResult(List<Member> removed, int loansReleased, List<String> notFound) {
+    }
+
+    // A search match with its relevance and its position in the book list, used to rank search results
+    private record RankedBook(Book book, int rank, int position) {
+    }
 
-    // Library constructor with a book list and member list
+    // Library constructor with a book list and member list, saved to the default data file
     public Library() {
+        this(DEFAULT_DATA_FILE);
+    }
+
+    // Library constructor with a custom data file (used for autosave tests and separate library instances)
+    public Library(String dataFile) {
         this.bookList = new ArrayList<>();
         this.memberList = new ArrayList<>();
+        this.dataFile = dataFile;
+        this.bookIndex = new HashMap<>();
+        this.memberIndex = new HashMap<>();
+    }
+
+    // getters for bookList and memberList, these return new lists without the tombstones of removed books/members
+    public synchronized ArrayList<Book> getBookList() {
+        return withoutTombstones(bookList, bookTombstones);
+    }
+
+    public synchronized ArrayList<Member> getMemberList() {
+        return withoutTombstones(memberList, memberTombstones);
+    }
+
+    // Returns the number of compactions so far, ordinals (positions in the book and member lists) stay the same until it changes
+    public synchronized long getCompactionCount() {
+        return compactions;
+    }
+
+    public String getDataFile() {
+        return dataFile;
     }
 
-    // getters for bookList and memberList
-    public ArrayList<Book> getBookList() {
-        return bookList;
+    // Returns the current version of the library state, which changes every time a book or member is changed
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    // Returns the sequence number of the last change made to the library (0 if nothing has changed yet)
+    public synchronized long getEventSequence() {
+        return eventSequence;
+    }
+
+    /**
+     * Registers a listener that is called with every change made to the library.
+     * Listeners are called while the library is locked, in sequence order, so they should return quickly
+     * and must not call back into the library from another thread and wait for it.
+     *
+     * @param listener  The listener to call with each event.
+     */
+    public void addEventListener(Consumer<LibraryEvent> listener) {
+        eventListeners.add(listener);
+    }
+
+    public void removeEventListener(Consumer<LibraryEvent> listener) {
+        eventListeners.remove(listener);
+    }
+
+    // Finds a book or member by ISBN or Member ID using the indexes, returns null if there is none
+    public synchronized Book getBook(String ISBN) {
+        return findBook(ISBN);
+    }
+
+    public synchronized Member getMember(String memberID) {
+        return findMember(memberID);
+    }
+
+    // Checks whether a book with the given ISBN or a member with the given ID exists, using the indexes
+    public synchronized boolean containsBook(String ISBN) {
+        return bookIndex.containsKey(ISBN);
+    }
+
+    public synchronized boolean containsMember(String memberID) {
+        return memberIndex.containsKey(memberID);
+    }
+
+    // Methods to add/remove books and members from the library, adding returns false if the ISBN or ID already exists
+    public synchronized boolean addBook(Book book) {
+        if (bookIndex.containsKey(book.getISBN())) {
+            return false; // ISBNs must be unique
+        }
+        insertBook(book);
+        version++;
+        publish(LibraryEvent.Type.BOOK_ADDED, book.getISBN(), book.getTitle(), book.getAuthor(), null, null, null);
+        return true;
+    }
+
+    /**
+     * Adds many books at once, used by bulk imports (see CatalogImporter).
+     * The books are appended to the list in one step and the ISBN index is rebuilt once at the end,
+     * instead of being updated for every book.
+     *
+     * @param books  The books to add.
+     * @return       The books that were not added because a book with the same ISBN already exists.
+     */
+    public synchronized List<Book> addBooks(Collection<Book> books) {
+        List<Book> rejected = new ArrayList<>();
+        LinkedHashMap<String, Book> added = new LinkedHashMap<>(books.size() * 2); // publishes in the caller's order
+        bookList.ensureCapacity(bookList.size() + books.size());
+        for (Book book : books) {
+            if (bookIndex.containsKey(book.getISBN()) || added.putIfAbsent(book.getISBN(), book) != null) {
+                rejected.add(book);
+            } else {
+                book.ordinal = bookList.size();
+                bookList.add(book);
+            }
+        }
+        if (!added.isEmpty()) {
+            rebuildIndexes();
+            version++;
+            for (Book book : added.values()) {
+                publish(LibraryEvent.Type.BOOK_ADDED, book.getISBN(), book.getTitle(), book.getAuthor(), null, null, null);
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * Adds more physical copies of a title that is already in the library (see CopyLedger).
+     *
+     * @param ISBN   The ISBN of the title.
+     * @param count  The number of copies to add.
+     * @return       True if the copies were added, false if there is no book with that ISBN.
+     */
+    public synchronized boolean addCopies(String ISBN, int count) {
+        Book book = bookIndex.get(ISBN);
+        if (book == null || count <= 0) {
+            return false;
+        }
+        version++;
+        for (int i = 0; i < count; i++) {
+            book.addCopies(1);
+            publish(LibraryEvent.Type.COPY_ADDED, ISBN, null, null, null, null, null);
+        }
+        return true;
+    }
+
+    /**
+     * Removes a book, returning every copy of it that is on loan first so no member keeps a loan of a removed book.
+     * Each returned copy is reported as a RETURNED change before the BOOK_REMOVED change.
+     *
+     * @param ISBN  The ISBN of the book to remove.
+     * @return      The IDs of the members whose copies were returned, empty if none were on loan or there is no
+     *              book with that ISBN.
+     */
+    public synchronized List<String> removeBook(String ISBN) {
+        Book book = bookIndex.get(ISBN);
+        if (book == null) {
+            return List.of();
+        }
+        List<String> borrowers = new ArrayList<>();
+        if (book.hasCopyOnLoan()) {
+            for (CopyLedger.Loan loan : book.getLoans()) {
+                // the first copy is returned whoever has it, like returnBook() does for single copies
+                String borrowerID = returnCopy(book, loan.copy() == 0 ? null : loan.borrowerID());
+                if (borrowerID != null) {
+                    Member member = memberIndex.get(borrowerID);
+                    if (member != null) {
+                        member.returnBook(ISBN);
+                    }
+                    borrowers.add(borrowerID);
+                    publish(LibraryEvent.Type.RETURNED, ISBN, null, null, borrowerID, null, null);
+                }
+            }
+        }
+        deleteBook(book);
+        version++;
+        publish(LibraryEvent.Type.BOOK_REMOVED, ISBN, null, null, null, null, null);
+        return borrowers;
+    }
+
+    public synchronized boolean addMember(Member member) {
+        if (memberIndex.containsKey(member.getMemberID())) {
+            return false; // Member IDs must be unique
+        }
+        insertMember(member);
+        version++;
+        publish(LibraryEvent.Type.MEMBER_ADDED, null, null, null, member.getMemberID(), member.getName(), null);
+        return true;
+    }
+
+    public synchronized void removeMember(String memberID) {
+        Member member = memberIndex.get(memberID);
+        if (member != null) {
+            deleteMember(member);
+            version++;
+            publish(LibraryEvent.Type.MEMBER_REMOVED, null, null, null, memberID, null, null);
+        }
+    }
+
+    /**
+     * Removes many members at once, such as expired patrons at the end of the year.
+     * Every book a removed member still has is returned first. The members and their books are found through the
+     * indexes and each member is left as a tombstone in the member list, so no list is searched or shifted.
+     *
+     * @param memberIDs  The IDs of the members to remove.
+     * @return           The removed members, the number of loans released and the IDs that weren't found.
+     */
+    public synchronized MemberRemovalResult removeMembers(Collection<String> memberIDs) {
+        List<Member> removed = new ArrayList<>();
+        List<String> notFound = new ArrayList<>();
+        int loansReleased = 0;
+        for (String memberID : memberIDs) {
+            Member member = memberIndex.get(memberID);
+            if (member == null) {
+                notFound.add(memberID);
+                continue;
+            }
+            removed.add(new Member(member)); // keep the loans in the copy, for the archive
+            for (String ISBN : new ArrayList<>(member.getBorrowedBooks())) {
+                Book book = bookIndex.get(ISBN);
+                if (book != null && returnCopy(book, memberID) != null) {
+                    member.returnBook(ISBN); // so each RETURNED change leaves the book and member consistent
+                    loansReleased++;
+                    publish(LibraryEvent.Type.RETURNED, ISBN, null, null, memberID, null, null);
+                }
+            }
+            member.getBorrowedBooks().clear();
+            loanReservations.remove(memberID);
+            deleteMember(member);
+            publish(LibraryEvent.Type.MEMBER_REMOVED, null, null, null, memberID, null, null);
+        }
+        if (!removed.isEmpty()) {
+            version++;
+        }
+        return new MemberRemovalResult(removed, loansReleased, notFound);
     }
 
-    public ArrayList<Member> getMemberList() {
-        return memberList;
+    /**
+     * Removes many members at once (see removeMembers(Collection)) and archives them to a snapshot file.
+     * Members already in the archive are kept, so the same archive can be used every year.
+     * The archive is written after the library is unlocked.
+     *
+     * @param memberIDs    The IDs of the members to remove.
+     * @param archiveFile  The snapshot file to add the removed members to, created if it doesn't exist.
+     * @return             The removed members, the number of loans released and the IDs that weren't found.
+     * @throws IOException  If the archive can't be read or written, the members are removed anyway.
+     */
+    public MemberRemovalResult removeMembers(Collection<String> memberIDs, Path archiveFile) throws IOException {
+        MemberRemovalResult result = removeMembers(memberIDs);
+        ArrayList<Member> archived = new ArrayList<>();
+        if (Files.exists(archiveFile)) {
+            archived.addAll(SnapshotFile.read(archiveFile).getMembers());
+        }
+        archived.addAll(result.removed());
+        new LibrarySnapshot(new ArrayList<>(), archived, 0, 0).writeTo(archiveFile);
+        return result;
     }
 
-    // Methods to add/remove books and members from the library
-    public void addBook(Book book) {
+    // Appends a book to the book list and adds it to every index
+    private void insertBook(Book book) {
+        book.ordinal = bookList.size();
         bookList.add(book);
+        bookIndex.put(book.getISBN(), book);
+        searchCache.invalidate(book);
+        pageIndex.addBook(book);
+        if (fuzzyIndex != null) {
+            fuzzyIndex.addBook(book);
+        }
+        if (suggestionIndex != null) {
+            suggestionIndex.addBook(book);
+        }
     }
 
-    public void removeBook(String ISBN) {
-        bookList.removeIf(book -> book.getISBN().equals(ISBN));
+    // Replaces a book with a tombstone in O(1) and removes it from every index, the list is compacted later
+    private void deleteBook(Book book) {
+        bookList.set(book.ordinal, null);
+        bookTombstones++;
+        bookIndex.remove(book.getISBN());
+        searchCache.invalidate(book);
+        pageIndex.removeBook(book);
+        if (fuzzyIndex != null) {
+            fuzzyIndex.removeBook(book);
+        }
+        if (suggestionIndex != null) {
+            suggestionIndex.removeBook(book);
+        }
+        scheduleCompactionIfNeeded();
     }
 
-    public void addMember(Member member) {
+    private void insertMember(Member member) {
+        member.ordinal = memberList.size();
         memberList.add(member);
+        memberIndex.put(member.getMemberID(), member);
+        pageIndex.addMember(member);
+        memberSearchIndex.addMember(member);
+    }
+
+    private void deleteMember(Member member) {
+        memberList.set(member.ordinal, null);
+        memberTombstones++;
+        memberIndex.remove(member.getMemberID());
+        pageIndex.removeMember(member);
+        memberSearchIndex.removeMember(member);
+        scheduleCompactionIfNeeded();
+    }
+
+    // Asks the common fork-join pool to compact the lists once either is more than COMPACTION_RATIO tombstones
+    private void scheduleCompactionIfNeeded() {
+        if (!compactionScheduled && (needsCompaction(bookList.size(), bookTombstones)
+                || needsCompaction(memberList.size(), memberTombstones))) {
+            compactionScheduled = true;
+            ForkJoinPool.commonPool().execute(this::compact);
+        }
+    }
+
+    private static boolean needsCompaction(int size, int tombstones) {
+        return size >= COMPACTION_MIN_SIZE && tombstones > size * COMPACTION_RATIO;
+    }
+
+    /**
+     * Removes the tombstones left by removed books and members, moving the remaining entries down.
+     * This changes their ordinals (positions in the lists), so getCompactionCount() goes up by one.
+     * Runs in the background when enough entries were removed, and can also be called directly.
+     */
+    public synchronized void compact() {
+        compactionScheduled = false;
+        if (bookTombstones > 0) {
+            bookList = withoutTombstones(bookList, bookTombstones);
+            for (int i = 0; i < bookList.size(); i++) {
+                bookList.get(i).ordinal = i;
+            }
+            bookTombstones = 0;
+        }
+        if (memberTombstones > 0) {
+            memberList = withoutTombstones(memberList, memberTombstones);
+            for (int i = 0; i < memberList.size(); i++) {
+                memberList.get(i).ordinal = i;
+            }
+            memberTombstones = 0;
+        }
+        compactions++;
+    }
+
+    // Copies a list without its null tombstones
+    private static <T> ArrayList<T> withoutTombstones(ArrayList<T> list, int tombstones) {
+        ArrayList<T> copy = new ArrayList<>(list.size() - tombstones);
+        for (T item : list) {
+            if (item != null) {
+                copy.add(item);
+            }
+        }
+        return copy;
     }
 
-    public void removeMember(String memberID) {
-        memberList.removeIf(member -> member.getMemberID().equals(memberID));
+    // Rebuilds the ISBN and Member ID indexes from the book and member lists, and forgets cached searches
+    public synchronized void rebuildIndexes() {
+        searchCache.clear();
+        fuzzyIndex = null; // rebuilt by the next fuzzy search
+        suggestionIndex = null; // rebuilt by the next suggestion
+        bookIndex = new HashMap<>(Math.max(16, bookList.size() * 2));
+        bookTombstones = 0;
+        for (int i = 0; i < bookList.size(); i++) {
+            Book book = bookList.get(i);
+            if (book == null) {
+                bookTombstones++;
+            } else {
+                book.ordinal = i;
+                bookIndex.put(book.getISBN(), book);
+            }
+        }
+        memberIndex = new HashMap<>(Math.max(16, memberList.size() * 2));
+        memberSearchIndex.clear();
+        memberTombstones = 0;
+        for (int i = 0; i < memberList.size(); i++) {
+            Member member = memberList.get(i);
+            if (member == null) {
+                memberTombstones++;
+            } else {
+                member.ordinal = i;
+                memberIndex.put(member.getMemberID(), member);
+                memberSearchIndex.addMember(member);
+            }
+        }
+        pageIndex.rebuild(getBookList(), getMemberList());
     }
 
     /**
@@ -66,20 +471,18 @@ public class Library implements Serializable {
      * @param memberID  The ID of the member borrowing the book.
      * @return          True if the borrowing process is successful, false otherwise.
      */
-    public boolean borrowBook(String ISBN, String memberID) {
-        for (Book book : bookList) { // Iterate through the lists of books to find the book with the given ISBN & ensure it is available
-            if (book.getISBN().equals(ISBN) && book.isAvailable()) {
-                for (Member member : memberList) { // Iterate through the list of members to find the member with the given ID and check if they can borrow more books
-                    if (member.getMemberID().equals(memberID) && member.canBorrow()) {
-                        // update attributes of the book to reflect that it is borrowed
-                        book.setAvailable(false);
-                        book.setBorrowerID(memberID);
-                        book.setBorrowedDate(LocalDate.now());
-                        member.borrowBook(ISBN); // add the book to the member's list of borrowed books
-                        return true;
-                    }
-                }
-            }
+    public synchronized boolean borrowBook(String ISBN, String memberID) {
+        Book book = bookIndex.get(ISBN); // find the book with the given ISBN
+        Member member = memberIndex.get(memberID); // find the member with the given ID
+        // ensure a copy is available, the member can borrow more books and doesn't already have a copy of this title
+        if (book != null && book.hasAvailableCopy() && member != null && member.canBorrow()
+                && !member.getBorrowedBooks().contains(ISBN)) {
+            LocalDate today = LocalDate.now();
+            lendCopy(book, memberID, today); // update the book (or its ledger of copies) to reflect that it is borrowed
+            member.borrowBook(ISBN); // add the book to the member's list of borrowed books
+            version++;
+            publish(LibraryEvent.Type.BORROWED, ISBN, null, null, memberID, null, today);
+            return true;
         }
         return false; // Borrowing failed
     }
@@ -88,82 +491,663 @@ public class Library implements Serializable {
      * Allows a member to return a book, updating both the book and member records.
      *
      * @param ISBN      The ISBN of the book being returned.
-     * @param memberID  The ID of the member returning the book.
+     * @param memberID  The ID of the member returning the book. Only used for titles with several copies, to find
+     *                  the member's copy (null returns the first copy), otherwise the borrower is found from the book.
      * @return          True if the return process is successful, false otherwise.
      */
-    public boolean returnBook(String ISBN, String memberID) {
-        for (Book book : bookList) { // Iterate through the list of books to find the book with the given ISBN and ensure it is available
-            if (book.getISBN().equals(ISBN) && !book.isAvailable()) {
-                // update attributes of the book to reflect that it is no longer borrowed (available)
-                book.setAvailable(true);
-                String borrowerID = book.getBorrowerID();
-                book.setBorrowerID(null);
-                book.setBorrowedDate(null);
-                book.setDueDate(null);
-                for (Member member : memberList) { // Iterate through the list of members and find the one who borrowed this book
-                    if (member.getMemberID().equals(borrowerID)) {
-                        member.returnBook(ISBN); // call returnBook to remove the book from the member's list of borrowed books
-                        return true;
-                    }
+    public synchronized boolean returnBook(String ISBN, String memberID) {
+        Book book = bookIndex.get(ISBN); // find the book with the given ISBN and ensure it is checked out
+        String borrowerID = book == null ? null : returnCopy(book, book.getCopyCount() == 1 ? null : memberID);
+        if (borrowerID == null) {
+            return false; // Return failed
+        }
+        Member member = memberIndex.get(borrowerID); // find the member who borrowed this book
+        if (member != null) {
+            member.returnBook(ISBN); // call returnBook to remove the book from the member's list of borrowed books
+        }
+        version++;
+        publish(LibraryEvent.Type.RETURNED, ISBN, null, null, borrowerID, null, null);
+        return member != null; // if the borrower no longer exists, the book is still made available
+    }
+
+    /*
+     * Two-phase borrowing, used by ShardedLibrary when a book and its borrower live in different shards.
+     * Phase 1 reserves a loan slot on the member's shard and checks the book out on the book's shard,
+     * phase 2 either commits the reservation into the member's borrowed list or aborts it.
+     */
+
+    /**
+     * Reserves one loan slot for a member, counting earlier reservations towards the borrow limit.
+     *
+     * @param memberID  The ID of the member who wants to borrow a book.
+     * @return          True if the member exists and has a free slot, false otherwise.
+     */
+    synchronized boolean reserveLoan(String memberID) {
+        Member member = findMember(memberID);
+        int reserved = loanReservations.getOrDefault(memberID, 0);
+        if (member == null || member.getBorrowedBooks().size() + reserved >= Member.BORROW_LIMIT) {
+            return false;
+        }
+        loanReservations.put(memberID, reserved + 1);
+        return true;
+    }
+
+    // Turns a reservation made by reserveLoan into a loan on the member's record
+    synchronized void commitLoan(String memberID, String ISBN) {
+        releaseReservation(memberID);
+        Member member = findMember(memberID);
+        if (member != null) {
+            member.borrowBook(ISBN);
+            version++;
+            publish(LibraryEvent.Type.BORROWED, ISBN, null, null, memberID, null, LocalDate.now());
+        }
+    }
+
+    // Gives back a reservation made by reserveLoan when the book couldn't be checked out
+    synchronized void abortLoan(String memberID) {
+        releaseReservation(memberID);
+    }
+
+    /**
+     * Marks a book as borrowed without updating the borrower's record, which may be stored in another library.
+     *
+     * @param ISBN      The ISBN of the book to check out.
+     * @param memberID  The ID of the member borrowing the book.
+     * @return          True if the book exists and was available, false otherwise.
+     */
+    synchronized boolean checkOutBook(String ISBN, String memberID) {
+        Book book = findBook(ISBN);
+        LocalDate today = LocalDate.now();
+        if (book == null || !lendCopy(book, memberID, today)) {
+            return false;
+        }
+        version++;
+        publish(LibraryEvent.Type.BORROWED, ISBN, null, null, memberID, null, today);
+        return true;
+    }
+
+    /**
+     * Marks a book as returned. The borrower's record is updated too if it's stored in this library, otherwise it
+     * is left to releaseLoan() on the library that has it, so a return publishes one event per library.
+     *
+     * @param ISBN      The ISBN of the book being returned.
+     * @param memberID  The ID of the member returning the book, used like in returnBook().
+     * @return          The ID of the member who had borrowed the book, or null if the book isn't checked out.
+     */
+    synchronized String checkInBook(String ISBN, String memberID) {
+        Book book = findBook(ISBN);
+        String borrowerID = book == null ? null : returnCopy(book, book.getCopyCount() == 1 ? null : memberID);
+        if (borrowerID == null) {
+            return null;
+        }
+        Member member = memberIndex.get(borrowerID);
+        if (member != null) {
+            member.returnBook(ISBN);
+        }
+        version++;
+        publish(LibraryEvent.Type.RETURNED, ISBN, null, null, borrowerID, null, null);
+        return borrowerID;
+    }
+
+    // Removes a returned book from the member's record after checkInBook
+    synchronized void releaseLoan(String memberID, String ISBN) {
+        Member member = findMember(memberID);
+        if (member != null) {
+            member.returnBook(ISBN);
+            version++;
+            publish(LibraryEvent.Type.RETURNED, ISBN, null, null, memberID, null, null);
+        }
+    }
+
+    /**
+     * Applies an event from another library (such as a replication leader) to this library.
+     * Books and members that the event refers to but that don't exist here are skipped, so events from a
+     * sharded library can be applied to a replica of a single shard. The change is published to this
+     * library's own listeners with a new local sequence number.
+     *
+     * @param event  The event to apply.
+     */
+    public synchronized void applyEvent(LibraryEvent event) {
+        Book book = event.getISBN() == null ? null : findBook(event.getISBN());
+        Member member = event.getMemberID() == null ? null : findMember(event.getMemberID());
+        switch (event.getType()) {
+            case BOOK_ADDED -> {
+                if (book == null) {
+                    insertBook(new Book(event.getTitle(), event.getAuthor(), event.getISBN()));
+                }
+            }
+            case BOOK_REMOVED -> {
+                if (book != null) {
+                    deleteBook(book);
+                }
+            }
+            case MEMBER_ADDED -> {
+                if (member == null) {
+                    insertMember(new Member(event.getName(), event.getMemberID()));
+                }
+            }
+            case MEMBER_REMOVED -> {
+                if (member != null) {
+                    deleteMember(member);
+                }
+            }
+            case COPY_ADDED -> {
+                if (book != null) {
+                    book.addCopies(1);
+                }
+            }
+            case BORROWED -> {
+                if (book != null) {
+                    lendCopy(book, event.getMemberID(), event.getBorrowedDate()); // picks the same copy as the leader did
+                }
+                if (member != null) {
+                    member.borrowBook(event.getISBN());
+                }
+            }
+            case RETURNED -> {
+                if (book != null) {
+                    returnCopy(book, book.getCopyCount() == 1 ? null : event.getMemberID());
+                }
+                if (member != null) {
+                    member.returnBook(event.getISBN());
                 }
             }
         }
-        return false; // Return failed
+        version++;
+        publish(event.getType(), event.getISBN(), event.getTitle(), event.getAuthor(),
+                event.getMemberID(), event.getName(), event.getBorrowedDate());
     }
 
+    /**
+     * Replaces all books and members with the contents of a snapshot, used by replicas that fell too far behind.
+     * The library's event sequence continues from the snapshot's sequence.
+     *
+     * @param snapshot  The snapshot to restore.
+     */
+    public synchronized void restoreSnapshot(LibrarySnapshot snapshot) {
+        bookList = new ArrayList<>(snapshot.getBooks());
+        memberList = new ArrayList<>(snapshot.getMembers());
+        eventSequence = snapshot.getSequence();
+        rebuildIndexes();
+        version++;
+        commitAllVersions();
+    }
 
+    // Numbers a change and sends it to the listeners, must be called while holding the library lock
+    private void publish(LibraryEvent.Type type, String ISBN, String title, String author,
+                         String memberID, String name, LocalDate borrowedDate) {
+        eventSequence++;
+        MultiVersionStore versions = this.versions;
+        if (versions != null) {
+            versions.commit(ISBN, ISBN == null ? null : findBook(ISBN), memberID, memberID == null ? null : findMember(memberID));
+        }
+        if (eventListeners.isEmpty()) {
+            return; // nobody is listening, don't create the event
+        }
+        LibraryEvent event = new LibraryEvent(eventSequence, type, System.currentTimeMillis(),
+                ISBN, title, author, memberID, name, borrowedDate);
+        for (Consumer<LibraryEvent> listener : eventListeners) {
+            listener.accept(event);
+        }
+    }
 
+    // Records every book and member as a new version after the lists were replaced, if anyone reads versions
+    private void commitAllVersions() {
+        if (versions != null) {
+            versions.commitAll(getBookList(), getMemberList());
+        }
+    }
 
+    /**
+     * Lends a copy of a title: the first copy if it's on the shelf, otherwise the lowest numbered free extra copy.
+     * Always picking the same copy keeps replicas that apply the same events identical.
+     *
+     * @return  True if a copy was lent, false if none is available or the member already has one.
+     */
+    private boolean lendCopy(Book book, String memberID, LocalDate borrowedDate) {
+        CopyLedger copies = book.getExtraCopies();
+        if ((memberID != null && memberID.equals(book.getBorrowerID())) || (copies != null && copies.hasCopy(memberID))) {
+            return false;
+        }
+        if (book.isAvailable()) {
+            book.setAvailable(false);
+            book.setBorrowerID(memberID);
+            book.setBorrowedDate(borrowedDate);
+        } else if (copies == null || copies.lend(memberID, borrowedDate) < 0) {
+            return false;
+        }
+        pageIndex.updateLoan(book);
+        book.recordBorrow();
+        if (suggestionIndex != null) {
+            suggestionIndex.recordBorrow(book);
+        }
+        return true;
+    }
+
+    /**
+     * Puts a member's copy of a title back on the shelf.
+     *
+     * @param memberID  The ID of the member returning the copy, or null to return the first copy whoever has it.
+     * @return          The ID of the member who had the copy, or null if there was no such copy on loan.
+     */
+    private String returnCopy(Book book, String memberID) {
+        CopyLedger copies = book.getExtraCopies();
+        if (copies != null && copies.release(memberID) >= 0) {
+            pageIndex.updateLoan(book);
+            return memberID;
+        }
+        if (book.isAvailable() || (memberID != null && !memberID.equals(book.getBorrowerID()))) {
+            return null;
+        }
+        String borrowerID = book.getBorrowerID();
+        book.setAvailable(true);
+        book.setBorrowerID(null);
+        book.setBorrowedDate(null);
+        book.setDueDate(null);
+        pageIndex.updateLoan(book);
+        return borrowerID;
+    }
+
+    private void releaseReservation(String memberID) {
+        loanReservations.computeIfPresent(memberID, (id, reserved) -> reserved > 1 ? reserved - 1 : null);
+    }
+
+    // Finds a book by its ISBN, returns null if there is no such book
+    private Book findBook(String ISBN) {
+        return bookIndex.get(ISBN);
+    }
+
+    // Finds a member by their ID, returns null if there is no such member
+    private Member findMember(String memberID) {
+        return memberIndex.get(memberID);
+    }
 
     /**
      * Searches for books in the library based on a query string.
      * The query is matched against the book's title, author, or ISBN.
+     * Results of recent queries are cached (see SearchCache) until a book they could match is added or removed.
      *
      * @param query  The search string to look for in the book details.
      * @return       A list of books that match the search query.
      */
-    public ArrayList<Book> searchBooks(String query) {
+    public synchronized ArrayList<Book> searchBooks(String query) {
+        String key = SearchKey.normalize(query); // queries that only differ in case or accents share a cache entry
+        ArrayList<Book> cached = searchCache.get(key);
+        if (cached != null) {
+            return new ArrayList<>(cached); // a copy, so callers can't change the cached results
+        }
         ArrayList<Book> results = new ArrayList<>(); // Initialize an empty list to store each search result
         for (Book book : bookList) { // Iterate through the list of books in the library
-            if (book.getTitle().toLowerCase().contains(query.toLowerCase()) || // check if the query matches the book's title (ignore cases)
-                    book.getAuthor().toLowerCase().contains(query.toLowerCase()) || // check if the query matches the book's author (ignore cases)
-                    book.getISBN().equals(query)) { // check if the query matches the book's ISBN (exact match)
+            if (book != null && matches(book, key)) { // skip the tombstones of removed books
                 results.add(book); // add the matching book to the results list
             }
         }
-        return results; // return the list of matching books
+        searchCache.put(key, results);
+        return new ArrayList<>(results); // return the list of matching books
+    }
+
+    /**
+     * Searches for books and returns only the k most relevant matches, best first.
+     * Matches are ranked as: exact ISBN, then title starting with the query, then a whole word of the title,
+     * then anywhere in the title, then the author, then part of the ISBN. Equal matches keep their catalog order.
+     *
+     * Only the best k matches seen so far are kept, in a heap whose root is the worst of them. Once the heap is full
+     * of title-prefix matches the scan stops, since no later book can rank higher (the exact ISBN match is looked up
+     * in the index before the scan).
+     *
+     * @param query  The search string to look for in the book details.
+     * @param k      The most results to return.
+     * @return       Up to k matching books, most relevant first.
+     */
+    public synchronized List<Book> searchBooks(String query, int k) {
+        String key = SearchKey.normalize(query);
+        if (k <= 0 || key.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // the root of the heap is the worst result kept: lowest rank, and latest in the catalog among equal ranks
+        PriorityQueue<RankedBook> heap = new PriorityQueue<>(Math.min(k, 1024) + 1,
+                Comparator.comparingInt(RankedBook::rank).thenComparing(RankedBook::position, Comparator.reverseOrder()));
+        Book exact = bookIndex.get(query.strip()); // ISBNs are stored as typed, only the surrounding spaces are dropped
+        if (exact != null) {
+            heap.add(new RankedBook(exact, RANK_EXACT_ISBN, -1));
+        }
+        for (int i = 0; i < bookList.size(); i++) {
+            Book book = bookList.get(i);
+            if (book == null || book == exact) {
+                continue; // a tombstone, or already added
+            }
+            int rank = rank(book, key);
+            if (rank == 0) {
+                continue;
+            }
+            if (heap.size() < k) {
+                heap.add(new RankedBook(book, rank, i));
+            } else if (rank > heap.peek().rank()) {
+                heap.poll();
+                heap.add(new RankedBook(book, rank, i));
+            }
+            if (heap.size() == k && heap.peek().rank() >= RANK_TITLE_PREFIX) {
+                break; // every kept result is already as good as any later book could be
+            }
+        }
+
+        RankedBook[] ranked = heap.toArray(new RankedBook[0]);
+        Arrays.sort(ranked, heap.comparator().reversed());
+        List<Book> results = new ArrayList<>(ranked.length);
+        for (RankedBook rankedBook : ranked) {
+            results.add(rankedBook.book());
+        }
+        return results;
+    }
+
+    /**
+     * Relevance of a book to a normalized query, higher is better and 0 means no match (exact ISBN is handled by
+     * the caller). Works on the book's search key, so it ignores case and accents without creating any strings.
+     */
+    private static int rank(Book book, String key) {
+        String bookKey = book.getSearchKey();
+        int titleEnd = SearchKey.fieldEnd(bookKey, 0);
+        int position = bookKey.indexOf(key);
+        if (position == 0) {
+            return RANK_TITLE_PREFIX;
+        }
+        if (position > 0 && position < titleEnd) {
+            // look for an occurrence that is a whole word, the first one may be inside a longer word
+            for (int at = position; at >= 0 && at < titleEnd; at = bookKey.indexOf(key, at + 1)) {
+                int end = at + key.length();
+                if (!Character.isLetterOrDigit(bookKey.charAt(at - 1))
+                        && (end == titleEnd || !Character.isLetterOrDigit(bookKey.charAt(end)))) {
+                    return RANK_TITLE_WORD;
+                }
+            }
+            return RANK_TITLE_SUBSTRING;
+        }
+        if (SearchKey.contains(bookKey, key, 2)) {
+            return RANK_AUTHOR;
+        }
+        return bookKey.indexOf(key, SearchKey.fieldStart(bookKey, 2)) >= 0 ? RANK_ISBN_PART : 0;
+    }
+
+    /**
+     * Searches for books allowing for typos, such as "Tolkein" for "Tolkien" (see FuzzyIndex).
+     * Every word of the query must be within maxDistance edits of a word in the book's title or author.
+     *
+     * @param query        The search string, one or more words.
+     * @param maxDistance  The most edits allowed per word (1 or 2 is usually enough).
+     * @param limit        The most books to return.
+     * @return             The matching books, closest first.
+     */
+    public synchronized List<Book> searchBooksFuzzy(String query, int maxDistance, int limit) {
+        if (fuzzyIndex == null) {
+            fuzzyIndex = new FuzzyIndex();
+            fuzzyIndex.addBooks(getBookList());
+        }
+        return fuzzyIndex.search(query, maxDistance, limit);
+    }
+
+    /**
+     * Suggests titles and authors for what has been typed so far (see SuggestionIndex).
+     * Takes time proportional to the length of the prefix, whatever the size of the catalog.
+     *
+     * @param prefix  The start of any word of a title or author, or of several words, in any case.
+     * @param limit   The most suggestions to return, at most SuggestionIndex.TOP_K.
+     * @return        Matching titles and authors, those borrowed most often first.
+     */
+    public synchronized List<String> suggest(String prefix, int limit) {
+        if (suggestionIndex == null) {
+            suggestionIndex = new SuggestionIndex();
+            suggestionIndex.addBooks(getBookList());
+        }
+        return suggestionIndex.suggest(prefix, limit);
+    }
+
+    /**
+     * Finds the books that match a filter no index can answer, such as a borrowed date or a combination of
+     * availability and author. Large catalogs are scanned on several threads (see ParallelScan), small ones on the
+     * calling thread.
+     *
+     * The library stays locked during the scan, so the filter must not call the library: it runs on the scan
+     * threads, which would wait for the lock forever. Reading the books themselves is fine.
+     *
+     * @param filter  The filter, which may be called from several threads at once.
+     * @return        The matching books, in the same order as getBookList().
+     */
+    public synchronized List<Book> scanBooks(Predicate<? super Book> filter) {
+        return ParallelScan.filter(bookList, book -> book != null && filter.test(book)); // skip tombstones
+    }
+
+    /**
+     * Finds the copies on loan that match a filter, one ActiveLoan per copy, scanned like scanBooks().
+     * The same rules apply: the filter must not call the library.
+     *
+     * @param filter  The filter, which may be called from several threads at once.
+     * @return        The matching loans, by title in the same order as getBookList(), then by copy.
+     */
+    public synchronized List<ActiveLoan> scanLoans(Predicate<? super ActiveLoan> filter) {
+        return ParallelScan.collect(bookList, (Book book, List<ActiveLoan> loans) -> {
+            if (book != null && book.hasCopyOnLoan()) {
+                for (ActiveLoan loan : ActiveLoan.of(book)) {
+                    if (filter.test(loan)) {
+                        loans.add(loan);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Searches for members by the start of their Member ID or of the words of their name (see MemberSearchIndex).
+     *
+     * @param query  The start of a Member ID, or the start of one or more name words, in any case.
+     * @param limit  The most members to return.
+     * @return       The matching members, ID matches first.
+     */
+    public synchronized List<Member> searchMembers(String query, int limit) {
+        return memberSearchIndex.search(query, limit);
+    }
+
+    // Returns the hit and miss counts of the search cache
+    public synchronized SearchCache.Stats getSearchCacheStats() {
+        return searchCache.stats();
+    }
+
+    /**
+     * Checks whether a book matches a search query, shared by searchBooks(), the search cache, ReadView and the app.
+     * Allocates nothing, the query is normalized once by the caller.
+     *
+     * @param book  The book to check.
+     * @param key   The query normalized with SearchKey.normalize().
+     * @return      True if the title or author contains the query (ignoring case and accents) or the ISBN is the query.
+     */
+    static boolean matches(Book book, String key) {
+        return SearchKey.contains(book.getSearchKey(), key, 2) || SearchKey.fieldEquals(book.getSearchKey(), 2, key);
+    }
+
+    /**
+     * Lists the books one page at a time, sorted by ISBN or by title (ignoring case and accents).
+     * Each page costs O(log n + size) no matter how far into the listing it is.
+     *
+     * @param order  The order to list the books in.
+     * @param token  The nextToken of the previous page, or null for the first page.
+     * @param size   The most books on the page.
+     * @return       The page of books and the token for the next page.
+     * @throws IllegalArgumentException  If the token is invalid or belongs to a different listing.
+     */
+    public synchronized Page<Book> pageBooks(Page.BookOrder order, String token, int size) {
+        return pageIndex.books(order, token, size);
+    }
+
+    // Lists the members one page at a time sorted by Member ID, see pageBooks()
+    public synchronized Page<Member> pageMembers(String token, int size) {
+        return pageIndex.members(token, size);
+    }
+
+    // Lists the copies on loan one page at a time sorted by due date (soonest first), see pageBooks()
+    public synchronized Page<ActiveLoan> pageLoans(String token, int size) {
+        return pageIndex.loans(token, size);
+    }
+
+    /**
+     * Copies the next batch of books into a list, used to walk the catalog without locking it for the whole walk.
+     * The cursor is a position in the book list: start at 0 and pass the returned cursor to get the next batch.
+     * Removed books leave tombstones, so positions only move when the list is compacted (see getCompactionCount()).
+     * A walk that spans a compaction may skip books or see them twice, but every copied book is consistent.
+     *
+     * @param cursor  The position to continue from (0 for the first batch).
+     * @param into    The list to add copies of the books to, it is cleared first.
+     * @param max     The most books to copy.
+     * @return        The cursor for the next batch, or -1 when there are no more books.
+     */
+    public synchronized int copyBooks(int cursor, List<Book> into, int max) {
+        into.clear();
+        int end = Math.min(bookList.size(), cursor + max);
+        for (int i = cursor; i < end; i++) {
+            if (bookList.get(i) != null) {
+                into.add(new Book(bookList.get(i)));
+            }
+        }
+        return end < bookList.size() ? end : -1;
+    }
+
+    // Copies the next batch of members into a list, see copyBooks()
+    public synchronized int copyMembers(int cursor, List<Member> into, int max) {
+        into.clear();
+        int end = Math.min(memberList.size(), cursor + max);
+        for (int i = cursor; i < end; i++) {
+            if (memberList.get(i) != null) {
+                into.add(new Member(memberList.get(i)));
+            }
+        }
+        return end < memberList.size() ? end : -1;
+    }
+
+    /**
+     * Opens a consistent read-only view of the library as of its latest change, for long queries and reports.
+     * Unlike snapshot(), the view copies nothing up front and its reads never take the library lock, so borrows and
+     * returns go on while it is used. Changes made after the view was opened are not seen by it.
+     *
+     * The first view makes the library start keeping versions of its books and members (see MultiVersionStore),
+     * which costs one copy of every record plus the old versions that open views still need.
+     * Views should be closed so those old versions can be reclaimed.
+     *
+     * @return  A view pinned to the latest change.
+     */
+    public ReadView openReadView() {
+        MultiVersionStore store = versions;
+        if (store == null) {
+            synchronized (this) {
+                if (versions == null) {
+                    versions = new MultiVersionStore(getBookList(), getMemberList());
+                }
+                store = versions;
+            }
+        }
+        return new ReadView(store);
+    }
+
+    // Returns the number of book and member versions kept for read views, 0 if no view was ever opened
+    int getVersionCount() {
+        MultiVersionStore store = versions;
+        return store == null ? 0 : store.books().versionCount() + store.members().versionCount();
+    }
+
+    /**
+     * Estimates the heap the library retains, for each of its books, members, strings, indexes and caches.
+     * Use the report to size the heap for a larger catalog, or compare reports to spot a new index's cost.
+     *
+     * @return  The estimate of each component (see HeapFootprint).
+     */
+    public synchronized HeapFootprint.Report estimateFootprint() {
+        HeapFootprint footprint = new HeapFootprint(bookList.size() - bookTombstones, memberList.size() - memberTombstones);
+        footprint.addBooks(bookList);
+        footprint.addMembers(memberList);
+        footprint.add("Book list and ISBN index", HeapFootprint.Scale.BOOKS,
+                HeapFootprint.arrayList(bookList.size()) + HeapFootprint.hashMap(bookIndex.size()));
+        footprint.add("Member list and ID index", HeapFootprint.Scale.MEMBERS,
+                HeapFootprint.arrayList(memberList.size()) + HeapFootprint.hashMap(memberIndex.size()));
+        pageIndex.estimateFootprint(footprint);
+        memberSearchIndex.estimateFootprint(footprint);
+        searchCache.estimateFootprint(footprint);
+        if (fuzzyIndex != null) {
+            fuzzyIndex.estimateFootprint(footprint);
+        }
+        if (suggestionIndex != null) {
+            suggestionIndex.estimateFootprint(footprint);
+        }
+        MultiVersionStore store = versions;
+        if (store != null) {
+            store.estimateFootprint(footprint);
+        }
+        return footprint.report();
+    }
+
+    /**
+     * Takes a consistent copy of the library's books and members.
+     * The copy is made while holding the library lock, so it never contains a half-applied borrow or return,
+     * but no file I/O happens under the lock. The returned snapshot can be written on any thread.
+     *
+     * @return  A snapshot of the current library state, tagged with the current version.
+     */
+    public synchronized LibrarySnapshot snapshot() {
+        ArrayList<Book> books = new ArrayList<>(bookList.size() - bookTombstones);
+        for (Book book : bookList) {
+            if (book != null) {
+                books.add(new Book(book)); // copy each book so later borrows/returns don't change the snapshot
+            }
+        }
+        ArrayList<Member> members = new ArrayList<>(memberList.size() - memberTombstones);
+        for (Member member : memberList) {
+            if (member != null) {
+                members.add(new Member(member));
+            }
+        }
+        return new LibrarySnapshot(books, members, version, eventSequence);
     }
 
     /**
      * Saves the library's data (books and members) to a file for persistence.
-     * This method is called only when the user selects "Save & Exit" instead of closing the window directly.
+     * This method is called when the user selects "Save & Exit" instead of closing the window directly.
+     * The data is written to a temporary file first and then renamed over the data file, so a crash
+     * during the save never leaves a partially written file behind.
      *
      * @throws IOException  If an I/O error occurs during file operations.
      */
     public void saveData() throws IOException {
-        // Use a try-with statement that can ensure the ObjectOutputStream is closed automatically
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream("library_data.dat"))) {
-            oos.writeObject(bookList); // write the list of books to the file
-            oos.writeObject(memberList); // write the list of members to the file
-        }
+        snapshot().writeTo(Path.of(dataFile));
     }
 
     /**
-     * Loads the library's data (books and members) from the file `library_data.dat`.
+     * Loads the library's data (books and members) from the data file (`library_data.dat` by default).
      * This allows the library to restore its previous state upon application startup.
      * If the file does not exist or contains invalid data, this method will throw an exception.
      *
+     * Files in the compressed block format are decompressed in parallel and every block is checked against its
+     * checksum (see SnapshotFile). Older files containing plain serialized lists are still read as before.
+     *
      * Note: The file can be generated for testing purposes by running `LibraryTest.java`.
      *
      * @throws IOException            If an I/O error occurs during file operations.
      * @throws ClassNotFoundException If the objects in the file cannot be deserialized.
      */
     @SuppressWarnings("unchecked") // Suppress the warnings related to type casting #annoying
-    public void loadData() throws IOException, ClassNotFoundException {
+    public synchronized void loadData() throws IOException, ClassNotFoundException {
+        if (SnapshotFile.isSnapshotFile(Path.of(dataFile))) {
+            LibrarySnapshot snapshot = SnapshotFile.read(Path.of(dataFile)); // throws if any block is corrupt
+            bookList = new ArrayList<>(snapshot.getBooks());
+            memberList = new ArrayList<>(snapshot.getMembers());
+            rebuildIndexes();
+            version++;
+            commitAllVersions();
+            return;
+        }
+
         // try-with statement to ensure the ObjectInputStream closes automatically
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream("library_data.dat"))) {
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(dataFile))) {
             bookList = (ArrayList<Book>) ois.readObject(); // read and deserialize the list of books from the file
             memberList = (ArrayList<Member>) ois.readObject(); // read and deserialize the list of members from the file
         }
+        rebuildIndexes();
+        version++;
+        commitAllVersions();
     }
-}
\ No newline at end of file
+}
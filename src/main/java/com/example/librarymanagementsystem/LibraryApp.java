@@ -8,17 +8,25 @@
 package com.example.librarymanagementsystem;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.geometry.Pos;
+import javafx.geometry.Side;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
-import java.time.LocalDate;
+import java.io.File;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * Main application class for the Library Management System.
@@ -33,6 +41,28 @@ import java.util.List;
  */
 public class LibraryApp extends Application {
     private Library library = new Library();
+    private AutosaveScheduler autosave; // saves the library in the background while the app is open
+    private LibraryEventPublisher events; // delivers the library's changes to the windows on the JavaFX thread
+    private long lastEventSequence; // sequence number of the last change applied to the windows
+    private final List<LiveView> liveViews = new ArrayList<>(); // lists kept up to date by onLibraryEvent()
+
+    // Windows are built the first time they're opened and reused afterwards (see CachedWindow)
+    private CachedWindow<Void> addBookDialog;
+    private CachedWindow<Void> addMemberDialog;
+    private CachedWindow<Void> borrowBookDialog;
+    private CachedWindow<Void> returnBookDialog;
+    private CachedWindow<Void> viewBooksDialog;
+    private CachedWindow<Void> viewMembersDialog;
+    private CachedWindow<Void> viewActiveLoansDialog;
+    private CachedWindow<Book> bookDetailsDialog;
+    private CachedWindow<Member> memberDetailsDialog;
+    private CachedWindow<ActiveLoan> loanDetailsDialog;
+
+    private static final Duration AUTOSAVE_INTERVAL = Duration.ofMinutes(1);
+    private static final int EVENT_BUFFER_SIZE = 1024; // changes waiting for the JavaFX thread before the windows are refilled instead
+    private static final int SEARCH_RESULT_LIMIT = 100; // most book or member search results shown in a list
+    private static final int FUZZY_SEARCH_DISTANCE = 2; // most typos per word allowed when nothing matches exactly
+    private static final int SUGGESTION_LIMIT = 8; // most title and author suggestions shown under a search field
 
     /**
      * The main entry point for the JavaFX application.
@@ -51,6 +81,34 @@ public class LibraryApp extends Application {
             System.out.println("No existing data found. Starting fresh.");
         }
 
+        // Start saving the library in the background so changes aren't lost if the app is closed directly
+        autosave = new AutosaveScheduler(library, AUTOSAVE_INTERVAL);
+        autosave.start();
+
+        // Follow the library's changes so open windows only update the rows that changed
+        lastEventSequence = library.getEventSequence();
+        events = new LibraryEventPublisher(library, EVENT_BUFFER_SIZE, Platform::runLater);
+        events.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE); // the buffer is drained by the JavaFX thread as fast as it can
+            }
+
+            @Override
+            public void onNext(LibraryEvent event) {
+                onLibraryEvent(event);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                System.out.println("Stopped following library changes: " + throwable.getMessage());
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
         // Main layout using a BorderPane
         BorderPane mainLayout = new BorderPane();
         mainLayout.setStyle("-fx-padding: 20;");
@@ -64,7 +122,9 @@ public class LibraryApp extends Application {
         addBookButton.setStyle("-fx-font-size: 12; -fx-background-color: #4CAF50; -fx-text-fill: white;");
         Button addMemberButton = new Button("Add Member");
         addMemberButton.setStyle("-fx-font-size: 12; -fx-background-color: #4CAF50; -fx-text-fill: white;");
-        addButtons.getChildren().addAll(addSectionLabel, addBookButton, addMemberButton);
+        Button importCatalogButton = new Button("Import Catalog");
+        importCatalogButton.setStyle("-fx-font-size: 12; -fx-background-color: #4CAF50; -fx-text-fill: white;");
+        addButtons.getChildren().addAll(addSectionLabel, addBookButton, addMemberButton, importCatalogButton);
 
         // Section 2: Borrow/Return buttons - Borrow Book, Return Book,
         VBox borrowReturnButtons = new VBox(10); // Vertical box for "Borrow/Return"
@@ -104,6 +164,7 @@ public class LibraryApp extends Application {
         // Event handlers for the buttons (opens the windows for each)
         addBookButton.setOnAction(e -> addBook());
         addMemberButton.setOnAction(e -> addMember());
+        importCatalogButton.setOnAction(e -> importCatalog(primaryStage));
         borrowBookButton.setOnAction(e -> borrowBook());
         returnBookButton.setOnAction(e -> returnBook());
         viewBooksButton.setOnAction(e -> viewBooks());
@@ -111,6 +172,8 @@ public class LibraryApp extends Application {
         viewActiveLoansButton.setOnAction(e -> viewActiveLoans());
         saveExitButton.setOnAction(e -> { // Attempt to save the data to the file, catch an error if there was an error writing to it
             try {
+                events.close();
+                autosave.close(); // stop autosaving so it can't overwrite the final save
                 library.saveData();
                 System.exit(0);
             } catch (Exception ex) {
@@ -132,6 +195,14 @@ public class LibraryApp extends Application {
      * Prevents non-numeric input in the ISBN field.
      */
     private void addBook() {
+        if (addBookDialog == null) {
+            addBookDialog = buildAddBookDialog();
+        }
+        addBookDialog.open(null);
+    }
+
+    // Builds the Add Book window, see addBook()
+    private CachedWindow<Void> buildAddBookDialog() {
         Stage addBookStage = new Stage(); // create a new stage for adding a book
         addBookStage.setTitle("Add Book");
 
@@ -165,8 +236,22 @@ public class LibraryApp extends Application {
 
             if (title.isEmpty() || author.isEmpty() || isbn.isEmpty()) { // validate that all fields are filled
                 showAlert("Error", "All fields must be filled!");
-            } else if (library.getBookList().stream().anyMatch(book -> book.getISBN().equals(isbn))) { // validate that the ISBN is unique
-                showAlert("Error", "A book with this ISBN already exists!");
+            } else if (library.containsBook(isbn)) { // the title is already in the library, offer to add another copy
+                Alert confirmationDialog = new Alert(Alert.AlertType.CONFIRMATION);
+                confirmationDialog.setTitle("Add Copy");
+                confirmationDialog.setHeaderText("A book with this ISBN already exists!");
+                confirmationDialog.setContentText("Do you want to add another copy of it?");
+
+                ButtonType yesButton = new ButtonType("Yes");
+                ButtonType noButton = new ButtonType("No", ButtonBar.ButtonData.CANCEL_CLOSE);
+                confirmationDialog.getButtonTypes().setAll(yesButton, noButton);
+
+                confirmationDialog.showAndWait().ifPresent(response -> {
+                    if (response == yesButton && library.addCopies(isbn, 1)) {
+                        showAlert("Success", "Copy added successfully!");
+                        addBookStage.close();
+                    }
+                });
             } else { // Add the book to the library if validation passes
                 library.addBook(new Book(title, author, isbn));
                 showAlert("Success", "Book added successfully!");
@@ -184,7 +269,11 @@ public class LibraryApp extends Application {
         // create and set the scene for the add book window
         Scene scene = new Scene(layout, 300, 200);
         addBookStage.setScene(scene);
-        addBookStage.show();
+        return new CachedWindow<>(addBookStage, ignored -> { // start with an empty form every time the window is opened
+            titleField.clear();
+            authorField.clear();
+            isbnField.clear();
+        });
     }
 
     /**
@@ -192,6 +281,14 @@ public class LibraryApp extends Application {
      * Validates the input fields to ensure all data is provided and the Member ID is unique.
      */
     private void addMember() {
+        if (addMemberDialog == null) {
+            addMemberDialog = buildAddMemberDialog();
+        }
+        addMemberDialog.open(null);
+    }
+
+    // Builds the Add Member window, see addMember()
+    private CachedWindow<Void> buildAddMemberDialog() {
         Stage addMemberStage = new Stage(); // Create a new stage (window) for adding a member
         addMemberStage.setTitle("Add Member");
 
@@ -212,7 +309,7 @@ public class LibraryApp extends Application {
 
             if (name.isEmpty() || memberId.isEmpty()) { // Validate that all fields are filled
                 showAlert("Error", "All fields must be filled!");
-            } else if (library.getMemberList().stream().anyMatch(member -> member.getMemberID().equals(memberId))) { // Validate that the Member ID is unique
+            } else if (library.containsMember(memberId)) { // Validate that the Member ID is unique
                 showAlert("Error", "A member with this ID already exists!");
             } else { // Add the member to the library if validation passes
                 library.addMember(new Member(name, memberId));
@@ -231,7 +328,44 @@ public class LibraryApp extends Application {
         // Create and set the scene for the Add Member window
         Scene scene = new Scene(layout, 300, 150);
         addMemberStage.setScene(scene);
-        addMemberStage.show();
+        return new CachedWindow<>(addMemberStage, ignored -> {
+            nameField.clear();
+            memberIdField.clear();
+        });
+    }
+
+    /**
+     * Lets the user pick a vendor catalog file (CSV or MARC-style) and imports all of its books at once.
+     * Shows how many books were imported and the first few rejected lines.
+     *
+     * @param owner The window that owns the file chooser.
+     */
+    private void importCatalog(Stage owner) {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Import Catalog");
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV Catalog (title,author,isbn)", "*.csv"),
+                new FileChooser.ExtensionFilter("MARC-style Catalog", "*.mrk", "*.txt"));
+        File file = fileChooser.showOpenDialog(owner);
+        if (file == null) {
+            return; // the user cancelled
+        }
+
+        // pick the format from the file extension
+        CatalogImporter.Format format = file.getName().toLowerCase().endsWith(".csv")
+                ? CatalogImporter.Format.CSV : CatalogImporter.Format.MARC;
+        try {
+            CatalogImporter.ImportResult result = CatalogImporter.importFile(library, file.toPath(), format);
+            StringBuilder message = new StringBuilder("Imported " + result.imported() + " books in "
+                    + result.millis() + " ms. Rejected lines: " + result.rejected().size());
+            // only show the first few rejected lines so the alert stays readable
+            for (CatalogImporter.RejectedRow row : result.rejected().stream().limit(10).toList()) {
+                message.append("\nLine ").append(row.line()).append(": ").append(row.reason());
+            }
+            showAlert("Import Complete", message.toString());
+        } catch (Exception ex) {
+            showAlert("Error", "Import failed: " + ex.getMessage());
+        }
     }
 
     /**
@@ -240,6 +374,14 @@ public class LibraryApp extends Application {
      * Ensures only available books can be borrowed and validates all input fields.
      */
     private void borrowBook() {
+        if (borrowBookDialog == null) {
+            borrowBookDialog = buildBorrowBookDialog();
+        }
+        borrowBookDialog.open(null);
+    }
+
+    // Builds the Borrow Book window, see borrowBook()
+    private CachedWindow<Void> buildBorrowBookDialog() {
         Stage borrowBookStage = new Stage(); // Create a new stage for borrowing a book
         borrowBookStage.setTitle("Borrow Book");
 
@@ -251,6 +393,8 @@ public class LibraryApp extends Application {
         Label bookSearchLabel = new Label("Search for a Book");
         TextField bookSearchField = new TextField();
         bookSearchField.setPromptText("Search by Title, Author, or ISBN");
+        Supplier<String> bookSearchKey = searchKeyOf(bookSearchField);
+        addSuggestions(bookSearchField); // suggest titles and authors while typing
 
         // List to display the available books
         ListView<Book> bookListView = new ListView<>();
@@ -266,19 +410,16 @@ public class LibraryApp extends Application {
             }
         });
 
-        // Populate the book list with available books
-        updateBookList(bookListView, library.getBookList().stream()
-                .filter(Book::isAvailable)
-                .toList());
+        // books that have a copy available and match the search input
+        Predicate<Book> borrowable = book -> book.hasAvailableCopy()
+                && SearchKey.contains(book.getSearchKey(), bookSearchKey.get(), 3);
+
+        // Populate the book list with books that have a copy available
+        updateBookList(bookListView, library.scanBooks(borrowable));
 
         // Dynamically update the book list based on search input using a listener
         bookSearchField.textProperty().addListener((observable, oldValue, newValue) -> {
-            updateBookList(bookListView, library.getBookList().stream()
-                    .filter(book -> book.isAvailable() && // if book is available
-                            (book.getTitle().toLowerCase().contains(newValue.toLowerCase()) || // if the title contains the input
-                                    book.getAuthor().toLowerCase().contains(newValue.toLowerCase()) || // if the author contains the input
-                                    book.getISBN().toLowerCase().contains(newValue.toLowerCase()))) // if the ISBN contains the input
-                    .toList()); // add it to the list
+            updateBookList(bookListView, library.scanBooks(borrowable)); // add it to the list
         });
 
         // Populate ISBN field when book is selected from the list
@@ -310,10 +451,8 @@ public class LibraryApp extends Application {
 
         // Dynamically update the member list based on search input using a listener
         memberSearchField.textProperty().addListener((observable, oldValue, newValue) -> {
-            updateMemberList(memberListView, library.getMemberList().stream()
-                    .filter(member -> member.getName().toLowerCase().contains(newValue.toLowerCase()) || // if the member name contains the input
-                            member.getMemberID().toLowerCase().contains(newValue.toLowerCase())) // if the member id contains the input
-                    .toList()); // add them to the list
+            updateMemberList(memberListView, newValue.isBlank() ? library.getMemberList()
+                    : library.searchMembers(newValue, SEARCH_RESULT_LIMIT)); // members whose ID or name words start with the input
         });
 
         // Populate Member ID field when member is selected from the list
@@ -328,6 +467,20 @@ public class LibraryApp extends Application {
         Label memberIdLabel = new Label("Member ID *");
         memberIdLabel.setStyle("-fx-text-fill: red;"); // Highlight required field
 
+        // keep both lists up to date while the window exists, books leave the list when their last copy is lent
+        addLiveView(event -> {
+            if (event.getISBN() != null) {
+                updateBookRow(bookListView, event.getISBN(), borrowable, borrowable);
+            }
+            if (event.getMemberID() != null) {
+                updateMemberRow(memberListView, event.getMemberID(), member -> memberSearchField.getText().isBlank());
+            }
+        }, () -> {
+            updateBookList(bookListView, library.scanBooks(borrowable));
+            updateMemberList(memberListView, memberSearchField.getText().isBlank() ? library.getMemberList()
+                    : library.searchMembers(memberSearchField.getText(), SEARCH_RESULT_LIMIT));
+        });
+
         // Borrow button to submit the form
         Button borrowButton = new Button("Borrow Book");
         borrowButton.setStyle("-fx-font-size: 14; -fx-background-color: #4CAF50; -fx-text-fill: white;");
@@ -361,7 +514,12 @@ public class LibraryApp extends Application {
         // set the scene and display the borrow book window
         Scene scene = new Scene(mainLayout, 500, 700);
         borrowBookStage.setScene(scene);
-        borrowBookStage.show();
+        return new CachedWindow<>(borrowBookStage, ignored -> { // the lists are already current, only the form is cleared
+            bookSearchField.clear();
+            isbnField.clear();
+            memberSearchField.clear();
+            memberIdField.clear();
+        });
     }
 
     /**
@@ -370,6 +528,14 @@ public class LibraryApp extends Application {
      * Ensures the entered ISBN corresponds to a currently checked-out book.
      */
     private void returnBook() {
+        if (returnBookDialog == null) {
+            returnBookDialog = buildReturnBookDialog();
+        }
+        returnBookDialog.open(null);
+    }
+
+    // Builds the Return Book window, see returnBook()
+    private CachedWindow<Void> buildReturnBookDialog() {
         Stage returnBookStage = new Stage(); // new stage for returning a book
         returnBookStage.setTitle("Return Book");
 
@@ -381,6 +547,7 @@ public class LibraryApp extends Application {
         Label bookSearchLabel = new Label("Search for a Book");
         TextField bookSearchField = new TextField();
         bookSearchField.setPromptText("Search by Title, Author, or ISBN");
+        Supplier<String> bookSearchKey = searchKeyOf(bookSearchField);
 
         // list to display checked-out books
         ListView<Book> bookListView = new ListView<>();
@@ -389,20 +556,24 @@ public class LibraryApp extends Application {
         TextField isbnField = new TextField();
         isbnField.setPromptText("Enter Book ISBN");
 
-        // populate the book list with currently checked-out books
-        updateBookList(bookListView, library.getBookList().stream()
-                .filter(book -> !book.isAvailable())
-                .toList());
+        // books that have a copy checked out and match the search input
+        Predicate<Book> returnable = book -> book.getAvailableCopies() < book.getCopyCount()
+                && SearchKey.contains(book.getSearchKey(), bookSearchKey.get(), 3);
+
+        // populate the book list with books that have a copy checked out
+        updateBookList(bookListView, library.scanBooks(returnable));
 
         bookSearchField.textProperty().addListener((observable, oldValue, newValue) -> { // Dynamically update the book list based on search input
-            updateBookList(bookListView, library.getBookList().stream()
-                    .filter(book -> !book.isAvailable() &&
-                            (book.getTitle().toLowerCase().contains(newValue.toLowerCase()) ||
-                                    book.getAuthor().toLowerCase().contains(newValue.toLowerCase()) ||
-                                    book.getISBN().toLowerCase().contains(newValue.toLowerCase())))
-                    .toList());
+            updateBookList(bookListView, library.scanBooks(returnable));
         });
 
+        // keep the list up to date while the window exists
+        addLiveView(event -> {
+            if (event.getISBN() != null) {
+                updateBookRow(bookListView, event.getISBN(), returnable, returnable);
+            }
+        }, () -> updateBookList(bookListView, library.scanBooks(returnable)));
+
         bookListView.setOnMouseClicked(event -> { // Populate the ISBN field when a book is selected from the list
             Book selectedBook = bookListView.getSelectionModel().getSelectedItem();
             if (selectedBook != null) {
@@ -414,6 +585,10 @@ public class LibraryApp extends Application {
         Label isbnLabel = new Label("Book ISBN *");
         isbnLabel.setStyle("-fx-text-fill: red;"); // Highlight required field
 
+        // optional Member ID, picks the member's copy when the library has several copies of the title
+        TextField memberIdField = new TextField();
+        memberIdField.setPromptText("Member ID (for titles with several copies)");
+
         // Return button to submit the form
         Button returnButton = new Button("Return Book");
         returnButton.setStyle("-fx-font-size: 14; -fx-background-color: #4CAF50; -fx-text-fill: white;"); // Green button
@@ -428,7 +603,8 @@ public class LibraryApp extends Application {
             }
 
             // Attempt to return the book
-            boolean success = library.returnBook(isbn, null);
+            String memberId = memberIdField.getText();
+            boolean success = library.returnBook(isbn, memberId.isEmpty() ? null : memberId);
             if (success) {
                 showAlert("Success", "Book returned successfully!");
                 returnBookStage.close();
@@ -439,14 +615,18 @@ public class LibraryApp extends Application {
 
         // add all components to the layout
         layout.getChildren().addAll(
-                bookSearchLabel, bookSearchField, bookListView, isbnLabel, isbnField,
+                bookSearchLabel, bookSearchField, bookListView, isbnLabel, isbnField, memberIdField,
                 returnButton
         );
 
         // new scene for the return book window
         Scene scene = new Scene(layout, 400, 500);
         returnBookStage.setScene(scene);
-        returnBookStage.show();
+        return new CachedWindow<>(returnBookStage, ignored -> {
+            bookSearchField.clear();
+            isbnField.clear();
+            memberIdField.clear();
+        });
     }
 
     /**
@@ -494,7 +674,7 @@ public class LibraryApp extends Application {
                     Alert confirmationDialog = new Alert(Alert.AlertType.CONFIRMATION);
                     confirmationDialog.setTitle("Delete Book");
                     confirmationDialog.setHeaderText("Are you sure?");
-                    confirmationDialog.setContentText("Deleting this book will return it if checked out and remove it from all active loans.");
+                    confirmationDialog.setContentText("Deleting this book will return every copy that is checked out and remove it from all active loans.");
 
                     // options for the confirmation dialog
                     ButtonType yesButton = new ButtonType("Yes");
@@ -504,14 +684,9 @@ public class LibraryApp extends Application {
                     // handle user response to the confirmation dialog
                     confirmationDialog.showAndWait().ifPresent(response -> {
                         if (response == yesButton) {
-                            // Return the book if it is checked out
-                            if (!selectedBook.isAvailable()) {
-                                library.returnBook(selectedBook.getISBN(), selectedBook.getBorrowerID());
-                            }
-
-                            // Remove the book from the library and update the list
-                            library.getBookList().remove(selectedBook);
-                            updateBookList(listView, library.getBookList());
+                            // Remove the book from the library after returning its copies on loan (see Library.removeBook()),
+                            // its row is removed when the change arrives (see onLibraryEvent())
+                            library.removeBook(selectedBook.getISBN());
                         }
                     });
                 }
@@ -584,15 +759,8 @@ public class LibraryApp extends Application {
 
                     confirmationDialog.showAndWait().ifPresent(response -> {
                         if (response == yesButton) {
-                            // Return all books borrowed by the member
-                            List<String> borrowedBooksCopy = new ArrayList<>(selectedMember.getBorrowedBooks());
-                            for (String isbn : borrowedBooksCopy) {
-                                library.returnBook(isbn, selectedMember.getMemberID());
-                            }
-
-                            // Remove the member from the library and update the list
-                            library.getMemberList().remove(selectedMember);
-                            updateMemberList(listView, library.getMemberList());
+                            // Return all books borrowed by the member and remove the member from the library
+                            library.removeMembers(List.of(selectedMember.getMemberID())); // the row goes when the change arrives
                         }
                     });
                 }
@@ -618,6 +786,14 @@ public class LibraryApp extends Application {
      * Provides options to search, view details, and delete books.
      */
     private void viewBooks() {
+        if (viewBooksDialog == null) {
+            viewBooksDialog = buildViewBooksDialog();
+        }
+        viewBooksDialog.open(null);
+    }
+
+    // Builds the View Books window, see viewBooks()
+    private CachedWindow<Void> buildViewBooksDialog() {
         Stage viewBooksStage = new Stage(); // new stage for viewing books
         viewBooksStage.setTitle("View Books");
 
@@ -626,6 +802,7 @@ public class LibraryApp extends Application {
 
         TextField searchField = new TextField(); // search field to filter books by title/author/isbn
         searchField.setPromptText("Search by Title, Author, or ISBN");
+        addSuggestions(searchField); // suggest titles and authors while typing
 
         ListView<Book> bookListView = new ListView<>(); // listview to display the books
         updateBookList(bookListView, library.getBookList()); // populate with all books
@@ -665,7 +842,7 @@ public class LibraryApp extends Application {
                     Alert confirmationDialog = new Alert(Alert.AlertType.CONFIRMATION); // confirmation dialogue
                     confirmationDialog.setTitle("Delete Book");
                     confirmationDialog.setHeaderText("Are you sure?");
-                    confirmationDialog.setContentText("Deleting this book will return it if checked out and remove it from all active loans.");
+                    confirmationDialog.setContentText("Deleting this book will return every copy that is checked out and remove it from all active loans.");
 
                     // confirmation dialogue options
                     ButtonType yesButton = new ButtonType("Yes");
@@ -675,14 +852,9 @@ public class LibraryApp extends Application {
                     // handle user response to configuration dialogue
                     confirmationDialog.showAndWait().ifPresent(response -> {
                         if (response == yesButton) {
-                            // Return the book if it is checked out
-                            if (!selectedBook.isAvailable()) {
-                                library.returnBook(selectedBook.getISBN(), selectedBook.getBorrowerID());
-                            }
-
-                            // Remove the book from the library and update the list
-                            library.getBookList().remove(selectedBook);
-                            updateBookList(bookListView, library.getBookList());
+                            // Remove the book from the library after returning its copies on loan (see Library.removeBook()),
+                            // its row is removed when the change arrives (see onLibraryEvent())
+                            library.removeBook(selectedBook.getISBN());
                         }
                     });
                 }
@@ -703,13 +875,33 @@ public class LibraryApp extends Application {
             return cell; // return the customized cell
         });
 
-        searchField.textProperty().addListener((observable, oldValue, newValue) -> { // search field with listener to check for values that contain our input
-            updateBookList(bookListView, library.getBookList().stream()
-                    .filter(book -> book.getTitle().toLowerCase().contains(newValue.toLowerCase()) ||
-                            book.getAuthor().toLowerCase().contains(newValue.toLowerCase()) ||
-                            book.getISBN().toLowerCase().contains(newValue.toLowerCase()))
-                    .toList());
-        });
+        // fills the list with all books, or the best matches for the search input
+        Runnable search = () -> {
+            String query = searchField.getText();
+            if (query.isEmpty()) {
+                updateBookList(bookListView, library.getBookList());
+                return;
+            }
+            List<Book> matches = library.searchBooks(query, SEARCH_RESULT_LIMIT);
+            if (matches.isEmpty()) {
+                matches = library.searchBooksFuzzy(query, FUZZY_SEARCH_DISTANCE, SEARCH_RESULT_LIMIT); // allow for typos
+            }
+            updateBookList(bookListView, matches);
+        };
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> search.run()); // search field with listener to show the best matches for our input
+
+        // keep the list up to date while the window exists. While searching, added and removed books re-run the
+        // search, so the list is always the best matches up to SEARCH_RESULT_LIMIT, the same as searching again,
+        // and other changes only update the rows already shown
+        addLiveView(event -> {
+            LibraryEvent.Type type = event.getType();
+            if (!searchField.getText().isEmpty()
+                    && (type == LibraryEvent.Type.BOOK_ADDED || type == LibraryEvent.Type.BOOK_REMOVED)) {
+                search.run();
+            } else if (event.getISBN() != null) {
+                updateBookRow(bookListView, event.getISBN(), book -> true, book -> searchField.getText().isEmpty());
+            }
+        }, search);
 
         // add all components to the layout
         layout.getChildren().addAll(new Label("Search Books"), searchField, bookListView);
@@ -717,7 +909,7 @@ public class LibraryApp extends Application {
         // create and set the scene for the View Books window
         Scene scene = new Scene(layout, 400, 600);
         viewBooksStage.setScene(scene);
-        viewBooksStage.show();
+        return new CachedWindow<>(viewBooksStage, ignored -> searchField.clear()); // the list is already current
     }
 
     /**
@@ -726,6 +918,14 @@ public class LibraryApp extends Application {
      * @param book The book whose details are to be displayed.
      */
     private void showBookDetails(Book book) {
+        if (bookDetailsDialog == null) {
+            bookDetailsDialog = buildBookDetailsDialog();
+        }
+        bookDetailsDialog.open(book);
+    }
+
+    // Builds the Book Details window, the labels are filled in for each book it's opened with
+    private CachedWindow<Book> buildBookDetailsDialog() {
         Stage bookDetailsStage = new Stage();
         bookDetailsStage.setTitle("Book Details");
 
@@ -733,20 +933,29 @@ public class LibraryApp extends Application {
         layout.setStyle("-fx-padding: 10;");
 
         // labels for displaying the book's information
-        Label nameLabel = new Label("Title: " + book.getTitle());
-        Label authorLabel = new Label("Author: " + book.getAuthor());
-        Label isbnLabel = new Label("ISBN: " + book.getISBN());
-        Label availabilityLabel = new Label("Availability: " + (book.isAvailable() ? "Available" : "Not Available"));
-        Label borrowerLabel = new Label("Borrower ID: " + (book.getBorrowerID() == null ? "N/A" : book.getBorrowerID()));
-        Label borrowedDateLabel = new Label("Borrowed Date: " + (book.getBorrowedDate() == null ? "N/A" : book.getBorrowedDate()));
+        Label nameLabel = new Label();
+        Label authorLabel = new Label();
+        Label isbnLabel = new Label();
+        Label availabilityLabel = new Label();
+        Label borrowerLabel = new Label();
+        Label borrowedDateLabel = new Label();
+        Label copiesLabel = new Label();
 
         // add all the labels to the layout
-        layout.getChildren().addAll(nameLabel, authorLabel, isbnLabel, availabilityLabel, borrowerLabel, borrowedDateLabel);
+        layout.getChildren().addAll(nameLabel, authorLabel, isbnLabel, availabilityLabel, borrowerLabel, borrowedDateLabel, copiesLabel);
 
         // create and set the scene for the book details window
-        Scene scene = new Scene(layout, 300, 200);
+        Scene scene = new Scene(layout, 300, 230);
         bookDetailsStage.setScene(scene);
-        bookDetailsStage.show(); // display
+        return new CachedWindow<>(bookDetailsStage, book -> {
+            nameLabel.setText("Title: " + book.getTitle());
+            authorLabel.setText("Author: " + book.getAuthor());
+            isbnLabel.setText("ISBN: " + book.getISBN());
+            availabilityLabel.setText("Availability: " + (book.hasAvailableCopy() ? "Available" : "Not Available"));
+            borrowerLabel.setText("Borrower ID: " + (book.getBorrowerID() == null ? "N/A" : book.getBorrowerID()));
+            borrowedDateLabel.setText("Borrowed Date: " + (book.getBorrowedDate() == null ? "N/A" : book.getBorrowedDate()));
+            copiesLabel.setText("Copies Available: " + book.getAvailableCopies() + " of " + book.getCopyCount());
+        });
     }
 
     /**
@@ -754,6 +963,14 @@ public class LibraryApp extends Application {
      * Provides options to search, view details, and delete members.
      */
     private void viewMembers() {
+        if (viewMembersDialog == null) {
+            viewMembersDialog = buildViewMembersDialog();
+        }
+        viewMembersDialog.open(null);
+    }
+
+    // Builds the View Members window, see viewMembers()
+    private CachedWindow<Void> buildViewMembersDialog() {
         Stage viewMembersStage = new Stage();
         viewMembersStage.setTitle("View Members");
 
@@ -810,15 +1027,8 @@ public class LibraryApp extends Application {
 
                     confirmationDialog.showAndWait().ifPresent(response -> {
                         if (response == yesButton) {
-                            // Safely iterate over borrowed books
-                            List<String> borrowedBooksCopy = new ArrayList<>(selectedMember.getBorrowedBooks());
-                            for (String isbn : borrowedBooksCopy) {
-                                library.returnBook(isbn, selectedMember.getMemberID());
-                            }
-
-                            // Remove the member from the library
-                            library.getMemberList().remove(selectedMember);
-                            updateMemberList(memberListView, library.getMemberList());
+                            // Return all books borrowed by the member and remove the member from the library
+                            library.removeMembers(List.of(selectedMember.getMemberID())); // the row goes when the change arrives
                         }
                     });
                 }
@@ -838,19 +1048,25 @@ public class LibraryApp extends Application {
             // see previous viewX() functions for more comments, similar code
         });
 
+        // fills the list with all members, or the members matching the search input
+        Runnable search = () -> updateMemberList(memberListView, searchField.getText().isBlank() ? library.getMemberList()
+                : library.searchMembers(searchField.getText(), SEARCH_RESULT_LIMIT));
+
         // listener for the search field, dynamically filter the member list
-        searchField.textProperty().addListener((observable, oldValue, newValue) -> {
-            updateMemberList(memberListView, library.getMemberList().stream()
-                    .filter(member -> member.getName().toLowerCase().contains(newValue.toLowerCase()) ||
-                            member.getMemberID().toLowerCase().contains(newValue.toLowerCase()))
-                    .toList());
-        });
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> search.run());
+
+        // keep the list up to date while the window exists
+        addLiveView(event -> {
+            if (event.getMemberID() != null) {
+                updateMemberRow(memberListView, event.getMemberID(), member -> searchField.getText().isBlank());
+            }
+        }, search);
 
         layout.getChildren().addAll(new Label("Search Members"), searchField, memberListView);
 
         Scene scene = new Scene(layout, 400, 600);
         viewMembersStage.setScene(scene);
-        viewMembersStage.show();
+        return new CachedWindow<>(viewMembersStage, ignored -> searchField.clear());
     }
 
     /**
@@ -859,6 +1075,14 @@ public class LibraryApp extends Application {
      * @param member The member whose details are to be displayed.
      */
     private void showMemberDetails(Member member) {
+        if (memberDetailsDialog == null) {
+            memberDetailsDialog = buildMemberDetailsDialog();
+        }
+        memberDetailsDialog.open(member);
+    }
+
+    // Builds the Member Details window, the labels are filled in for each member it's opened with
+    private CachedWindow<Member> buildMemberDetailsDialog() {
         Stage memberDetailsStage = new Stage();
         memberDetailsStage.setTitle("Member Details");
 
@@ -866,17 +1090,21 @@ public class LibraryApp extends Application {
         layout.setStyle("-fx-padding: 10;");
 
         // labels for member information
-        Label nameLabel = new Label("Name: " + member.getName());
-        Label memberIdLabel = new Label("Member ID: " + member.getMemberID());
-        // display the list of books borrowed by the member
-        Label borrowedBooksLabel = new Label("Borrowed Books: " +
-                (member.getBorrowedBooks().isEmpty() ? "None" : String.join(", ", member.getBorrowedBooks())));
+        Label nameLabel = new Label();
+        Label memberIdLabel = new Label();
+        Label borrowedBooksLabel = new Label();
 
         layout.getChildren().addAll(nameLabel, memberIdLabel, borrowedBooksLabel);
 
         Scene scene = new Scene(layout, 300, 200);
         memberDetailsStage.setScene(scene);
-        memberDetailsStage.show();
+        return new CachedWindow<>(memberDetailsStage, member -> {
+            nameLabel.setText("Name: " + member.getName());
+            memberIdLabel.setText("Member ID: " + member.getMemberID());
+            // display the list of books borrowed by the member
+            borrowedBooksLabel.setText("Borrowed Books: " +
+                    (member.getBorrowedBooks().isEmpty() ? "None" : String.join(", ", member.getBorrowedBooks())));
+        });
     }
 
     /**
@@ -898,6 +1126,14 @@ public class LibraryApp extends Application {
      * Provides options to search, view details, and delete loans. Overdue loans are highlighted in red.
      */
     private void viewActiveLoans() {
+        if (viewActiveLoansDialog == null) {
+            viewActiveLoansDialog = buildViewActiveLoansDialog();
+        }
+        viewActiveLoansDialog.open(null);
+    }
+
+    // Builds the View Active Loans window, see viewActiveLoans()
+    private CachedWindow<Void> buildViewActiveLoansDialog() {
         Stage viewActiveLoansStage = new Stage();
         viewActiveLoansStage.setTitle("View Active Loans");
 
@@ -907,58 +1143,69 @@ public class LibraryApp extends Application {
         // search field for filtering active loans by title/borrower id/borrowed date
         TextField searchField = new TextField();
         searchField.setPromptText("Search by Title, Borrower ID, or Borrowed Date");
-
-        ListView<Book> loanListView = new ListView<>();
-        // populate the ListView with checked-out books
-        updateBookListForLoans(loanListView, library.getBookList().stream()
-                .filter(book -> !book.isAvailable()) // Only show checked-out books
-                .toList());
+        Supplier<String> searchKey = searchKeyOf(searchField);
+
+        // copies on loan whose title, borrower ID or borrowed date match the search input
+        Predicate<ActiveLoan> shown = loan -> {
+            String key = searchKey.get();
+            return SearchKey.contains(loan.book().getSearchKey(), key, 1) ||
+                    (loan.getBorrowerID() != null && SearchKey.containsIgnoreCase(loan.getBorrowerID(), key)) ||
+                    // dates are only built for queries that could be part of one
+                    (!key.isEmpty() && Character.isDigit(key.charAt(0)) && loan.getBorrowedDate() != null
+                            && loan.getBorrowedDate().toString().contains(key));
+        };
+
+        ListView<ActiveLoan> loanListView = new ListView<>();
+        // populate the ListView with every copy on loan, one row per copy
+        updateLoanList(loanListView, library.scanLoans(shown));
 
         searchField.textProperty().addListener((observable, oldValue, newValue) -> { // another listener to dynamically filter the active loans
-            updateBookListForLoans(loanListView, library.getBookList().stream()
-                    .filter(book -> !book.isAvailable() && // only include checked-out books
-                            (book.getTitle().toLowerCase().contains(newValue.toLowerCase()) ||
-                                    (book.getBorrowerID() != null && book.getBorrowerID().toLowerCase().contains(newValue.toLowerCase())) ||
-                                    (book.getBorrowedDate() != null && book.getBorrowedDate().toString().contains(newValue)))
-                    )
-                    .toList());
+            updateLoanList(loanListView, library.scanLoans(shown));
         });
 
+        // keep the list up to date while the window exists, returned copies leave it
+        addLiveView(event -> {
+            if (event.getISBN() != null) {
+                updateLoanRows(loanListView, event.getISBN(), shown);
+            }
+        }, () -> updateLoanList(loanListView, library.scanLoans(shown)));
+
         // add the search field and listview to the layout
         layout.getChildren().addAll(new Label("Search Active Loans"), searchField, loanListView);
 
         Scene scene = new Scene(layout, 400, 600);
         viewActiveLoansStage.setScene(scene);
-        viewActiveLoansStage.show(); // display
+        return new CachedWindow<>(viewActiveLoansStage, ignored -> searchField.clear());
     }
 
     /**
-     * Helper function to update the book list in the context of active loans.
+     * Helper function to update the list of active loans, one row per copy on loan.
      * This ensures loans are displayed correctly, highlights overdue loans in red,
      * and attaches context menu options (Open, Delete) and double-click functionality.
      *
      * @param listView The ListView to update with the active loans.
-     * @param books    The list of books to display (only those currently loaned out).
+     * @param loans    The copies on loan to display.
      */
-    private void updateBookListForLoans(ListView<Book> listView, List<Book> books) {
+    private void updateLoanList(ListView<ActiveLoan> listView, List<ActiveLoan> loans) {
         listView.getItems().clear();
-        listView.getItems().addAll(books);
+        listView.getItems().addAll(loans);
 
         listView.setCellFactory(param -> {
-            ListCell<Book> cell = new ListCell<>() {
+            ListCell<ActiveLoan> cell = new ListCell<>() {
                 @Override
-                protected void updateItem(Book book, boolean empty) {
-                    super.updateItem(book, empty);
-                    if (empty || book == null) {
+                protected void updateItem(ActiveLoan loan, boolean empty) {
+                    super.updateItem(loan, empty);
+                    if (empty || loan == null) {
                         setText(null); // no text if cell is empty
                         setStyle(""); // reset style
                     } else {
-                        // format the loan details for display
-                        String text = book.getTitle() + " (Borrower ID: " + book.getBorrowerID() + ")";
+                        // format the loan details for display, the copy number only matters for titles with several
+                        String copy = loan.book().getCopyCount() > 1 ? " copy " + loan.getCopy() : "";
+                        String text = loan.book().getTitle() + copy + " (Borrower ID: " + loan.getBorrowerID() + ")";
                         setText(text);
 
-                        // Highlight overdue books in red
-                        if (book.getBorrowedDate() != null && book.getBorrowedDate().plusWeeks(1).isBefore(LocalDate.now())) {
+                        // Highlight overdue loans in red
+                        if (loan.isOverdue()) {
                             setStyle("-fx-text-fill: red;"); // set the text color to red
                         } else {
                             setStyle(""); // reset style for non-overdue books
@@ -972,16 +1219,16 @@ public class LibraryApp extends Application {
             // Open option
             MenuItem openItem = new MenuItem("Open");
             openItem.setOnAction(e -> {
-                Book selectedBook = cell.getItem(); // get selected loan
-                if (selectedBook != null) {
-                    showLoanDetails(selectedBook); // show details of the loan
+                ActiveLoan selectedLoan = cell.getItem(); // get selected loan
+                if (selectedLoan != null) {
+                    showLoanDetails(selectedLoan); // show details of the loan
                 }
             });
 
             // Delete option
             MenuItem deleteItem = new MenuItem("Delete");
             deleteItem.setOnAction(e -> {
-                Book selectedLoan = cell.getItem();
+                ActiveLoan selectedLoan = cell.getItem();
                 if (selectedLoan != null) {
                     Alert confirmationDialog = new Alert(Alert.AlertType.CONFIRMATION);
                     confirmationDialog.setTitle("Delete Loan");
@@ -994,11 +1241,8 @@ public class LibraryApp extends Application {
 
                     confirmationDialog.showAndWait().ifPresent(response -> {
                         if (response == yesButton) {
-                            // Mark book as available and update member
+                            // Mark book as available and update member, the loan's row goes when the change arrives
                             library.returnBook(selectedLoan.getISBN(), selectedLoan.getBorrowerID());
-                            updateBookListForLoans(listView, library.getBookList().stream()
-                                    .filter(book -> !book.isAvailable())
-                                    .toList());
                         }
                     });
                 }
@@ -1021,36 +1265,220 @@ public class LibraryApp extends Application {
     /**
      * Displays a mini-window with detailed information about a specific loan.
      *
-     * @param book The book representing the loan whose details are to be displayed.
+     * @param loan The copy on loan whose details are to be displayed.
      */
-    private void showLoanDetails(Book book) {
+    private void showLoanDetails(ActiveLoan loan) {
+        if (loanDetailsDialog == null) {
+            loanDetailsDialog = buildLoanDetailsDialog();
+        }
+        loanDetailsDialog.open(loan);
+    }
+
+    // Builds the Loan Details window, the labels are filled in for each loan it's opened with
+    private CachedWindow<ActiveLoan> buildLoanDetailsDialog() {
         Stage loanDetailsStage = new Stage();
         loanDetailsStage.setTitle("Loan Details");
 
         VBox layout = new VBox(10);
         layout.setStyle("-fx-padding: 10;");
 
-        // Find the borrower based on borrower ID
-        Member borrower = null;
-        for (Member member : library.getMemberList()) {
-            if (member.getMemberID().equals(book.getBorrowerID())) {
-                borrower = member;
-                break;
-            }
-        }
-
         // labels for displaying the loan's details
-        Label titleLabel = new Label("Title: " + book.getTitle());
-        Label isbnLabel = new Label("ISBN: " + book.getISBN());
-        Label borrowerIdLabel = new Label("Borrower ID: " + book.getBorrowerID());
-        Label borrowerNameLabel = new Label("Borrower Name: " + (borrower != null ? borrower.getName() : "Unknown")); // borrowers name if found
-        Label dueDateLabel = new Label("Due Date: " + book.getDueDate() + (book.isOverdue() ? " (Overdue)" : "")); // due date and overdue status
+        Label titleLabel = new Label();
+        Label isbnLabel = new Label();
+        Label borrowerIdLabel = new Label();
+        Label borrowerNameLabel = new Label();
+        Label dueDateLabel = new Label();
 
         layout.getChildren().addAll(titleLabel, isbnLabel, borrowerIdLabel, borrowerNameLabel, dueDateLabel);
 
         Scene scene = new Scene(layout, 300, 200);
         loanDetailsStage.setScene(scene);
-        loanDetailsStage.show();
+        return new CachedWindow<>(loanDetailsStage, loan -> {
+            // Find the borrower based on borrower ID
+            Member borrower = loan.getBorrowerID() == null ? null : library.getMember(loan.getBorrowerID());
+
+            titleLabel.setText("Title: " + loan.book().getTitle());
+            isbnLabel.setText("ISBN: " + loan.getISBN() + (loan.book().getCopyCount() > 1 ? " (copy " + loan.getCopy() + ")" : ""));
+            borrowerIdLabel.setText("Borrower ID: " + loan.getBorrowerID());
+            borrowerNameLabel.setText("Borrower Name: " + (borrower != null ? borrower.getName() : "Unknown")); // borrowers name if found
+            dueDateLabel.setText("Due Date: " + loan.getDueDate() + (loan.isOverdue() ? " (Overdue)" : "")); // due date and overdue status
+        });
+    }
+
+    /**
+     * Applies a change of the library to every list kept up to date by a window (see addLiveView()).
+     * Only the rows of the changed book or member are touched. If changes were dropped because the JavaFX thread
+     * fell behind (a gap in the sequence numbers), every list is refilled once instead.
+     *
+     * @param event The change, delivered on the JavaFX thread.
+     */
+    private void onLibraryEvent(LibraryEvent event) {
+        boolean missedChanges = event.getSequence() != lastEventSequence + 1;
+        lastEventSequence = event.getSequence();
+        for (LiveView view : liveViews) {
+            if (missedChanges) {
+                view.refill().run();
+            } else {
+                view.onChange().accept(event);
+            }
+        }
+    }
+
+    /**
+     * Shows the titles and authors that start with what has been typed in a drop-down under a search field
+     * (see Library.suggest()). Picking one puts it in the field, which runs the field's usual search.
+     *
+     * @param field The search field to suggest for.
+     */
+    private void addSuggestions(TextField field) {
+        ContextMenu suggestions = new ContextMenu();
+        boolean[] picking = {false}; // true while a picked suggestion is put in the field, so the menu stays closed
+        field.textProperty().addListener((observable, oldValue, newValue) -> {
+            List<String> texts = picking[0] || !field.isFocused() ? List.of() : library.suggest(newValue, SUGGESTION_LIMIT);
+            if (texts.isEmpty()) {
+                suggestions.hide();
+                return;
+            }
+            List<MenuItem> items = new ArrayList<>();
+            for (String text : texts) {
+                MenuItem item = new MenuItem(text);
+                item.setMnemonicParsing(false); // show underscores in titles as they are
+                item.setOnAction(event -> {
+                    picking[0] = true;
+                    field.setText(text);
+                    field.positionCaret(text.length());
+                    picking[0] = false;
+                });
+                items.add(item);
+            }
+            suggestions.getItems().setAll(items);
+            if (!suggestions.isShowing()) {
+                suggestions.show(field, Side.BOTTOM, 0, 0);
+            }
+        });
+        field.focusedProperty().addListener((observable, wasFocused, focused) -> {
+            if (!focused) {
+                suggestions.hide();
+            }
+        });
+    }
+
+    // Registers a window's lists to be kept up to date for as long as the app runs, even while the window is hidden
+    private void addLiveView(Consumer<LibraryEvent> onChange, Runnable refill) {
+        liveViews.add(new LiveView(onChange, refill));
+    }
+
+    /**
+     * Brings one book's row of a list up to date after the book changed, without refilling the list.
+     *
+     * @param listView The list to update.
+     * @param ISBN     The ISBN of the book that changed.
+     * @param keep     Whether a book that is already in the list stays in it.
+     * @param add      Whether a book that isn't in the list yet is added at the end.
+     */
+    private void updateBookRow(ListView<Book> listView, String ISBN, Predicate<Book> keep, Predicate<Book> add) {
+        Book book = library.getBook(ISBN); // null if the book was removed
+        List<Book> rows = listView.getItems();
+        int row = -1;
+        for (int i = 0; i < rows.size() && row < 0; i++) {
+            if (rows.get(i).getISBN().equals(ISBN)) {
+                row = i;
+            }
+        }
+        if (row >= 0 && book != null && keep.test(book)) {
+            rows.set(row, book); // redraws only this row
+        } else if (row >= 0) {
+            rows.remove(row);
+        } else if (book != null && add.test(book)) {
+            rows.add(book);
+        }
+    }
+
+    /**
+     * Brings the rows of one title in a loan list up to date: its old rows are replaced by the rows of its copies
+     * that are on loan now and shown, in the place of the first old row (or at the end if it had none).
+     *
+     * @param listView  The list of loans.
+     * @param ISBN      The ISBN of the title that changed.
+     * @param shown     Which copies on loan belong in the list.
+     */
+    private void updateLoanRows(ListView<ActiveLoan> listView, String ISBN, Predicate<ActiveLoan> shown) {
+        Book book = library.getBook(ISBN); // null if the book was removed
+        List<ActiveLoan> rows = listView.getItems();
+        int position = -1;
+        for (int i = rows.size() - 1; i >= 0; i--) {
+            if (rows.get(i).getISBN().equals(ISBN)) {
+                rows.remove(i);
+                position = i;
+            }
+        }
+        if (book == null) {
+            return;
+        }
+        List<ActiveLoan> loans = ActiveLoan.of(book).stream().filter(shown).toList();
+        rows.addAll(position < 0 ? rows.size() : position, loans);
+    }
+
+    // Brings one member's row of a list up to date, like updateBookRow(), members stay in the list until removed
+    private void updateMemberRow(ListView<Member> listView, String memberID, Predicate<Member> add) {
+        Member member = library.getMember(memberID);
+        List<Member> rows = listView.getItems();
+        int row = -1;
+        for (int i = 0; i < rows.size() && row < 0; i++) {
+            if (rows.get(i).getMemberID().equals(memberID)) {
+                row = i;
+            }
+        }
+        if (row >= 0 && member != null) {
+            rows.set(row, member);
+        } else if (row >= 0) {
+            rows.remove(row);
+        } else if (member != null && add.test(member)) {
+            rows.add(member);
+        }
+    }
+
+    /**
+     * Keeps the normalized search key of a field's text, so list filters normalize the input once per change
+     * instead of once per row. Call it before adding the listeners that filter, since listeners run in the order
+     * they were added.
+     *
+     * @param field  The search field.
+     * @return       The current search key of the field.
+     */
+    private static Supplier<String> searchKeyOf(TextField field) {
+        String[] key = {SearchKey.normalize(field.getText())};
+        field.textProperty().addListener((observable, oldValue, newValue) -> key[0] = SearchKey.normalize(newValue));
+        return () -> key[0];
+    }
+
+    /**
+     * A window that is built the first time it's opened and only hidden when it's closed, so opening it again
+     * costs the same no matter how large the library is. Its lists are kept current by addLiveView() while it's
+     * hidden, so opening it only has to fill in the data it's opened with (such as the book to show) and clear
+     * its forms.
+     */
+    private static final class CachedWindow<T> {
+        private final Stage stage;
+        private final Consumer<T> binder; // fills the window in for the data it's opened with
+
+        CachedWindow(Stage stage, Consumer<T> binder) {
+            this.stage = stage;
+            this.binder = binder;
+        }
+
+        void open(T data) {
+            binder.accept(data);
+            if (stage.isShowing()) {
+                stage.toFront();
+            } else {
+                stage.show();
+            }
+        }
+    }
+
+    // A list kept up to date by onLibraryEvent(): onChange updates the changed rows, refill rebuilds the whole list
+    private record LiveView(Consumer<LibraryEvent> onChange, Runnable refill) {
     }
 
 
@@ -0,0 +1,193 @@
+/*
+ * Cade Mock
+ * CWID: 50350556
+ * Date (Last Updated) : 10/19/2026
+ * Email: cmock2@leomail.tamuc.edu
+ */
+
+package com.example.librarymanagementsystem;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * Runs scripted circulation and maintenance jobs without the JavaFX interface, for nightly batch jobs.
+ *
+ * Usage: java -cp target/classes com.example.librarymanagementsystem.LibraryCli DATA_FILE [SCRIPT_FILE]
+ *
+ * The library is loaded from the data file if it exists. The script is read line by line from the script file,
+ * or from standard input if none is given, so scripts of any length run in constant memory. Each line is one
+ * command, blank lines and lines starting with '#' are skipped:
+ * - borrow ISBN MEMBER_ID        Borrows a book for a member.
+ * - return ISBN [MEMBER_ID]      Returns a book (the Member ID picks the copy for titles with several copies).
+ * - purge MEMBER_ID...           Removes members and returns their books (see Library.removeMembers()).
+ * - reindex                      Rebuilds the indexes and compacts the book and member lists.
+ * - import csv|marc FILE         Imports a vendor catalog (see CatalogImporter).
+ * - export csv|jsonl|snapshot all|loans|overdue FILE
+ *                                Exports books (see CatalogExporter).
+ * - verify FILE                  Checks every block of a snapshot file.
+ * - save                         Saves the library to the data file.
+ *
+ * Every command prints one result line. Failed commands are reported on standard error with their line number and
+ * the script goes on, and the exit status is 1 if any command failed. Nothing is saved unless the script says so.
+ *
+ * Only the library classes are used, so the JavaFX modules don't have to be loaded.
+ */
+public class LibraryCli {
+    private LibraryCli() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: LibraryCli DATA_FILE [SCRIPT_FILE]");
+            System.exit(2);
+        }
+        Library library = new Library(args[0]);
+        if (Files.exists(Path.of(args[0]))) {
+            try {
+                library.loadData();
+            } catch (IOException | ClassNotFoundException e) {
+                System.err.println("Failed to load library data: " + e.getMessage());
+                System.exit(2);
+            }
+        }
+
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+        PrintWriter err = new PrintWriter(new OutputStreamWriter(System.err, StandardCharsets.UTF_8), true);
+        int failures;
+        try (BufferedReader script = args.length == 2
+                ? Files.newBufferedReader(Path.of(args[1]), StandardCharsets.UTF_8)
+                : new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
+            failures = run(library, script, out, err);
+        }
+        out.flush();
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    /**
+     * Runs every command of a script against a library.
+     *
+     * @param library  The library to run the commands on.
+     * @param script   The script, read one line at a time.
+     * @param out      Receives one result line per command.
+     * @param err      Receives one line per failed command.
+     * @return         The number of failed commands.
+     * @throws IOException  If the script can't be read.
+     */
+    static int run(Library library, BufferedReader script, PrintWriter out, PrintWriter err) throws IOException {
+        int failures = 0;
+        int lineNumber = 0;
+        String line;
+        while ((line = script.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String[] words = trimmed.split("\\s+");
+            try {
+                out.println(execute(library, words));
+            } catch (RuntimeException | IOException e) { // any failure only fails its own line
+                failures++;
+                String reason = e instanceof IllegalArgumentException || e instanceof IOException ? e.getMessage() : e.toString();
+                err.println("line " + lineNumber + ": " + words[0] + " failed: " + reason);
+            }
+        }
+        return failures;
+    }
+
+    // Runs one command and returns its result line, throws IllegalArgumentException if the command failed
+    private static String execute(Library library, String[] words) throws IOException {
+        switch (words[0].toLowerCase(Locale.ROOT)) {
+            case "borrow" -> {
+                expectArguments(words, 2, 2);
+                if (!library.borrowBook(words[1], words[2])) {
+                    throw new IllegalArgumentException("the book isn't available or the member can't borrow it");
+                }
+                return "borrowed " + words[1] + " by " + words[2];
+            }
+            case "return" -> {
+                expectArguments(words, 1, 2);
+                if (!library.returnBook(words[1], words.length == 3 ? words[2] : null)) {
+                    throw new IllegalArgumentException("the book isn't checked out");
+                }
+                return "returned " + words[1];
+            }
+            case "purge" -> {
+                expectArguments(words, 1, Integer.MAX_VALUE);
+                Library.MemberRemovalResult result = library.removeMembers(Arrays.asList(words).subList(1, words.length));
+                return "purged " + result.removed().size() + " members, released " + result.loansReleased()
+                        + " loans" + (result.notFound().isEmpty() ? "" : ", not found: " + String.join(" ", result.notFound()));
+            }
+            case "reindex" -> {
+                expectArguments(words, 0, 0);
+                library.compact();
+                library.rebuildIndexes();
+                return "reindexed " + library.getBookList().size() + " books and " + library.getMemberList().size() + " members";
+            }
+            case "import" -> {
+                expectArguments(words, 2, 2);
+                CatalogImporter.ImportResult result = CatalogImporter.importFile(library, Path.of(words[2]),
+                        parse(CatalogImporter.Format.class, words[1]));
+                return "imported " + result.imported() + " books, rejected " + result.rejected().size() + " lines";
+            }
+            case "export" -> {
+                expectArguments(words, 3, 3);
+                CatalogExporter.Format format = parse(CatalogExporter.Format.class, words[1]);
+                long count = CatalogExporter.export(library, Path.of(words[3]), format, filter(words[2]));
+                return "exported " + count + (format == CatalogExporter.Format.SNAPSHOT ? " books to " : " rows to ") + words[3];
+            }
+            case "verify" -> {
+                expectArguments(words, 1, 1);
+                List<Integer> corrupt = SnapshotFile.verify(Path.of(words[1]));
+                if (!corrupt.isEmpty()) {
+                    throw new IllegalArgumentException("corrupt blocks " + corrupt);
+                }
+                return "verified " + words[1];
+            }
+            case "save" -> {
+                expectArguments(words, 0, 0);
+                library.saveData();
+                return "saved " + library.getDataFile();
+            }
+            default -> throw new IllegalArgumentException("unknown command");
+        }
+    }
+
+    private static void expectArguments(String[] words, int min, int max) {
+        int count = words.length - 1;
+        if (count < min || count > max) {
+            String expected = min == max ? String.valueOf(min) : max == Integer.MAX_VALUE ? min + " or more" : min + " to " + max;
+            throw new IllegalArgumentException("expected " + expected + " arguments, got " + count);
+        }
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String name) {
+        try {
+            return Enum.valueOf(type, name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown format " + name);
+        }
+    }
+
+    private static Predicate<CatalogExporter.Row> filter(String name) {
+        return switch (name.toLowerCase(Locale.ROOT)) {
+            case "all" -> CatalogExporter.ALL_BOOKS;
+            case "loans" -> CatalogExporter.ACTIVE_LOANS;
+            case "overdue" -> CatalogExporter.overdueLoans(LocalDate.now());
+            default -> throw new IllegalArgumentException("unknown selection " + name);
+        };
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Cade Mock
+ * CWID: 50350556
+ * Date (Last Updated) : 10/19/2026
+ * Email: cmock2@leomail.tamuc.edu
+ */
+
+package com.example.librarymanagementsystem;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Represents one change made to a library, such as a book being added or borrowed.
+ * Implements Serializable so events can be sent to replicas over a socket.
+ *
+ * Every library numbers its events in the order they happen (starting at 1), so applying the events of a library
+ * to another library in sequence order reproduces the same books, members and loans.
+ *
+ * Each event has the following attributes:
+ * - Sequence: The position of the event in the library's change history.
+ * - Type: What kind of change happened.
+ * - Timestamp: When the change happened (milliseconds since the epoch).
+ * - ISBN, Title, Author: The book involved (if applicable).
+ * - Member ID, Name: The member involved (if applicable).
+ * - Borrowed Date: The date a book was borrowed (for BORROWED events).
+ */
+public class LibraryEvent implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // The kinds of changes a library can make
+    public enum Type {
+        BOOK_ADDED,
+        BOOK_REMOVED,
+        MEMBER_ADDED,
+        MEMBER_REMOVED,
+        COPY_ADDED, // one more physical copy of an existing title
+        BORROWED,
+        RETURNED
+    }
+
+    private final long sequence;
+    private final Type type;
+    private final long timestamp;
+    private final String ISBN;
+    private final String title;
+    private final String author;
+    private final String memberID;
+    private final String name;
+    private final LocalDate borrowedDate;
+
+    // Constructor for an event, fields that don't apply to the event type are null
+    LibraryEvent(long sequence, Type type, long timestamp, String ISBN, String title, String author,
+                 String memberID, String name, LocalDate borrowedDate) {
+        this.sequence = sequence;
+        this.type = type;
+        this.timestamp = timestamp;
+        this.ISBN = ISBN;
+        this.title = title;
+        this.author = author;
+        this.memberID = memberID;
+        this.name = name;
+        this.borrowedDate = borrowedDate;
+    }
+
+    // Getters for an event
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getISBN() {
+        return ISBN;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public String getMemberID() {
+        return memberID;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LocalDate getBorrowedDate() {
+        return borrowedDate;
+    }
+
+    // Formats the event as a string for logging
+    @Override
+    public String toString() {
+        return "LibraryEvent{" +
+                "Sequence=" + sequence +
+                ", Type=" + type +
+                ", ISBN='" + ISBN + '\'' +
+                ", MemberID='" + memberID + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Cade Mock
+ * CWID: 50350556
+ * Date (Last Updated) : 10/19/2026
+ * Email: cmock2@leomail.tamuc.edu
+ */
+
+package com.example.librarymanagementsystem;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Publishes a library's changes as a java.util.concurrent.Flow stream of LibraryEvents, so windows, caches and
+ * other processes can follow the changes instead of rescanning the library.
+ *
+ * Events are delivered to every subscriber in sequence order on the publisher's executor, never on the thread that
+ * changed the library. Each subscriber has its own bounded buffer and receives events only as it requests them
+ * (Flow backpressure). The library is never held up by a slow subscriber: when a subscriber's buffer is full the
+ * event is dropped for that subscriber only and counted in getDroppedCount(). A subscriber can notice a drop as a
+ * gap in the event sequence numbers and resynchronize from Library.snapshot(), whose sequence tells it where the
+ * stream continues.
+ */
+public class LibraryEventPublisher implements Flow.Publisher<LibraryEvent>, AutoCloseable {
+    private final Library library;
+    private final SubmissionPublisher<LibraryEvent> publisher;
+    private final Consumer<LibraryEvent> listener = this::offer;
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Creates a publisher for a library's changes, using the common fork-join pool to deliver events.
+     *
+     * @param library         The library whose changes are published.
+     * @param bufferCapacity  The most undelivered events kept for each subscriber.
+     */
+    public LibraryEventPublisher(Library library, int bufferCapacity) {
+        this(library, bufferCapacity, null);
+    }
+
+    /**
+     * Creates a publisher for a library's changes.
+     *
+     * @param library         The library whose changes are published.
+     * @param bufferCapacity  The most undelivered events kept for each subscriber.
+     * @param executor        Runs the subscribers, or null for the common fork-join pool
+     *                        (JavaFX views can pass Platform::runLater).
+     */
+    public LibraryEventPublisher(Library library, int bufferCapacity, Executor executor) {
+        this.library = library;
+        this.publisher = new SubmissionPublisher<>(executor == null ? ForkJoinPool.commonPool() : executor, bufferCapacity);
+        library.addEventListener(listener);
+    }
+
+    // Starts sending the library's events to a subscriber, beginning with the next change
+    @Override
+    public void subscribe(Flow.Subscriber<? super LibraryEvent> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    // Returns how many events were dropped because a subscriber's buffer was full, over all subscribers
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public int getSubscriberCount() {
+        return publisher.getNumberOfSubscribers();
+    }
+
+    // Hands an event to every subscriber's buffer, called while the library is locked so it must not block
+    private void offer(LibraryEvent event) {
+        publisher.offer(event, (subscriber, droppedEvent) -> {
+            dropped.incrementAndGet();
+            return false; // don't retry, the subscriber resynchronizes when it sees the gap
+        });
+    }
+
+    // Stops publishing, subscribers receive onComplete after the events already in their buffers
+    @Override
+    public void close() {
+        library.removeEventListener(listener);
+        publisher.close();
+    }
+}
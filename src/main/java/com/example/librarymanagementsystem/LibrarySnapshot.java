@@ -0,0 +1,83 @@
+/*
+ * Cade Mock
+ * CWID: 50350556
+ * Date (Last Updated) : 10/19/2026
+ * Email: cmock2@leomail.tamuc.edu
+ */
+
+package com.example.librarymanagementsystem;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents a consistent, point-in-time copy of the library's books and members.
+ * Snapshots are created by Library.snapshot() while the library is locked, and can then be written
+ * to disk on a background thread without blocking borrowing and returning in the app.
+ *
+ * Each snapshot has the following attributes:
+ * - Books: Copies of every book in the library at the time of the snapshot.
+ * - Members: Copies of every member in the library at the time of the snapshot.
+ * - Version: The library version the snapshot was taken at, used to skip saving unchanged data.
+ * - Sequence: The sequence number of the last LibraryEvent included in the snapshot, used by replicas.
+ */
+public class LibrarySnapshot {
+    private final ArrayList<Book> books;
+    private final ArrayList<Member> members;
+    private final long version;
+    private final long sequence;
+
+    // Constructor for a snapshot, the lists are owned by the snapshot and are never changed afterwards
+    LibrarySnapshot(ArrayList<Book> books, ArrayList<Member> members, long version, long sequence) {
+        this.books = books;
+        this.members = members;
+        this.version = version;
+        this.sequence = sequence;
+    }
+
+    // Getters for a snapshot, the returned lists are read-only
+    public List<Book> getBooks() {
+        return Collections.unmodifiableList(books);
+    }
+
+    public List<Member> getMembers() {
+        return Collections.unmodifiableList(members);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Writes the snapshot to the given file in the compressed block format (see SnapshotFile).
+     * The data is first written and flushed to a temporary file in the same directory, which is then
+     * atomically renamed over the target, so readers only ever see the old file or the complete new one.
+     *
+     * @param file  The file to write the snapshot to.
+     * @throws IOException  If an I/O error occurs during file operations.
+     */
+    public void writeTo(Path file) throws IOException {
+        Path target = file.toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        // write the blocks to the temporary file, SnapshotFile forces them to disk before returning
+        SnapshotFile.write(temp, books, members);
+
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            // some file systems can't rename atomically, fall back to a plain replace
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
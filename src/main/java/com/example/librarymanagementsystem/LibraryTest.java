@@ -7,10 +7,32 @@
 
 package com.example.librarymanagementsystem;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Field;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
 /**
  * Test class to validate the functionality of the Library Management System (LMS) application.
@@ -67,6 +89,32 @@ public class LibraryTest {
         testDeleteBook(library);
         testDeleteMember(library);
         testSearchBooks(library);
+        testSnapshotSave();
+        testSnapshotCorruption();
+        testShardedLibrary();
+        testReplication();
+        testCatalogImport();
+        testExport();
+        testSearchCache();
+        testRankedSearch();
+        testPagination();
+        testFuzzySearch();
+        testMemberSearch();
+        testRemoveMembers();
+        testTombstones();
+        testEventStream();
+        testReadViews();
+        testCopies();
+        testConsortium();
+        testCli();
+        testLoadGenerator();
+        testHeapFootprint();
+        testCompactBook();
+        testSuggestions();
+        testSearchKeys();
+        testParallelScan();
+        testCopyLoanViews();
+        testRemoveLentBook();
 
         // Display test results summary
         System.out.println("\n--- Test Results ---");
@@ -235,4 +283,1093 @@ public class LibraryTest {
             assert results.get(0).getTitle().contains("Book 1");
         });
     }
+
+    // Tests that a snapshot isn't changed by later borrows and can be saved and loaded again
+    private static void testSnapshotSave() {
+        runTest("Snapshot Save", () -> {
+            File file = new File("snapshot_test.dat");
+            Library source = new Library(file.getPath());
+            source.addBook(new Book("Snapshot Book", "Snapshot Author", "SNAP1"));
+            source.addMember(new Member("Snapshot Member", "MEMSNAP"));
+
+            LibrarySnapshot snapshot = source.snapshot();
+            source.borrowBook("SNAP1", "MEMSNAP"); // change the library after the snapshot was taken
+            assert snapshot.getBooks().get(0).isAvailable();
+            assert snapshot.getMembers().get(0).getBorrowedBooks().isEmpty();
+
+            try {
+                snapshot.writeTo(file.toPath());
+                Library loaded = new Library(file.getPath());
+                loaded.loadData();
+                assert loaded.getBookList().size() == 1 && loaded.getBookList().get(0).isAvailable();
+            } catch (Exception e) {
+                throw new AssertionError(e.getMessage());
+            } finally {
+                file.delete();
+            }
+        });
+    }
+
+    // Tests that a damaged block in a snapshot file is detected and reported on its own
+    private static void testSnapshotCorruption() {
+        runTest("Snapshot Corruption", () -> {
+            File file = new File("corrupt_test.dat");
+            try {
+                List<Book> books = new ArrayList<>();
+                for (int i = 0; i < 3000; i++) { // enough books for several blocks
+                    books.add(new Book("Corrupt Book " + i, "Author " + i, "C" + i));
+                }
+                SnapshotFile.write(file.toPath(), books, List.of());
+                assert SnapshotFile.verify(file.toPath()).isEmpty();
+                assert SnapshotFile.read(file.toPath()).getBooks().size() == 3000;
+
+                // flip a byte just after the header, inside the first block
+                try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                    raf.seek(20);
+                    int value = raf.read();
+                    raf.seek(20);
+                    raf.write(value ^ 0xFF);
+                }
+                assert SnapshotFile.verify(file.toPath()).equals(List.of(0));
+            } catch (Exception e) {
+                throw new AssertionError(e.getMessage());
+            } finally {
+                file.delete();
+            }
+        });
+    }
+
+    // Tests searching, borrowing and the borrow limit when books and members are spread over several shards
+    private static void testShardedLibrary() {
+        runTest("Sharded Library", () -> {
+            try (ShardedLibrary sharded = new ShardedLibrary(4, "sharded_test")) {
+                for (int i = 1; i <= 8; i++) {
+                    sharded.addBook(new Book("Shard Book " + i, "Shard Author", "SH" + i));
+                }
+                sharded.addMember(new Member("Shard Member", "MEMSHARD"));
+
+                assert sharded.searchBooks("shard book").size() == 8;
+                boolean borrowed = sharded.borrowBook("SH1", "MEMSHARD")
+                        & sharded.borrowBook("SH2", "MEMSHARD")
+                        & sharded.borrowBook("SH3", "MEMSHARD");
+                boolean overLimit = sharded.borrowBook("SH4", "MEMSHARD"); // borrow limit is checked on the member's shard
+                assert borrowed && !overLimit;
+
+                boolean returned = sharded.returnBook("SH2", "MEMSHARD");
+                boolean borrowedAfterReturn = sharded.borrowBook("SH4", "MEMSHARD");
+                boolean unknownMember = sharded.borrowBook("SH5", "NOBODY");
+                assert returned && borrowedAfterReturn && !unknownMember;
+                assert sharded.shardForBook("SH5").searchBooks("SH5").get(0).isAvailable();
+            }
+
+            // with one shard every book is on its member's shard, and each loan and return is published once
+            try (ShardedLibrary single = new ShardedLibrary(1, "sharded_single_test")) {
+                single.addBook(new Book("Single Shard Book", "Shard Author", "SH9"));
+                single.addMember(new Member("Single Shard Member", "MEMSINGLE"));
+                List<LibraryEvent.Type> events = new ArrayList<>();
+                single.getShard(0).addEventListener(event -> events.add(event.getType()));
+                boolean borrowed = single.borrowBook("SH9", "MEMSINGLE");
+                boolean returned = single.returnBook("SH9", null);
+                assert borrowed && returned;
+                assert events.equals(List.of(LibraryEvent.Type.BORROWED, LibraryEvent.Type.RETURNED)) : events;
+                assert single.shardForMember("MEMSINGLE").getMember("MEMSINGLE").getBorrowedBooks().isEmpty();
+            }
+        });
+    }
+
+    // Tests that a follower receives changes from a leader, and catches up from a snapshot after falling behind
+    private static void testReplication() {
+        runTest("Replication", () -> {
+            Library leaderLibrary = new Library("replication_test.dat");
+            leaderLibrary.addBook(new Book("Before Leader", "Replica Author", "REP0")); // only reaches followers by snapshot
+            try (ReplicationLeader leader = new ReplicationLeader(leaderLibrary, 0, 16);
+                 ReplicationFollower follower = new ReplicationFollower(new Library(), "localhost", leader.getPort())) {
+                follower.start();
+                leaderLibrary.addMember(new Member("Replica Member", "MEMREP"));
+                leaderLibrary.addBook(new Book("Replica Book", "Replica Author", "REP1"));
+                leaderLibrary.borrowBook("REP1", "MEMREP");
+
+                boolean caughtUp = follower.awaitSequence(leaderLibrary.getEventSequence(), Duration.ofSeconds(5));
+                assert caughtUp;
+                assert follower.searchBooks("replica author", Duration.ofSeconds(5)).size() == 2;
+                assert follower.getActiveLoans(Duration.ofSeconds(5)).size() == 1;
+
+                // a second follower that joins after more changes than the log holds starts from a snapshot
+                for (int i = 0; i < 40; i++) {
+                    leaderLibrary.addBook(new Book("Extra Book " + i, "Extra Author", "REPX" + i));
+                }
+                try (ReplicationFollower late = new ReplicationFollower(new Library(), "localhost", leader.getPort())) {
+                    late.start();
+                    boolean lateCaughtUp = late.awaitSequence(leaderLibrary.getEventSequence(), Duration.ofSeconds(5));
+                    assert lateCaughtUp;
+                    assert late.getReplica().searchBooks("extra author").size() == 40;
+                    assert late.getLagEvents() == 0;
+                }
+
+                try (ReplicationLeader empty = new ReplicationLeader(leaderLibrary, 0, 0)) {
+                    assert false : "a leader was created without room in its log, port " + empty.getPort();
+                } catch (IllegalArgumentException expected) {
+                    // the log must hold at least one event
+                }
+            } catch (Exception e) {
+                throw new AssertionError(e.getMessage());
+            }
+        });
+    }
+
+    // Tests importing a CSV catalog with quoted fields, duplicates and invalid rows
+    private static void testCatalogImport() {
+        runTest("Catalog Import", () -> {
+            File file = new File("import_test.csv");
+            try {
+                java.nio.file.Files.writeString(file.toPath(), String.join("\n",
+                        "title,author,isbn",
+                        "Import Book 1,Import Author,9000001",
+                        "\"Import Book, Second\",\"Import \"\"Quoted\"\" Author\",9000002",
+                        "Import Book 3,Import Author,9000001", // duplicate ISBN in the file
+                        "Import Book 4,Import Author,not-a-number",
+                        "Import Book 5,Import Author,111111111")); // ISBN already in the library
+                Library importLibrary = new Library();
+                importLibrary.addBook(new Book("Existing Book", "Existing Author", "111111111"));
+
+                CatalogImporter.ImportResult result = CatalogImporter.importFile(importLibrary, file.toPath(),
+                        CatalogImporter.Format.CSV);
+                assert result.imported() == 2;
+                assert result.rejected().stream().map(CatalogImporter.RejectedRow::line).toList().equals(List.of(4L, 5L, 6L));
+                assert importLibrary.searchBooks("9000002").get(0).getAuthor().equals("Import \"Quoted\" Author");
+
+                Book marc = CatalogImporter.parseMarc("020 $a978-0-261-10357-3|100 $aTolkien, J. R. R.|245 $aThe Hobbit");
+                assert marc.getISBN().equals("9780261103573") && marc.getTitle().equals("The Hobbit");
+
+                // bulk adds are reported in the order of the batch, so listeners replay them the same way
+                List<String> published = new ArrayList<>();
+                importLibrary.addEventListener(event -> published.add(event.getISBN()));
+                List<Book> batch = new ArrayList<>();
+                for (int i = 40; i > 0; i--) {
+                    batch.add(new Book("Batch Book " + i, "Batch Author", String.valueOf(9100000 + i * 7919)));
+                }
+                importLibrary.addBooks(batch);
+                assert published.equals(batch.stream().map(Book::getISBN).toList()) : published;
+            } catch (Exception e) {
+                throw new AssertionError(e.getMessage());
+            } finally {
+                file.delete();
+            }
+        });
+    }
+
+    // Tests exporting the catalog and its loans to CSV, JSON Lines and snapshot files
+    private static void testExport() {
+        runTest("Export", () -> {
+            File csv = new File("export_test.csv");
+            File jsonl = new File("export_test.jsonl");
+            File snapshot = new File("export_test.dat");
+            try {
+                Library exportLibrary = new Library();
+                exportLibrary.addBook(new Book("Export, \"Quoted\"", "Autor Ñandú", "8000001"));
+                exportLibrary.addBook(new Book("Export Book 2", "Export Author", "8000002"));
+                exportLibrary.addMember(new Member("Export Member", "EXP001"));
+                exportLibrary.borrowBook("8000002", "EXP001");
+
+                long all = CatalogExporter.export(exportLibrary, csv.toPath(), CatalogExporter.Format.CSV,
+                        CatalogExporter.ALL_BOOKS);
+                List<String> lines = java.nio.file.Files.readAllLines(csv.toPath());
+                assert all == 2 && lines.size() == 3;
+                assert lines.get(1).equals("\"Export, \"\"Quoted\"\"\",Autor Ñandú,8000001,,true,,,");
+                assert lines.get(2).startsWith("Export Book 2,Export Author,8000002,0,false,EXP001," + LocalDate.now());
+
+                long loans = CatalogExporter.export(exportLibrary, jsonl.toPath(), CatalogExporter.Format.JSONL,
+                        CatalogExporter.ACTIVE_LOANS);
+                String json = java.nio.file.Files.readString(jsonl.toPath());
+                assert loans == 1 && json.startsWith("{\"title\":\"Export Book 2\"") && json.contains("\"borrowerID\":\"EXP001\"");
+
+                CatalogExporter.export(exportLibrary, snapshot.toPath(), CatalogExporter.Format.SNAPSHOT,
+                        CatalogExporter.ALL_BOOKS);
+                LibrarySnapshot read = SnapshotFile.read(snapshot.toPath());
+                assert read.getBooks().size() == 2 && read.getMembers().size() == 1;
+
+                // a surrogate without its other half is written as '?' and doesn't hide the character after it
+                Library brokenLibrary = new Library();
+                brokenLibrary.addBook(new Book("Broken \uD800x, \uD83D\uDCDA", "Broken \uDBFFAuthor", "8000003"));
+                CatalogExporter.export(brokenLibrary, csv.toPath(), CatalogExporter.Format.CSV, CatalogExporter.ALL_BOOKS);
+                assert java.nio.file.Files.readAllLines(csv.toPath()).get(1)
+                        .startsWith("\"Broken ?x, \uD83D\uDCDA\",Broken ?Author,8000003,");
+                CatalogExporter.export(brokenLibrary, jsonl.toPath(), CatalogExporter.Format.JSONL, CatalogExporter.ALL_BOOKS);
+                assert java.nio.file.Files.readString(jsonl.toPath())
+                        .startsWith("{\"title\":\"Broken ?x, \uD83D\uDCDA\",\"author\":\"Broken ?Author\"");
+            } catch (Exception e) {
+                throw new AssertionError(e.getMessage());
+            } finally {
+                csv.delete();
+                jsonl.delete();
+                snapshot.delete();
+            }
+        });
+    }
+
+    // Tests that repeated searches hit the cache and that changes to matching books invalidate it
+    private static void testSearchCache() {
+        runTest("Search Cache", () -> {
+            Library cacheLibrary = new Library();
+            cacheLibrary.addBook(new Book("Cached Title", "Cache Author", "7000001"));
+            cacheLibrary.addBook(new Book("Other Title", "Other Author", "7000002"));
+
+            assert cacheLibrary.searchBooks("cached").size() == 1;
+            assert cacheLibrary.searchBooks("other").size() == 1;
+            assert cacheLibrary.searchBooks("cached").size() == 1;
+            assert cacheLibrary.getSearchCacheStats().hits() == 1 && cacheLibrary.getSearchCacheStats().misses() == 2;
+
+            // adding a matching book evicts only the queries it matches
+            cacheLibrary.addBook(new Book("Cached Title 2", "Cache Author", "7000003"));
+            assert cacheLibrary.getSearchCacheStats().size() == 1;
+            assert cacheLibrary.searchBooks("cached").size() == 2;
+            cacheLibrary.removeBook("7000001");
+            assert cacheLibrary.searchBooks("cached").size() == 1;
+            assert cacheLibrary.searchBooks("other").size() == 1;
+            assert cacheLibrary.getSearchCacheStats().hits() == 2;
+        });
+    }
+
+    // Tests that the top-k search lists exact ISBN and title matches before author matches
+    private static void testRankedSearch() {
+        runTest("Ranked Search", () -> {
+            Library rankedLibrary = new Library();
+            rankedLibrary.addBook(new Book("Mystery of Gold", "Ring Author", "6000001")); // author match
+            rankedLibrary.addBook(new Book("Earrings", "Someone", "6000002")); // substring
+            rankedLibrary.addBook(new Book("The Ring Cycle", "Someone", "6000003")); // whole word
+            rankedLibrary.addBook(new Book("Ring World", "Someone", "6000004")); // title prefix
+            rankedLibrary.addBook(new Book("Unrelated", "Nobody", "ring")); // exact ISBN
+
+            List<String> order = rankedLibrary.searchBooks("ring", 10).stream().map(Book::getISBN).toList();
+            assert order.equals(List.of("ring", "6000004", "6000003", "6000002", "6000001")) : order.toString();
+            assert rankedLibrary.searchBooks("ring", 2).stream().map(Book::getISBN).toList().equals(List.of("ring", "6000004"));
+            assert rankedLibrary.searchBooks("  ring ", 2).stream().map(Book::getISBN).toList().equals(List.of("ring", "6000004"));
+            assert rankedLibrary.searchBooks("nothing", 5).isEmpty();
+        });
+    }
+
+    // Tests paging through books, members and loans with continuation tokens
+    private static void testPagination() {
+        runTest("Pagination", () -> {
+            Library pagedLibrary = new Library();
+            for (int i = 9; i >= 1; i--) {
+                pagedLibrary.addBook(new Book("Paged Title " + (10 - i), "Paged Author", "500000" + i));
+            }
+            pagedLibrary.addMember(new Member("Paged Member", "PAGE01"));
+            pagedLibrary.borrowBook("5000003", "PAGE01");
+
+            // walk the ISBN listing, adding a book behind the cursor and removing one ahead of it along the way
+            List<String> isbns = new ArrayList<>();
+            Page<Book> page = pagedLibrary.pageBooks(Page.BookOrder.ISBN, null, 4);
+            isbns.addAll(page.items().stream().map(Book::getISBN).toList());
+            pagedLibrary.addBook(new Book("Paged Title 0", "Paged Author", "5000000"));
+            pagedLibrary.removeBook("5000006");
+            while (page.hasNext()) {
+                page = pagedLibrary.pageBooks(Page.BookOrder.ISBN, page.nextToken(), 4);
+                isbns.addAll(page.items().stream().map(Book::getISBN).toList());
+            }
+            assert isbns.equals(List.of("5000001", "5000002", "5000003", "5000004", "5000005", "5000007", "5000008", "5000009"))
+                    : isbns.toString();
+
+            Page<Book> byTitle = pagedLibrary.pageBooks(Page.BookOrder.TITLE, null, 2);
+            assert byTitle.items().get(0).getTitle().equals("Paged Title 0");
+            assert pagedLibrary.pageLoans(null, 10).items().size() == 1;
+            assert pagedLibrary.pageMembers(null, 10).items().get(0).getMemberID().equals("PAGE01");
+            try {
+                pagedLibrary.pageMembers(byTitle.nextToken(), 10);
+                assert false : "a book token was accepted for the member listing";
+            } catch (IllegalArgumentException expected) {
+                // tokens only work with the listing they came from
+            }
+        });
+    }
+
+    // Tests that misspelled searches find the intended books
+    private static void testFuzzySearch() {
+        runTest("Fuzzy Search", () -> {
+            Library fuzzyLibrary = new Library();
+            fuzzyLibrary.addBook(new Book("The Hobbit", "J. R. R. Tolkien", "4000001"));
+            fuzzyLibrary.addBook(new Book("The Silmarillion", "J. R. R. Tolkien", "4000002"));
+            fuzzyLibrary.addBook(new Book("Dune", "Frank Herbert", "4000003"));
+
+            assert fuzzyLibrary.searchBooks("Tolkein").isEmpty();
+            assert fuzzyLibrary.searchBooksFuzzy("Tolkein", 2, 10).size() == 2;
+            assert fuzzyLibrary.searchBooksFuzzy("hobit tolkein", 2, 10).get(0).getISBN().equals("4000001");
+            assert fuzzyLibrary.searchBooksFuzzy("Dnue", 1, 10).isEmpty(); // a swap is two edits
+            assert fuzzyLibrary.searchBooksFuzzy("Dnue", 2, 10).get(0).getISBN().equals("4000003");
+
+            // the index follows later changes
+            fuzzyLibrary.removeBook("4000001");
+            fuzzyLibrary.addBook(new Book("Dune Messiah", "Frank Herbert", "4000004"));
+            assert fuzzyLibrary.searchBooksFuzzy("hobbit", 1, 10).isEmpty();
+            assert fuzzyLibrary.searchBooksFuzzy("mesiah", 1, 10).size() == 1;
+            assert FuzzyIndex.distance("kitten", "sitting", 10) == 3;
+        });
+    }
+
+    // Tests finding members by the start of their ID or name words
+    private static void testMemberSearch() {
+        runTest("Member Search", () -> {
+            Library memberLibrary = new Library();
+            memberLibrary.addMember(new Member("John Smith", "JS100"));
+            memberLibrary.addMember(new Member("Smith, Joanna", "SJ200"));
+            memberLibrary.addMember(new Member("Mary Jones", "MJ300"));
+
+            assert memberLibrary.searchMembers("smi", 10).size() == 2;
+            assert memberLibrary.searchMembers("jo sm", 10).size() == 2;
+            assert memberLibrary.searchMembers("jones", 10).get(0).getMemberID().equals("MJ300");
+            assert memberLibrary.searchMembers("js1", 10).get(0).getName().equals("John Smith"); // ID prefix, any case
+            assert memberLibrary.searchMembers("j", 1).size() == 1;
+
+            memberLibrary.removeMember("JS100");
+            assert memberLibrary.searchMembers("john", 10).isEmpty();
+        });
+    }
+
+    // Tests removing many members at once, releasing their loans and archiving them
+    private static void testRemoveMembers() {
+        runTest("Remove Members", () -> {
+            File archive = new File("member_archive_test.dat");
+            try {
+                Library purgeLibrary = new Library();
+                for (int i = 1; i <= 4; i++) {
+                    purgeLibrary.addMember(new Member("Expired Member " + i, "EXP" + i));
+                    purgeLibrary.addBook(new Book("Purge Book " + i, "Purge Author", "300000" + i));
+                    purgeLibrary.borrowBook("300000" + i, "EXP" + i);
+                }
+                purgeLibrary.borrowBook("3000009", "EXP1"); // doesn't exist, not a loan
+
+                Library.MemberRemovalResult result = purgeLibrary.removeMembers(List.of("EXP1", "EXP2", "NOPE"), archive.toPath());
+                assert result.removed().size() == 2 && result.loansReleased() == 2;
+                assert result.notFound().equals(List.of("NOPE"));
+                assert purgeLibrary.getMemberList().size() == 2 && !purgeLibrary.containsMember("EXP1");
+                assert purgeLibrary.searchBooks("Purge Book 1").get(0).isAvailable();
+                assert !purgeLibrary.searchBooks("Purge Book 3").get(0).isAvailable();
+
+                purgeLibrary.removeMembers(List.of("EXP3"), archive.toPath()); // added to the same archive
+                List<Member> archived = SnapshotFile.read(archive.toPath()).getMembers();
+                assert archived.size() == 3 && archived.get(0).getBorrowedBooks().equals(List.of("3000001"));
+            } catch (Exception e) {
+                throw new AssertionError(e.getMessage());
+            } finally {
+                archive.delete();
+            }
+        });
+    }
+
+    // Tests that removals leave tombstones that are compacted in the background
+    private static void testTombstones() {
+        runTest("Tombstones", () -> {
+            Library tombstoneLibrary = new Library();
+            for (int i = 0; i < 100; i++) {
+                tombstoneLibrary.addBook(new Book("Tombstone Book " + i, "Tombstone Author", "20000" + (100 + i)));
+            }
+            List<Book> batch = new ArrayList<>();
+            tombstoneLibrary.copyBooks(50, batch, 10);
+            String atFifty = batch.get(0).getISBN();
+
+            // a few removals leave tombstones, so positions don't move and searches skip the removed books
+            for (int i = 0; i < 10; i++) {
+                tombstoneLibrary.removeBook("20000" + (100 + i));
+            }
+            assert tombstoneLibrary.getCompactionCount() == 0;
+            tombstoneLibrary.copyBooks(50, batch, 10);
+            assert batch.get(0).getISBN().equals(atFifty);
+            assert tombstoneLibrary.getBookList().size() == 90;
+            assert tombstoneLibrary.searchBooks("Tombstone Book 5").size() == 10; // 50 to 59, book 5 was removed
+
+            // removing more than a quarter of the books compacts the list in the background
+            for (int i = 10; i < 40; i++) {
+                tombstoneLibrary.removeBook("20000" + (100 + i));
+            }
+            long deadline = System.currentTimeMillis() + 5000;
+            while (tombstoneLibrary.getCompactionCount() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.onSpinWait();
+            }
+            assert tombstoneLibrary.getCompactionCount() == 1;
+            tombstoneLibrary.copyBooks(0, batch, 100);
+            assert batch.size() == 60 && batch.get(0).getISBN().equals("20000140");
+            tombstoneLibrary.removeBook("20000150"); // ordinals are still right after compaction
+            assert tombstoneLibrary.getBookList().size() == 59 && !tombstoneLibrary.containsBook("20000150");
+        });
+    }
+
+    // Tests that subscribers receive every change in order and that a stalled subscriber only drops its own events
+    private static void testEventStream() {
+        runTest("Event Stream", () -> {
+            Library streamLibrary = new Library();
+            List<LibraryEvent> received = new CopyOnWriteArrayList<>();
+            CountDownLatch done = new CountDownLatch(1);
+            try (LibraryEventPublisher publisher = new LibraryEventPublisher(streamLibrary, 16)) {
+                publisher.subscribe(new Flow.Subscriber<>() {
+                    private Flow.Subscription subscription;
+
+                    @Override
+                    public void onSubscribe(Flow.Subscription subscription) {
+                        this.subscription = subscription;
+                        subscription.request(1); // one event at a time
+                    }
+
+                    @Override
+                    public void onNext(LibraryEvent event) {
+                        received.add(event);
+                        subscription.request(1);
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {
+                        done.countDown();
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        done.countDown();
+                    }
+                });
+                streamLibrary.addBook(new Book("Stream Book", "Stream Author", "1000001"));
+                streamLibrary.addMember(new Member("Stream Member", "STR001"));
+                streamLibrary.borrowBook("1000001", "STR001");
+                streamLibrary.returnBook("1000001", "STR001");
+            }
+            try {
+                boolean delivered = done.await(5, TimeUnit.SECONDS);
+                assert delivered;
+            } catch (InterruptedException e) {
+                throw new AssertionError(e.getMessage());
+            }
+            assert received.stream().map(LibraryEvent::getType).toList().equals(List.of(LibraryEvent.Type.BOOK_ADDED,
+                    LibraryEvent.Type.MEMBER_ADDED, LibraryEvent.Type.BORROWED, LibraryEvent.Type.RETURNED));
+            assert received.get(3).getSequence() == 4;
+
+            // a subscriber that never requests anything only fills its own buffer, the library keeps going
+            try (LibraryEventPublisher publisher = new LibraryEventPublisher(streamLibrary, 2)) {
+                publisher.subscribe(new Flow.Subscriber<>() {
+                    @Override
+                    public void onSubscribe(Flow.Subscription subscription) {
+                    }
+
+                    @Override
+                    public void onNext(LibraryEvent event) {
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {
+                    }
+
+                    @Override
+                    public void onComplete() {
+                    }
+                });
+                for (int i = 0; i < 10; i++) {
+                    streamLibrary.addBook(new Book("Overflow Book", "Stream Author", "100010" + i));
+                }
+                assert publisher.getDroppedCount() > 0;
+            }
+        });
+    }
+
+    // Tests that read views keep a consistent state while the library changes and release old versions when closed
+    private static void testReadViews() {
+        runTest("Read Views", () -> {
+            Library mvccLibrary = new Library();
+            mvccLibrary.addBook(new Book("View Book", "View Author", "2000001"));
+            mvccLibrary.addMember(new Member("View Member", "VIEW001"));
+            assert mvccLibrary.getVersionCount() == 0; // nothing is versioned until a view is opened
+
+            try (ReadView before = mvccLibrary.openReadView()) {
+                mvccLibrary.borrowBook("2000001", "VIEW001");
+                mvccLibrary.addBook(new Book("Later Book", "View Author", "2000002"));
+                mvccLibrary.removeMember("VIEW001"); // returns nothing, removeMember keeps the loan
+                // the view still sees the library as it was when it was opened
+                assert before.findBook("2000001").isAvailable();
+                assert before.findMember("VIEW001").getBorrowedBooks().isEmpty();
+                assert before.getBooks().size() == 1;
+                assert before.findBook("2000002") == null;
+                assert before.getActiveLoans().isEmpty();
+                assert before.searchBooks("view").size() == 1;
+
+                try (ReadView after = mvccLibrary.openReadView()) {
+                    assert after.getStamp() > before.getStamp();
+                    assert !after.findBook("2000001").isAvailable();
+                    assert after.findMember("VIEW001") == null;
+                    assert after.getBooks().stream().map(Book::getISBN).toList().equals(List.of("2000001", "2000002"));
+                    assert after.getActiveLoans().size() == 1;
+                }
+                assert mvccLibrary.getVersionCount() > 3; // old versions are kept while the first view is open
+            }
+            // only the current book versions are left once no view needs the old ones, the removed member is gone
+            assert mvccLibrary.getVersionCount() == 2;
+
+            // a borrow is seen completely or not at all, even by views opened while borrows are running
+            mvccLibrary.addMember(new Member("Busy Member", "VIEW002"));
+            Thread writer = new Thread(() -> {
+                for (int i = 0; i < 200; i++) {
+                    mvccLibrary.borrowBook("2000002", "VIEW002");
+                    mvccLibrary.returnBook("2000002", "VIEW002");
+                }
+            });
+            writer.start();
+            while (writer.isAlive()) {
+                try (ReadView view = mvccLibrary.openReadView()) {
+                    boolean lent = !view.findBook("2000002").isAvailable();
+                    assert lent == view.findMember("VIEW002").getBorrowedBooks().contains("2000002");
+                }
+            }
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e.getMessage());
+            }
+            assert mvccLibrary.getVersionCount() == 3;
+
+            ReadView closed = mvccLibrary.openReadView();
+            closed.close();
+            closed.close();
+            try {
+                closed.getBooks();
+                assert false;
+            } catch (IllegalStateException expected) {
+                // a closed view can't be read
+            }
+        });
+    }
+
+    // Tests lending, returning and saving several copies of one title
+    private static void testCopies() {
+        runTest("Copies", () -> {
+            Library copyLibrary = new Library("copies_test.dat");
+            Library replica = new Library("copies_replica.dat");
+            copyLibrary.addEventListener(replica::applyEvent); // a replica applying the same changes picks the same copies
+            copyLibrary.addBook(new Book("Bestseller", "Popular Author", "3000001"));
+            boolean addedTwice = copyLibrary.addBook(new Book("Bestseller", "Popular Author", "3000001")); // still one record per title
+            boolean copiesAdded = copyLibrary.addCopies("3000001", 129); // crosses two words of the availability bitmap
+            boolean unknownCopiesAdded = copyLibrary.addCopies("3999999", 1);
+            assert !addedTwice && copiesAdded && !unknownCopiesAdded;
+            for (int i = 0; i < 131; i++) {
+                copyLibrary.addMember(new Member("Reader " + i, "COPY" + i));
+            }
+            Book title = copyLibrary.getBookList().get(0);
+            assert title.getCopyCount() == 130 && title.getAvailableCopies() == 130;
+
+            for (int i = 0; i < 130; i++) {
+                boolean borrowed = copyLibrary.borrowBook("3000001", "COPY" + i);
+                assert borrowed;
+            }
+            assert !title.hasAvailableCopy();
+            boolean borrowedPastLastCopy = copyLibrary.borrowBook("3000001", "COPY130"); // every copy is out
+            assert !borrowedPastLastCopy;
+            assert title.getLoans().size() == 130;
+            assert title.getLoans().stream() // every copy is due the same time after borrowing as the first
+                    .allMatch(loan -> loan.dueDate().equals(loan.borrowedDate().plusDays(Book.LOAN_DAYS)));
+            assert title.getBorrowerID().equals("COPY0"); // the first borrower got the first copy
+
+            // returns free the member's own copy, the next borrow gets the lowest free copy
+            boolean returned = copyLibrary.returnBook("3000001", "COPY70");
+            boolean returnedTwice = copyLibrary.returnBook("3000001", "COPY70");
+            assert returned && !returnedTwice;
+            assert !copyLibrary.getMemberList().get(70).getBorrowedBooks().contains("3000001");
+            assert title.getAvailableCopies() == 1;
+            boolean borrowedReturnedCopy = copyLibrary.borrowBook("3000001", "COPY130");
+            assert borrowedReturnedCopy;
+            assert title.getLoans().stream().anyMatch(loan -> loan.copy() == 70 && loan.borrowerID().equals("COPY130"));
+            boolean returnedAgain = copyLibrary.returnBook("3000001", "COPY130");
+            boolean borrowedSecondCopy = copyLibrary.borrowBook("3000001", "COPY5"); // a member can only have one copy of a title
+            assert returnedAgain && !borrowedSecondCopy;
+
+            // removing members puts their copies back
+            int released = copyLibrary.removeMembers(List.of("COPY0", "COPY1")).loansReleased();
+            assert released == 2;
+            assert title.isAvailable() && title.getAvailableCopies() == 3;
+
+            Book replicaTitle = replica.getBookList().get(0);
+            assert replicaTitle.getCopyCount() == 130;
+            assert replicaTitle.getLoans().equals(title.getLoans());
+
+            // copies and their loans are saved with the book
+            try {
+                copyLibrary.saveData();
+                Library reloaded = new Library("copies_test.dat");
+                reloaded.loadData();
+                assert reloaded.getBookList().get(0).getLoans().equals(title.getLoans());
+                assert reloaded.getBookList().get(0).getAvailableCopies() == 3;
+            } catch (Exception e) {
+                throw new AssertionError(e.getMessage());
+            } finally {
+                new File("copies_test.dat").delete();
+            }
+        });
+    }
+
+    // Tests that branches share one copy of each title's details and can be searched alone or together
+    private static void testConsortium() {
+        runTest("Consortium", () -> {
+            List<String> names = List.of("north", "south", "east");
+            try (Consortium consortium = new Consortium(names, "consortium_test")) {
+                consortium.addTitle("4000001", "Shared Title", "Shared Author");
+                consortium.addTitle("4000002", "North Only", "Shared Author");
+                boolean unknown = consortium.addHolding("north", "4999999", 1); // not in the shared store
+                boolean added = consortium.addHolding("north", "4000001", 2)
+                        & consortium.addHolding("south", "4000001", 1)
+                        & consortium.addHolding("south", "4000001", 1) // adds a copy to the existing holding
+                        & consortium.addHolding("north", "4000002", 1);
+                assert !unknown && added;
+
+                Book north = consortium.searchBooks("north", "4000001").get(0);
+                Book south = consortium.searchBooks("south", "4000001").get(0);
+                assert north.getTitle() == south.getTitle(); // the same string, not an equal copy
+                assert north.getCopyCount() == 2 && south.getCopyCount() == 2;
+                assert consortium.getCatalog().getStringCount() == 3;
+
+                List<Consortium.Holding> holdings = consortium.searchBooks("shared author");
+                assert holdings.stream().map(Consortium.Holding::branch).toList()
+                        .equals(List.of("north", "north", "south"));
+                assert consortium.searchBooks("east", "shared").isEmpty();
+
+                consortium.getBranch("south").addMember(new Member("South Member", "SOUTH1"));
+                boolean borrowed = consortium.getBranch("south").borrowBook("4000001", "SOUTH1");
+                assert borrowed;
+                assert north.getAvailableCopies() == 2; // loans belong to a branch
+
+                try {
+                    consortium.saveData();
+                } catch (IOException e) {
+                    throw new AssertionError(e.getMessage());
+                }
+            }
+
+            // after loading, the branches' books share the details read from the files again
+            try (Consortium reloaded = new Consortium(names, "consortium_test")) {
+                reloaded.loadData();
+                Book north = reloaded.searchBooks("north", "4000001").get(0);
+                Book south = reloaded.searchBooks("south", "4000001").get(0);
+                assert north.getAuthor() == south.getAuthor();
+                assert reloaded.getCatalog().size() == 2;
+                assert south.getAvailableCopies() == 1;
+            } catch (IOException e) {
+                throw new AssertionError(e.getMessage());
+            } finally {
+                for (String name : names) {
+                    new File("consortium_test_" + name + ".dat").delete();
+                }
+            }
+        });
+    }
+
+    // Tests running a maintenance script without the interface, including a failing command
+    private static void testCli() {
+        runTest("CLI", () -> {
+            Library cliLibrary = new Library("cli_test.dat");
+            cliLibrary.addBook(new Book("Cli Book", "Cli Author", "5000001"));
+            cliLibrary.addBook(new Book("Other Cli Book", "Cli Author", "5000002"));
+            cliLibrary.addMember(new Member("Cli Member", "CLI001"));
+            String script = String.join("\n",
+                    "# nightly job",
+                    "borrow 5000001 CLI001",
+                    "borrow 5000002 NOBODY",
+                    "export csv loans cli_loans.csv",
+                    "",
+                    "return 5000001",
+                    "purge CLI001 CLI999",
+                    "reindex",
+                    "save",
+                    "verify cli_test.dat",
+                    "shelve 5000001");
+            StringWriter out = new StringWriter();
+            StringWriter err = new StringWriter();
+            try {
+                int failures = LibraryCli.run(cliLibrary, new BufferedReader(new StringReader(script)),
+                        new PrintWriter(out), new PrintWriter(err));
+                assert failures == 2;
+                assert out.toString().lines().toList().equals(List.of(
+                        "borrowed 5000001 by CLI001",
+                        "exported 1 rows to cli_loans.csv",
+                        "returned 5000001",
+                        "purged 1 members, released 0 loans, not found: CLI999",
+                        "reindexed 2 books and 0 members",
+                        "saved cli_test.dat",
+                        "verified cli_test.dat"));
+                assert err.toString().startsWith("line 3: borrow failed");
+                assert err.toString().contains("line 11: shelve failed: unknown command");
+
+                // unexpected errors are reported for their line and the script goes on
+                err.getBuffer().setLength(0);
+                failures = LibraryCli.run(new FailingLibrary(), new BufferedReader(new StringReader("borrow 1 A\nreindex")),
+                        new PrintWriter(out), new PrintWriter(err));
+                assert failures == 1 && out.toString().endsWith("reindexed 0 books and 0 members" + System.lineSeparator());
+                assert err.toString().startsWith("line 1: borrow failed: java.lang.IllegalStateException: loan desk offline");
+            } catch (IOException e) {
+                throw new AssertionError(e.getMessage());
+            } finally {
+                new File("cli_test.dat").delete();
+                new File("cli_loans.csv").delete();
+            }
+        });
+    }
+
+    // A library whose loans fail with an unexpected error, for testing how scripts report it
+    private static class FailingLibrary extends Library {
+        private static final long serialVersionUID = 1L;
+
+        FailingLibrary() {
+            super("cli_failing_test.dat");
+        }
+
+        @Override
+        public synchronized boolean borrowBook(String ISBN, String memberID) {
+            throw new IllegalStateException("loan desk offline");
+        }
+    }
+
+    // Tests a short run of concurrent patrons and the invariant checks on a library with a broken loan
+    private static void testLoadGenerator() {
+        runTest("Load Generator", () -> {
+            Library loadLibrary = new Library("load_test.dat");
+            for (int i = 0; i < 20; i++) {
+                loadLibrary.addBook(new Book("Load Title " + i, "Load Author", String.valueOf(6000000 + i)));
+            }
+            loadLibrary.addCopies("6000000", 3);
+            try {
+                LoadGenerator.Report report = LoadGenerator.run(loadLibrary, new LoadGenerator.Config(
+                        200, Duration.ofMillis(300), Duration.ofMillis(1), new int[]{1, 4, 2, 1}, 42));
+                assert report.operations() > 0;
+                assert report.overall().count() == report.operations();
+                assert report.overall().p50Micros() <= report.overall().p999Micros();
+                assert report.limitRejections() + report.unavailable() > 0; // 200 patrons share 23 copies
+                assert report.violations().isEmpty() : report.violations();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e.getMessage());
+            }
+
+            Library broken = new Library("load_test.dat");
+            broken.addBook(new Book("Load Title", "Load Author", "6000100"));
+            Member member = new Member("Load Member", "LOADX");
+            broken.addMember(member);
+            member.borrowBook("6000100"); // on the member's record but never checked out
+            List<String> violations = LoadGenerator.checkInvariants(broken.snapshot());
+            assert violations.size() == 1 && violations.get(0).contains("LOADX") : violations;
+        });
+    }
+
+    // Tests the footprint estimate: its components, string sharing and the projection to a larger catalog
+    private static void testHeapFootprint() {
+        runTest("Heap Footprint", () -> {
+            Library footprintLibrary = new Library("footprint_test.dat");
+            String sharedAuthor = "Footprint Author";
+            for (int i = 0; i < 100; i++) {
+                footprintLibrary.addBook(new Book("Footprint Title " + i, sharedAuthor, String.valueOf(7000000 + i)));
+            }
+            footprintLibrary.addMember(new Member("Footprint Member", "FP001"));
+            footprintLibrary.borrowBook("7000000", "FP001");
+
+            HeapFootprint.Report report = footprintLibrary.estimateFootprint();
+            assert report.books() == 100 && report.members() == 1;
+            List<String> names = report.components().stream().map(HeapFootprint.Component::name).toList();
+            assert names.containsAll(List.of("Books", "Book strings", "Members", "Page index (books)", "Search cache"));
+            assert !names.contains("Fuzzy index"); // not built until the first fuzzy search
+            assert report.bytesPerBook() > 0 && report.bytesPerMember() > 0;
+            assert report.projectBytes(100, 1) == report.totalBytes();
+            assert report.projectBytes(1000, 1) > 9 * (report.totalBytes() - report.bytesPerMember());
+
+            // the shared author is only counted once, so it costs less than a different author on every book
+            Library unshared = new Library("footprint_test.dat");
+            for (int i = 0; i < 100; i++) {
+                unshared.addBook(new Book("Footprint Title " + i, "Footprint Author " + i, String.valueOf(7000000 + i)));
+            }
+            assert bytesOf(unshared.estimateFootprint(), "Book strings") > bytesOf(report, "Book strings");
+
+            try (ReadView view = footprintLibrary.openReadView()) {
+                assert view.getBooks().size() == 100;
+                assert bytesOf(footprintLibrary.estimateFootprint(), "Read view versions (books)") > 0;
+            }
+        });
+    }
+
+    // Returns the bytes of a footprint component, 0 if the report doesn't have it
+    private static long bytesOf(HeapFootprint.Report report, String name) {
+        return report.components().stream().filter(component -> component.name().equals(name))
+                .mapToLong(HeapFootprint.Component::bytes).sum();
+    }
+
+    // Tests the compact loan fields: the getters, overdue checks against a given day, and the unchanged saved form
+    private static void testCompactBook() {
+        runTest("Compact Book", () -> {
+            Book book = new Book("Compact Title", "Compact Author", "8000001");
+            LocalDate borrowed = LocalDate.of(2026, 3, 1);
+            book.setAvailable(false);
+            book.setBorrowerID("CB001");
+            book.setBorrowedDate(borrowed);
+            assert !book.isAvailable() && book.getBorrowerID().equals("CB001");
+            assert book.getBorrowedDate().equals(borrowed) && book.getDueDate().equals(borrowed.plusWeeks(1));
+            assert !book.isOverdue(borrowed.plusDays(7)) && book.isOverdue(borrowed.plusDays(8));
+            book.setDueDate(null); // replicated loans may have no due date
+            assert book.getBorrowedDate().equals(borrowed) && !book.isOverdue(borrowed.plusYears(1));
+            book.setDueDate(borrowed.plusDays(3));
+
+            // the saved form keeps the fields of earlier versions, so old and new data files can be read both ways
+            List<String> savedFields = Arrays.stream(ObjectStreamClass.lookup(Book.class).getFields())
+                    .map(ObjectStreamField::getName).sorted().toList();
+            assert savedFields.equals(List.of("ISBN", "author", "borrowCount", "borrowedDate", "borrowerID", "dueDate",
+                    "extraCopies", "isAvailable", "searchKey", "title")) : savedFields;
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                    out.writeObject(book);
+                }
+                try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                    Book copy = (Book) in.readObject();
+                    assert copy.toString().equals(book.toString());
+                    assert copy.getDueDate().equals(borrowed.plusDays(3));
+                }
+            } catch (Exception e) {
+                throw new AssertionError(e.getMessage());
+            }
+
+            book.setAvailable(true);
+            book.setBorrowerID(null);
+            book.setBorrowedDate(null);
+            assert book.getBorrowerID() == null && book.getBorrowedDate() == null && book.getDueDate() == null;
+        });
+    }
+
+    // Tests title and author suggestions: word prefixes, ranking by borrows, and incremental updates
+    private static void testSuggestions() {
+        runTest("Suggestions", () -> {
+            Library suggestLibrary = new Library("suggest_test.dat");
+            suggestLibrary.addBook(new Book("The Lord of the Rings", "J.R.R. Tolkien", "9000001"));
+            suggestLibrary.addBook(new Book("The Hobbit", "J.R.R. Tolkien", "9000002"));
+            suggestLibrary.addBook(new Book("Lord Jim", "Joseph Conrad", "9000003"));
+            suggestLibrary.addMember(new Member("Suggest Member", "SG001"));
+
+            assert suggestLibrary.suggest("lor", 8).equals(List.of("Lord Jim", "The Lord of the Rings")); // alphabetical
+            assert suggestLibrary.suggest("  OF   the R", 8).equals(List.of("The Lord of the Rings"));
+            assert suggestLibrary.suggest("tolk", 8).equals(List.of("J.R.R. Tolkien"));
+            assert suggestLibrary.suggest("lord x", 8).isEmpty() && suggestLibrary.suggest("", 8).isEmpty();
+
+            suggestLibrary.borrowBook("9000001", "SG001"); // most borrowed first
+            assert suggestLibrary.suggest("lor", 8).equals(List.of("The Lord of the Rings", "Lord Jim"));
+            assert suggestLibrary.suggest("lor", 1).equals(List.of("The Lord of the Rings"));
+            suggestLibrary.removeBook("9000003");
+            assert suggestLibrary.suggest("lor", 8).equals(List.of("The Lord of the Rings"));
+            assert suggestLibrary.suggest("conr", 8).isEmpty();
+
+            // after many changes the incremental index gives the same suggestions as one built from scratch
+            String[] words = {"red", "river", "rain", "road", "rose", "ring", "run", "realm"};
+            for (int i = 0; i < 200; i++) {
+                suggestLibrary.addBook(new Book(words[i % 8] + " " + words[(i / 8) % 8] + " " + (i % 13),
+                        "Author " + words[(i * 3) % 8], String.valueOf(9100000 + i)));
+            }
+            for (int i = 0; i < 600; i++) {
+                String ISBN = String.valueOf(9100000 + (i * 37) % 200);
+                if (!suggestLibrary.borrowBook(ISBN, "SG001")) {
+                    suggestLibrary.returnBook(ISBN, "SG001");
+                }
+                if (i % 7 == 0) {
+                    suggestLibrary.removeBook(String.valueOf(9100000 + (i * 11) % 200));
+                }
+            }
+            List<String> prefixes = List.of("r", "re", "ri", "ro", "river r", "author r", "red rain 1", "the");
+            List<List<String>> incremental = prefixes.stream().map(prefix -> suggestLibrary.suggest(prefix, 8)).toList();
+            suggestLibrary.rebuildIndexes();
+            List<List<String>> rebuilt = prefixes.stream().map(prefix -> suggestLibrary.suggest(prefix, 8)).toList();
+            assert incremental.equals(rebuilt) : incremental + " " + rebuilt;
+            assert incremental.get(0).size() == 8;
+        });
+    }
+
+    // Tests normalized search keys: accents, case and whitespace are ignored, and keys survive saving
+    private static void testSearchKeys() {
+        runTest("Search Keys", () -> {
+            assert SearchKey.normalize("  García   MÁRQUEZ ").equals("garcia marquez");
+            assert SearchKey.normalize("Straße").equals("strasse") && SearchKey.normalize("ﬁction").equals("fiction");
+            assert SearchKey.normalize(" \t ").isEmpty() && SearchKey.normalize("9780000000").equals("9780000000");
+
+            Library keyLibrary = new Library("search_key_test.dat");
+            Book solitude = new Book("Cien años de soledad", "Gabriel García Márquez", "8100001");
+            keyLibrary.addBook(solitude);
+            keyLibrary.addBook(new Book("Die Straße", "Ödön von Horváth", "8100002"));
+            keyLibrary.addMember(new Member("Zoë Ångström", "SK001"));
+
+            assert keyLibrary.searchBooks("Garcia Marquez").equals(List.of(solitude));
+            assert keyLibrary.searchBooks("  CIEN   ANOS ").equals(List.of(solitude));
+            assert keyLibrary.searchBooks("strasse").size() == 1 && keyLibrary.searchBooks("odon").size() == 1;
+            assert keyLibrary.searchBooks("marquez", 10).equals(List.of(solitude));
+            assert keyLibrary.searchBooks("8100001").equals(List.of(solitude));
+            assert keyLibrary.searchBooks("soledad\0gabriel").isEmpty(); // a query never spans two fields
+            assert keyLibrary.searchMembers("zoe angstrom", 10).size() == 1;
+            assert keyLibrary.searchMembers("sk001", 10).size() == 1;
+
+            // keys are saved with the records, and computed for records saved before they existed
+            try {
+                Member member = keyLibrary.getMember("SK001");
+                Field bookKey = Book.class.getDeclaredField("searchKey");
+                Field memberKey = Member.class.getDeclaredField("searchKey");
+                bookKey.setAccessible(true);
+                memberKey.setAccessible(true);
+                for (boolean legacy : new boolean[]{false, true}) {
+                    Book book = new Book(solitude);
+                    Member copy = new Member(member);
+                    if (legacy) {
+                        bookKey.set(book, null);
+                        memberKey.set(copy, null);
+                    }
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                        out.writeObject(book);
+                        out.writeObject(copy);
+                    }
+                    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                        assert ((Book) in.readObject()).getSearchKey().equals(solitude.getSearchKey());
+                        assert ((Member) in.readObject()).getSearchKey().equals(member.getSearchKey());
+                    }
+                }
+            } catch (Exception e) {
+                throw new AssertionError(e.getMessage());
+            }
+        });
+    }
+
+    // Tests parallel scans: same books in the same order as a sequential filter, tombstones skipped, errors rethrown
+    private static void testParallelScan() {
+        runTest("Parallel Scan", () -> {
+            Library scanLibrary = new Library("scan_test.dat");
+            scanLibrary.addMember(new Member("Scan Member", "PS001"));
+            List<Book> books = new ArrayList<>();
+            for (int i = 0; i < ParallelScan.SEQUENTIAL_THRESHOLD + 5000; i++) {
+                books.add(new Book("Scan Title " + i, "Author " + (i % 97), String.valueOf(7000000 + i)));
+            }
+            scanLibrary.addBooks(books);
+            for (int i = 0; i < books.size(); i += 101) {
+                scanLibrary.borrowBook(String.valueOf(7000000 + i), "PS001");
+            }
+            for (int i = 50; i < books.size(); i += 1000) {
+                scanLibrary.removeBook(String.valueOf(7000000 + i)); // leaves tombstones in the list
+            }
+
+            Predicate<Book> filter = book -> book.hasAvailableCopy() && book.getAuthor().endsWith(" 7");
+            assert scanLibrary.scanBooks(filter).equals(scanLibrary.getBookList().stream().filter(filter).toList());
+            Set<String> threads = ConcurrentHashMap.newKeySet();
+            List<Book> loans = scanLibrary.scanBooks(book -> {
+                threads.add(Thread.currentThread().getName());
+                return !book.isAvailable() && book.getBorrowedDate().toString().contains("-");
+            });
+            assert loans.size() == scanLibrary.getBookList().stream().filter(book -> !book.isAvailable()).count();
+            assert threads.stream().anyMatch(name -> name.startsWith("library-scan-"))
+                    || Runtime.getRuntime().availableProcessors() == 1;
+
+            // small catalogs are scanned on the calling thread
+            Library smallLibrary = new Library("scan_small_test.dat");
+            smallLibrary.addBook(new Book("Small Title", "Small Author", "7100001"));
+            threads.clear();
+            assert smallLibrary.scanBooks(book -> threads.add(Thread.currentThread().getName())).size() == 1;
+            assert threads.equals(Set.of(Thread.currentThread().getName()));
+
+            try {
+                scanLibrary.scanBooks(book -> {
+                    throw new IllegalStateException("scan failed");
+                });
+                assert false : "the filter's exception should be rethrown";
+            } catch (IllegalStateException e) {
+                assert e.getMessage().contains("scan failed"); // may be rewrapped for the calling thread
+            }
+        });
+    }
+
+    // Tests that every loan listing reports a loan on an extra copy while the first copy is on the shelf
+    private static void testCopyLoanViews() {
+        runTest("Copy Loan Views", () -> {
+            File csv = new File("copy_loans_test.csv");
+            Library loanLibrary = new Library("copy_loans_test.dat");
+            try (ReplicationLeader leader = new ReplicationLeader(loanLibrary, 0, 64);
+                 ReplicationFollower follower = new ReplicationFollower(new Library(), "localhost", leader.getPort());
+                 ReadView empty = loanLibrary.openReadView()) {
+                follower.start();
+                loanLibrary.addBook(new Book("Three Copies", "Copy Author", "3100001"));
+                loanLibrary.addCopies("3100001", 2);
+                for (String memberID : List.of("CL001", "CL002", "CL003")) {
+                    loanLibrary.addMember(new Member("Copy Reader " + memberID, memberID));
+                    boolean borrowed = loanLibrary.borrowBook("3100001", memberID);
+                    assert borrowed;
+                }
+                boolean returned = loanLibrary.returnBook("3100001", "CL001") & loanLibrary.returnBook("3100001", "CL002");
+                assert returned;
+                Book title = loanLibrary.getBook("3100001");
+                assert title.isAvailable() && title.hasCopyOnLoan(); // only copy 2 is out
+
+                assert loanLibrary.scanLoans(loan -> true).stream().map(ActiveLoan::getCopy).toList().equals(List.of(2));
+                List<ActiveLoan> page = loanLibrary.pageLoans(null, 10).items();
+                assert page.size() == 1 && page.get(0).getCopy() == 2 && page.get(0).getBorrowerID().equals("CL003");
+                try (ReadView view = loanLibrary.openReadView()) {
+                    assert view.getActiveLoans().size() == 1 && view.getActiveLoans().get(0).getCopy() == 2;
+                }
+                assert empty.getActiveLoans().isEmpty();
+                boolean caughtUp = follower.awaitSequence(loanLibrary.getEventSequence(), Duration.ofSeconds(5));
+                assert caughtUp;
+                List<ActiveLoan> replicated = follower.getActiveLoans(Duration.ofSeconds(5));
+                assert replicated.size() == 1 && replicated.get(0).getBorrowerID().equals("CL003");
+
+                // exports have a row for the copies on the shelf and one per copy on loan
+                CatalogExporter.export(loanLibrary, csv.toPath(), CatalogExporter.Format.CSV, CatalogExporter.ACTIVE_LOANS);
+                List<String> lines = java.nio.file.Files.readAllLines(csv.toPath());
+                assert lines.size() == 2 && lines.get(1).startsWith("Three Copies,Copy Author,3100001,2,false,CL003,");
+                CatalogExporter.export(loanLibrary, csv.toPath(), CatalogExporter.Format.CSV, CatalogExporter.ALL_BOOKS);
+                assert java.nio.file.Files.readAllLines(csv.toPath()).size() == 3;
+
+                // the listings follow later loans and returns of the extra copies
+                boolean borrowedFirstCopy = loanLibrary.borrowBook("3100001", "CL001");
+                assert borrowedFirstCopy;
+                assert loanLibrary.pageLoans(null, 10).items().stream().map(ActiveLoan::getCopy).sorted().toList().equals(List.of(0, 2));
+                boolean returnedExtraCopy = loanLibrary.returnBook("3100001", "CL003");
+                assert returnedExtraCopy;
+                assert loanLibrary.pageLoans(null, 10).items().stream().map(ActiveLoan::getCopy).toList().equals(List.of(0));
+            } catch (Exception e) {
+                throw new AssertionError(e.getMessage());
+            } finally {
+                csv.delete();
+            }
+        });
+    }
+
+    // Tests that removing a title returns every copy on loan first, also when only an extra copy is lent
+    private static void testRemoveLentBook() {
+        runTest("Remove Lent Book", () -> {
+            Library lentLibrary = new Library("remove_lent_test.dat");
+            lentLibrary.addBook(new Book("Lent Title", "Lent Author", "3200001"));
+            lentLibrary.addCopies("3200001", 2);
+            for (String memberID : List.of("RL001", "RL002", "RL003")) {
+                lentLibrary.addMember(new Member("Lent Reader " + memberID, memberID));
+                lentLibrary.borrowBook("3200001", memberID);
+            }
+            lentLibrary.returnBook("3200001", "RL001");
+            lentLibrary.returnBook("3200001", "RL002"); // only copy 2 is out, copy 0 is on the shelf
+
+            List<String> events = new ArrayList<>();
+            lentLibrary.addEventListener(event -> events.add(event.getType() + " " + event.getMemberID()));
+            List<String> borrowers = lentLibrary.removeBook("3200001");
+            assert borrowers.equals(List.of("RL003"));
+            assert events.equals(List.of("RETURNED RL003", "BOOK_REMOVED null")) : events;
+            assert lentLibrary.getMember("RL003").getBorrowedBooks().isEmpty();
+            List<String> removedAgain = lentLibrary.removeBook("3200001");
+            assert removedAgain.isEmpty();
+
+            // a sharded library also clears the loan from a borrower stored on another shard
+            ShardedLibrary sharded = new ShardedLibrary(4, "remove_lent_shard_test");
+            try {
+                sharded.addBook(new Book("Sharded Title", "Lent Author", "3200002"));
+                sharded.addCopies("3200002", 3);
+                List<String> memberIDs = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    memberIDs.add("RLS00" + i);
+                    sharded.addMember(new Member("Shard Reader " + i, "RLS00" + i));
+                    boolean borrowed = sharded.borrowBook("3200002", "RLS00" + i);
+                    assert borrowed;
+                }
+                sharded.removeBook("3200002");
+                for (String memberID : memberIDs) {
+                    assert sharded.shardForMember(memberID).getMember(memberID).getBorrowedBooks().isEmpty() : memberID;
+                }
+            } finally {
+                sharded.close();
+            }
+        });
+    }
 }
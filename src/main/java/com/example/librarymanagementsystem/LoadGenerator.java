@@ -0,0 +1,364 @@
+/*
+ * Cade Mock
+ * CWID: 50350556
+ * Date (Last Updated) : 10/19/2026
+ * Email: cmock2@leomail.tamuc.edu
+ */
+
+package com.example.librarymanagementsystem;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Simulates many patrons using a library at the same time, to see how it behaves at peak hours.
+ *
+ * Every patron is a virtual thread with its own member record. It repeatedly picks an operation from a weighted mix
+ * (search, borrow, return, view loans), runs it against the library in this process, and waits for a random think
+ * time. The latency of every operation is recorded in the patron's own buffer, so the patrons don't contend on
+ * anything but the library itself. When the run ends the report gives the throughput, latency percentiles,
+ * borrows rejected because of the borrow limit, and any broken invariant: a copy lent to two members, a loan
+ * missing from the borrower's record, or a member over Member.BORROW_LIMIT.
+ *
+ * Usage: java -cp target/classes com.example.librarymanagementsystem.LoadGenerator [patrons=5000] [books=20000]
+ *        [seconds=30] [thinkMillis=50] [mix=40,25,25,10]
+ */
+public class LoadGenerator {
+    static final int LOAN_PAGE_SIZE = 50; // loans read by one view-loans operation
+
+    // The operations a patron can run
+    public enum Operation {
+        SEARCH,
+        BORROW,
+        RETURN,
+        VIEW_LOANS
+    }
+
+    /**
+     * The settings of a run.
+     *
+     * @param patrons    The number of patrons (virtual threads), each added as a member named LOAD{i} if missing.
+     * @param duration   How long the patrons keep going.
+     * @param thinkTime  The average pause between two operations of a patron (each pause is random up to twice this).
+     * @param mix        The relative weight of each operation, in Operation order (search, borrow, return, view loans).
+     * @param seed       Seeds the patrons' random choices, so runs can be repeated.
+     */
+    public record Config(int patrons, Duration duration, Duration thinkTime, int[] mix, long seed) {
+        public Config {
+            if (patrons < 1 || mix.length != Operation.values().length || Arrays.stream(mix).sum() <= 0) {
+                throw new IllegalArgumentException("A run needs at least one patron and a weight for each operation");
+            }
+            mix = mix.clone();
+        }
+    }
+
+    /**
+     * The latencies of one operation over a run.
+     *
+     * @param count        The number of times the operation ran.
+     * @param p50Micros    The median latency in microseconds.
+     * @param p99Micros    The 99th percentile latency in microseconds.
+     * @param p999Micros   The 99.9th percentile latency in microseconds.
+     * @param maxMicros    The highest latency in microseconds.
+     */
+    public record Latency(long count, long p50Micros, long p99Micros, long p999Micros, long maxMicros) {
+    }
+
+    /**
+     * The results of a run.
+     *
+     * @param operations          The number of operations run by all patrons.
+     * @param opsPerSecond        The throughput over the run.
+     * @param overall             The latencies of all operations together.
+     * @param byOperation         The latencies of each operation.
+     * @param limitRejections     Borrows rejected because the patron already had BORROW_LIMIT books.
+     * @param unavailable         Borrows rejected because no copy was free.
+     * @param violations          The broken invariants found after the run (empty if the library stayed consistent).
+     */
+    public record Report(long operations, double opsPerSecond, Latency overall, Map<Operation, Latency> byOperation,
+                         long limitRejections, long unavailable, List<String> violations) {
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(String.format("%d operations, %.0f ops/s%n", operations, opsPerSecond));
+            text.append(String.format("  %-10s %s%n", "ALL", format(overall)));
+            for (Map.Entry<Operation, Latency> entry : byOperation.entrySet()) {
+                text.append(String.format("  %-10s %s%n", entry.getKey(), format(entry.getValue())));
+            }
+            text.append("borrow-limit rejections: ").append(limitRejections)
+                    .append(", no copy available: ").append(unavailable).append(System.lineSeparator());
+            text.append("invariant violations: ").append(violations.size());
+            for (String violation : violations.stream().limit(20).toList()) {
+                text.append(System.lineSeparator()).append("  ").append(violation);
+            }
+            return text.toString();
+        }
+
+        private static String format(Latency latency) {
+            return String.format("n=%d p50=%dus p99=%dus p999=%dus max=%dus", latency.count(), latency.p50Micros(),
+                    latency.p99Micros(), latency.p999Micros(), latency.maxMicros());
+        }
+    }
+
+    private LoadGenerator() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Options look like name=value: " + arg);
+            }
+            options.put(pair[0], pair[1]);
+        }
+        int patrons = Integer.parseInt(options.getOrDefault("patrons", "5000"));
+        int books = Integer.parseInt(options.getOrDefault("books", "20000"));
+        int[] mix = Arrays.stream(options.getOrDefault("mix", "40,25,25,10").split(",")).mapToInt(Integer::parseInt).toArray();
+        Config config = new Config(patrons, Duration.ofSeconds(Long.parseLong(options.getOrDefault("seconds", "30"))),
+                Duration.ofMillis(Long.parseLong(options.getOrDefault("thinkMillis", "50"))), mix, System.nanoTime());
+
+        Library library = new Library("load_test.dat"); // never saved
+        List<Book> catalog = new ArrayList<>(books);
+        for (int i = 0; i < books; i++) {
+            catalog.add(new Book("Load Title " + i, "Load Author " + (i % 997), String.valueOf(10_000_000 + i)));
+        }
+        library.addBooks(catalog);
+        System.out.println("Running " + patrons + " patrons against " + books + " books for " + config.duration().toSeconds() + " s...");
+        System.out.println(run(library, config));
+    }
+
+    /**
+     * Runs the patrons against a library until the configured duration is over, then checks the library.
+     *
+     * @param library  The library to load, which should already have books.
+     * @param config   The settings of the run.
+     * @return         The measured results.
+     * @throws InterruptedException  If the calling thread is interrupted while the patrons run.
+     */
+    public static Report run(Library library, Config config) throws InterruptedException {
+        List<Book> books = library.getBookList();
+        if (books.isEmpty()) {
+            throw new IllegalArgumentException("The library needs books to borrow");
+        }
+        String[] isbns = new String[books.size()];
+        String[] searchWords = new String[books.size()];
+        for (int i = 0; i < isbns.length; i++) {
+            isbns[i] = books.get(i).getISBN();
+            String title = books.get(i).getTitle();
+            searchWords[i] = title.substring(title.lastIndexOf(' ') + 1); // the last word of the title
+        }
+        for (int i = 0; i < config.patrons(); i++) {
+            if (!library.containsMember("LOAD" + i)) {
+                library.addMember(new Member("Load Patron " + i, "LOAD" + i));
+            }
+        }
+
+        Patron[] patrons = new Patron[config.patrons()];
+        SplittableRandom seeds = new SplittableRandom(config.seed());
+        AtomicLong limitRejections = new AtomicLong();
+        AtomicLong unavailable = new AtomicLong();
+        long start = System.nanoTime();
+        long deadline = start + config.duration().toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < patrons.length; i++) {
+                patrons[i] = new Patron("LOAD" + i, seeds.split(), library, config, isbns, searchWords,
+                        limitRejections, unavailable);
+                executor.submit(patrons[i].loop(deadline));
+            }
+        } // waits for every patron to finish
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // merge the patrons' latency buffers per operation
+        Map<Operation, Latency> byOperation = new EnumMap<>(Operation.class);
+        List<long[]> all = new ArrayList<>();
+        long operations = 0;
+        for (Operation operation : Operation.values()) {
+            List<long[]> samples = new ArrayList<>();
+            for (Patron patron : patrons) {
+                samples.add(patron.latencies(operation));
+            }
+            long[] merged = concat(samples);
+            operations += merged.length;
+            all.add(merged);
+            byOperation.put(operation, summarize(merged));
+        }
+        return new Report(operations, operations / seconds, summarize(concat(all)), byOperation,
+                limitRejections.get(), unavailable.get(), checkInvariants(library.snapshot()));
+    }
+
+    /**
+     * Checks that every loan of a consistent copy of a library is recorded on both sides and that nobody is over
+     * the borrow limit.
+     *
+     * @param snapshot  A consistent copy of the library (see Library.snapshot()).
+     * @return          A description of every broken invariant, empty if there are none.
+     */
+    static List<String> checkInvariants(LibrarySnapshot snapshot) {
+        List<String> violations = new ArrayList<>();
+        Map<String, Member> members = new HashMap<>();
+        for (Member member : snapshot.getMembers()) {
+            members.put(member.getMemberID(), member);
+            if (member.getBorrowedBooks().size() > Member.BORROW_LIMIT) {
+                violations.add("member " + member.getMemberID() + " has " + member.getBorrowedBooks().size()
+                        + " books, over the limit of " + Member.BORROW_LIMIT);
+            }
+        }
+
+        // each member's record must match the copies lent to them, one copy per book
+        Map<String, List<String>> lentTo = new HashMap<>(); // Member ID -> ISBNs of the copies they have
+        for (Book book : snapshot.getBooks()) {
+            for (CopyLedger.Loan loan : book.getLoans()) {
+                lentTo.computeIfAbsent(loan.borrowerID(), id -> new ArrayList<>()).add(book.getISBN());
+                Member borrower = members.get(loan.borrowerID());
+                if (borrower != null && !borrower.getBorrowedBooks().contains(book.getISBN())) {
+                    violations.add("copy " + loan.copy() + " of " + book.getISBN() + " is lent to "
+                            + loan.borrowerID() + " but missing from their record");
+                }
+            }
+        }
+        for (Member member : members.values()) {
+            List<String> copies = lentTo.getOrDefault(member.getMemberID(), List.of());
+            for (String ISBN : member.getBorrowedBooks()) {
+                if (!copies.contains(ISBN)) {
+                    violations.add("member " + member.getMemberID() + " has " + ISBN
+                            + " on record but no copy is lent to them (double-borrowed or lost)");
+                }
+            }
+            if (copies.size() != copies.stream().distinct().count()) {
+                violations.add("member " + member.getMemberID() + " holds two copies of one book");
+            }
+        }
+        return violations;
+    }
+
+    // Sorts the latencies and reads the percentiles
+    private static Latency summarize(long[] nanos) {
+        if (nanos.length == 0) {
+            return new Latency(0, 0, 0, 0, 0);
+        }
+        Arrays.sort(nanos);
+        return new Latency(nanos.length, percentile(nanos, 0.50) / 1000, percentile(nanos, 0.99) / 1000,
+                percentile(nanos, 0.999) / 1000, nanos[nanos.length - 1] / 1000);
+    }
+
+    // Nearest-rank percentile of sorted values
+    private static long percentile(long[] sorted, double fraction) {
+        int rank = (int) Math.ceil(fraction * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static long[] concat(List<long[]> arrays) {
+        long[] merged = new long[arrays.stream().mapToInt(array -> array.length).sum()];
+        int offset = 0;
+        for (long[] array : arrays) {
+            System.arraycopy(array, 0, merged, offset, array.length);
+            offset += array.length;
+        }
+        return merged;
+    }
+
+    /**
+     * One simulated patron. Only its own virtual thread uses it until the run is over.
+     */
+    private static final class Patron {
+        private final String memberID;
+        private final SplittableRandom random;
+        private final Library library;
+        private final Config config;
+        private final String[] isbns;
+        private final String[] searchWords;
+        private final AtomicLong limitRejections;
+        private final AtomicLong unavailable;
+        private final List<String> loans = new ArrayList<>(); // ISBNs this patron has borrowed
+        private final long[][] latencies = new long[Operation.values().length][16]; // nanoseconds per operation
+        private final int[] counts = new int[Operation.values().length];
+        private final int totalWeight;
+
+        Patron(String memberID, SplittableRandom random, Library library, Config config, String[] isbns,
+               String[] searchWords, AtomicLong limitRejections, AtomicLong unavailable) {
+            this.memberID = memberID;
+            this.random = random;
+            this.library = library;
+            this.config = config;
+            this.isbns = isbns;
+            this.searchWords = searchWords;
+            this.limitRejections = limitRejections;
+            this.unavailable = unavailable;
+            this.totalWeight = Arrays.stream(config.mix()).sum();
+        }
+
+        // The patron's work: pick an operation, run it, think, until the deadline
+        Runnable loop(long deadline) {
+            return () -> {
+                long thinkNanos = config.thinkTime().toNanos();
+                while (System.nanoTime() < deadline) {
+                    Operation operation = pick();
+                    long start = System.nanoTime();
+                    runOperation(operation);
+                    record(operation, System.nanoTime() - start);
+                    if (thinkNanos > 0) {
+                        try {
+                            Thread.sleep(Duration.ofNanos(random.nextLong(2 * thinkNanos + 1)));
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                }
+            };
+        }
+
+        private Operation pick() {
+            int choice = random.nextInt(totalWeight);
+            for (Operation operation : Operation.values()) {
+                choice -= config.mix()[operation.ordinal()];
+                if (choice < 0) {
+                    return operation;
+                }
+            }
+            return Operation.SEARCH; // not reached, the weights add up to totalWeight
+        }
+
+        private void runOperation(Operation operation) {
+            switch (operation) {
+                case SEARCH -> library.searchBooks(searchWords[random.nextInt(searchWords.length)]);
+                case BORROW -> {
+                    String ISBN = isbns[random.nextInt(isbns.length)];
+                    if (library.borrowBook(ISBN, memberID)) {
+                        loans.add(ISBN);
+                    } else if (loans.size() >= Member.BORROW_LIMIT) {
+                        limitRejections.incrementAndGet();
+                    } else {
+                        unavailable.incrementAndGet(); // another patron has it, or this patron already does
+                    }
+                }
+                case RETURN -> {
+                    if (!loans.isEmpty()) {
+                        library.returnBook(loans.remove(random.nextInt(loans.size())), memberID);
+                    }
+                }
+                case VIEW_LOANS -> library.pageLoans(null, LOAN_PAGE_SIZE);
+            }
+        }
+
+        private void record(Operation operation, long nanos) {
+            int index = operation.ordinal();
+            if (counts[index] == latencies[index].length) {
+                latencies[index] = Arrays.copyOf(latencies[index], counts[index] * 2);
+            }
+            latencies[index][counts[index]++] = nanos;
+        }
+
+        long[] latencies(Operation operation) {
+            return Arrays.copyOf(latencies[operation.ordinal()], counts[operation.ordinal()]);
+        }
+    }
+}
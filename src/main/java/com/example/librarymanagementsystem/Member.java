@@ -7,6 +7,8 @@
 
 package com.example.librarymanagementsystem;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 
@@ -18,21 +20,35 @@ import java.util.ArrayList;
  * - Name: The name of the member.
  * - Member ID: A unique identifier for the member.
  * - Borrowed Books: A list of ISBNs representing the books currently borrowed by the member.
+ * - Search Key: The name and Member ID normalized for searching (see SearchKey), computed once and saved.
  *
  * This class is used to manage and track the details and borrowing activity of members in the library system.
  */
 public class Member implements Serializable {
+    private static final long serialVersionUID = 7086559520930530391L; // keeps existing library_data.dat files readable
+
     private String name;
     private String memberID;
     private ArrayList<String> borrowedBooks;
+    private String searchKey; // SearchKey of the name and Member ID, missing from files saved before it was added
+    transient int ordinal; // position in the owning library's member list, maintained by Library
 
-    private static final int BORROW_LIMIT = 3; // Limit on books a member can borrow
+    static final int BORROW_LIMIT = 3; // Limit on books a member can borrow
 
     // Constructor to initialize a member with a name and ID
     public Member(String name, String memberID) {
         this.name = name;
         this.memberID = memberID;
         this.borrowedBooks = new ArrayList<>();
+        this.searchKey = SearchKey.of(name, memberID);
+    }
+
+    // Copy constructor used when taking a snapshot of the library, copies the borrowed books list as well
+    public Member(Member other) {
+        this.name = other.name;
+        this.memberID = other.memberID;
+        this.borrowedBooks = new ArrayList<>(other.borrowedBooks);
+        this.searchKey = other.searchKey;
     }
 
     // Getters and Setters for a Member object
@@ -48,6 +64,11 @@ public class Member implements Serializable {
         return borrowedBooks;
     }
 
+    // Returns the name and Member ID normalized for searching, fields in that order (see SearchKey)
+    String getSearchKey() {
+        return searchKey;
+    }
+
     // Checks if the member can borrow more books based on the borrow limit, see BORROW_LIMIT
     public boolean canBorrow() {
         return borrowedBooks.size() < BORROW_LIMIT;
@@ -68,6 +89,14 @@ public class Member implements Serializable {
     }
 
 
+    // Reads a saved member, computing the search key if the file is older than it
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (searchKey == null) {
+            searchKey = SearchKey.of(name, memberID);
+        }
+    }
+
     // Formats member details as a string for display purposes on the app
     @Override
     public String toString() {
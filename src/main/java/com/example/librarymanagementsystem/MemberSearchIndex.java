@@ -0,0 +1,123 @@
+/*
+ * Cade Mock
+ * CWID: 50350556
+ * Date (Last Updated) : 10/19/2026
+ * Email: cmock2@leomail.tamuc.edu
+ */
+
+package com.example.librarymanagementsystem;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Finds members by the start of their Member ID or of any word of their name, without looking at every member.
+ *
+ * Member IDs and name words are kept normalized (see SearchKey) in sorted maps, so all keys that start with a
+ * prefix form one contiguous range that is found in O(log n) and read in order, the same lookup a prefix trie gives.
+ * Every key ends with the exact Member ID, so IDs that differ only in case, and members with the same name,
+ * each keep their own key.
+ * The index is not thread-safe on its own, the library only uses it while holding its lock.
+ */
+class MemberSearchIndex {
+    private static final char SEPARATOR = '\0'; // between a normalized key and the Member ID, sorts before other characters
+
+    private final TreeMap<String, Member> byId = new TreeMap<>(); // normalized Member ID + ID -> member
+    private final TreeMap<String, Member> byNameWord = new TreeMap<>(); // normalized name word + ID -> member
+
+    void addMember(Member member) {
+        byId.put(SearchKey.normalize(member.getMemberID()) + SEPARATOR + member.getMemberID(), member);
+        for (String word : SearchKey.words(member.getName())) {
+            byNameWord.put(word + SEPARATOR + member.getMemberID(), member);
+        }
+    }
+
+    void removeMember(Member member) {
+        byId.remove(SearchKey.normalize(member.getMemberID()) + SEPARATOR + member.getMemberID());
+        for (String word : SearchKey.words(member.getName())) {
+            byNameWord.remove(word + SEPARATOR + member.getMemberID());
+        }
+    }
+
+    void clear() {
+        byId.clear();
+        byNameWord.clear();
+    }
+
+    // Adds the index and its normalized keys to a footprint estimate
+    void estimateFootprint(HeapFootprint footprint) {
+        long bytes = HeapFootprint.treeMap(byId.size()) + HeapFootprint.treeMap(byNameWord.size());
+        for (String key : byId.keySet()) {
+            bytes += footprint.string(key);
+        }
+        for (String key : byNameWord.keySet()) {
+            bytes += footprint.string(key);
+        }
+        footprint.add("Member search index", HeapFootprint.Scale.MEMBERS, bytes);
+    }
+
+    /**
+     * Finds members whose ID starts with the query, or whose name has a word starting with each word of the query.
+     * For example "jo sm" finds "John Smith" and "Smith, Joanna".
+     *
+     * @param query  The start of a Member ID, or the start of one or more name words, in any case.
+     * @param limit  The most members to return.
+     * @return       The matching members: ID matches in ID order, then name matches in name word order.
+     */
+    List<Member> search(String query, int limit) {
+        Set<Member> results = new LinkedHashSet<>();
+        String prefix = SearchKey.normalize(query);
+        if (prefix.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        for (Member member : withPrefix(byId, prefix).values()) {
+            if (results.size() == limit) {
+                return new ArrayList<>(results);
+            }
+            results.add(member);
+        }
+
+        // walk the matches of the first word, keeping members whose name also matches the other words
+        List<String> queryWords = SearchKey.words(prefix);
+        if (queryWords.isEmpty()) {
+            return new ArrayList<>(results);
+        }
+        for (Member member : withPrefix(byNameWord, queryWords.get(0)).values()) {
+            if (results.size() == limit) {
+                break;
+            }
+            if (queryWords.size() == 1 || matchesAllWords(member, queryWords)) {
+                results.add(member);
+            }
+        }
+        return new ArrayList<>(results);
+    }
+
+    // Checks whether every query word is the start of a different word of the member's name
+    private static boolean matchesAllWords(Member member, List<String> queryWords) {
+        List<String> nameWords = SearchKey.words(member.getName());
+        for (String queryWord : queryWords) {
+            boolean found = false;
+            for (int i = 0; i < nameWords.size() && !found; i++) {
+                if (nameWords.get(i).startsWith(queryWord)) {
+                    nameWords.remove(i); // each name word can only match one query word
+                    found = true;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Returns the entries whose key starts with the prefix
+    private static SortedMap<String, Member> withPrefix(TreeMap<String, Member> map, String prefix) {
+        return map.subMap(prefix, prefix + Character.MAX_VALUE);
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Cade Mock
+ * CWID: 50350556
+ * Date (Last Updated) : 10/19/2026
+ * Email: cmock2@leomail.tamuc.edu
+ */
+
+package com.example.librarymanagementsystem;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Keeps old versions of a library's books and members so readers can see a consistent state without the library lock
+ * (see Library.openReadView()).
+ *
+ * Every book and member has a chain of versions, newest first. Each version is an immutable copy stamped with the
+ * commit it was made in, and a removed record gets a version without state (a tombstone). The library commits under
+ * its own lock, adding the new versions first and then publishing the commit's stamp, so a reader that pins the
+ * latest published stamp sees every change of a commit or none of them. A reader follows each chain to the newest
+ * version at or before its stamp.
+ *
+ * Versions are reclaimed once no reader can reach them: a chain only keeps the newest version at or before the
+ * oldest pinned stamp, plus anything newer, and tombstones nobody can see are removed. Chains are trimmed when they
+ * are written and when a reader closes. The oldest pinned stamp never goes down, because a new reader always pins
+ * the newest commit, so a version that was reclaimed is never needed again.
+ */
+class MultiVersionStore {
+    private final VersionChains<Book> books = new VersionChains<>(Book::new);
+    private final VersionChains<Member> members = new VersionChains<>(Member::new);
+    private final TreeMap<Long, Integer> pins = new TreeMap<>(); // pinned stamp -> number of readers, guarded by itself
+    private volatile long committed; // stamp of the newest commit readers may see
+    private long nextOrder; // catalog order given to new records, only used by writers
+
+    /**
+     * Creates the store with a first version of every current book and member.
+     * Called by the library while it is locked.
+     */
+    MultiVersionStore(List<Book> bookList, List<Member> memberList) {
+        commitAll(bookList, memberList);
+    }
+
+    /**
+     * Records the current state of a book and a member changed by one commit, and makes the commit visible.
+     * A null state with a non-null key means the record was removed. Called while the library is locked.
+     */
+    void commit(String ISBN, Book book, String memberID, Member member) {
+        long stamp = committed + 1;
+        if (ISBN != null) {
+            books.put(ISBN, book, stamp, this);
+        }
+        if (memberID != null) {
+            members.put(memberID, member, stamp, this);
+        }
+        committed = stamp; // volatile write, publishes the versions above to readers
+
+        // only now can the previous versions go, a reader may have pinned the previous commit until then
+        long oldest = oldestPin();
+        if (ISBN != null) {
+            books.trim(ISBN, oldest);
+        }
+        if (memberID != null) {
+            members.trim(memberID, oldest);
+        }
+    }
+
+    /**
+     * Records every book and member in one commit, and removes the ones that aren't in the lists anymore.
+     * Used when the library's lists are replaced (loading or restoring a snapshot). Called while the library is locked.
+     */
+    void commitAll(List<Book> bookList, List<Member> memberList) {
+        long stamp = committed + 1;
+        books.putAll(bookList, Book::getISBN, stamp, this);
+        members.putAll(memberList, Member::getMemberID, stamp, this);
+        committed = stamp;
+        long oldest = oldestPin();
+        books.reclaim(oldest);
+        members.reclaim(oldest);
+    }
+
+    // Pins the newest commit for a new reader, its versions are kept until unpin() is called
+    long pin() {
+        synchronized (pins) {
+            long stamp = committed;
+            pins.merge(stamp, 1, Integer::sum);
+            return stamp;
+        }
+    }
+
+    // Releases a reader's pin and reclaims the versions nobody can see anymore
+    void unpin(long stamp) {
+        synchronized (pins) {
+            pins.computeIfPresent(stamp, (key, count) -> count > 1 ? count - 1 : null);
+        }
+        long oldest = oldestPin();
+        books.reclaim(oldest);
+        members.reclaim(oldest);
+    }
+
+    // The oldest stamp a reader still uses, or the newest commit if there are no readers
+    private long oldestPin() {
+        synchronized (pins) {
+            return pins.isEmpty() ? committed : pins.firstKey();
+        }
+    }
+
+    // Next catalog order number, so readers can list records in the order they were added
+    private long nextOrder() {
+        return nextOrder++;
+    }
+
+    // Adds the kept versions to a footprint estimate, their copies share their strings with the library's records
+    void estimateFootprint(HeapFootprint footprint) {
+        footprint.add("Read view versions (books)", HeapFootprint.Scale.BOOKS, books.estimateBytes(HeapFootprint::book));
+        footprint.add("Read view versions (members)", HeapFootprint.Scale.MEMBERS, members.estimateBytes(HeapFootprint::member));
+    }
+
+    VersionChains<Book> books() {
+        return books;
+    }
+
+    VersionChains<Member> members() {
+        return members;
+    }
+
+    /**
+     * One version of a record. A null state is a tombstone. The older link is cut when older versions are reclaimed.
+     */
+    private static final class Version<T> {
+        final long stamp;
+        final long order; // catalog order of the record, the same for all its versions
+        final T state;
+        volatile Version<T> older;
+
+        Version(long stamp, long order, T state, Version<T> older) {
+            this.stamp = stamp;
+            this.order = order;
+            this.state = state;
+            this.older = older;
+        }
+    }
+
+    /**
+     * The version chains of one kind of record, keyed by ISBN or Member ID.
+     */
+    static final class VersionChains<T> {
+        private final ConcurrentHashMap<String, Version<T>> heads = new ConcurrentHashMap<>();
+        private final ConcurrentLinkedQueue<String> reclaimable = new ConcurrentLinkedQueue<>(); // keys with old versions
+        private final Function<T, T> copier; // makes the immutable copy stored in a version
+
+        VersionChains(Function<T, T> copier) {
+            this.copier = copier;
+        }
+
+        // Returns the record's state as of the stamp, or null if it didn't exist then
+        T get(String key, long stamp) {
+            Version<T> version = visible(heads.get(key), stamp);
+            return version == null ? null : version.state;
+        }
+
+        // Returns every record that existed as of the stamp, in the order they were added to the library
+        List<T> all(long stamp) {
+            List<Version<T>> visible = new ArrayList<>();
+            for (Version<T> head : heads.values()) {
+                Version<T> version = visible(head, stamp);
+                if (version != null && version.state != null) {
+                    visible.add(version);
+                }
+            }
+            visible.sort(Comparator.comparingLong(version -> version.order));
+            List<T> states = new ArrayList<>(visible.size());
+            for (Version<T> version : visible) {
+                states.add(version.state);
+            }
+            return states;
+        }
+
+        // Returns the number of versions kept, including tombstones
+        int versionCount() {
+            int count = 0;
+            for (Version<T> head : heads.values()) {
+                for (Version<T> version = head; version != null; version = version.older) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        // Estimates the bytes of the chains, sizing each stored copy with the function
+        long estimateBytes(ToLongFunction<T> stateBytes) {
+            long bytes = HeapFootprint.concurrentHashMap(heads.size()) + reclaimable.size() * HeapFootprint.object(2, 0);
+            for (Version<T> head : heads.values()) {
+                for (Version<T> version = head; version != null; version = version.older) {
+                    bytes += HeapFootprint.object(2, 16) + (version.state == null ? 0 : stateBytes.applyAsLong(version.state));
+                }
+            }
+            return bytes;
+        }
+
+        // Adds a new version, the chain is trimmed by the caller once the version is published
+        private void put(String key, T state, long stamp, MultiVersionStore store) {
+            Version<T> head = heads.get(key);
+            long order = head == null ? store.nextOrder() : head.order;
+            heads.put(key, new Version<>(stamp, order, state == null ? null : copier.apply(state), head));
+        }
+
+        // Adds a version of every record, and a tombstone for every record not in the list, to be trimmed by reclaim()
+        private void putAll(List<T> states, Function<T, String> keyOf, long stamp, MultiVersionStore store) {
+            Set<String> present = new HashSet<>();
+            for (T state : states) {
+                String key = keyOf.apply(state);
+                present.add(key);
+                put(key, state, stamp, store);
+                reclaimable.add(key);
+            }
+            for (Map.Entry<String, Version<T>> entry : heads.entrySet()) {
+                if (!present.contains(entry.getKey()) && entry.getValue().state != null) {
+                    put(entry.getKey(), null, stamp, store); // no longer in the library
+                    reclaimable.add(entry.getKey());
+                }
+            }
+        }
+
+        // Trims every chain that had old versions, called when the oldest pinned stamp may have moved
+        private void reclaim(long oldest) {
+            for (int i = reclaimable.size(); i > 0; i--) {
+                String key = reclaimable.poll();
+                if (key == null) {
+                    break;
+                }
+                trim(key, oldest);
+            }
+        }
+
+        /**
+         * Drops the versions of a chain that no reader can reach: everything older than the newest version at or
+         * before the oldest pin. Removes the chain if that version is a tombstone and nothing newer exists.
+         */
+        private void trim(String key, long oldest) {
+            Version<T> head = heads.get(key);
+            if (head == null) {
+                return;
+            }
+            Version<T> keep = visible(head, oldest);
+            if (keep == null) {
+                reclaimable.add(key); // every version is newer than some reader, try again later
+                return;
+            }
+            keep.older = null;
+            if (keep == head && head.state == null) {
+                heads.remove(key, head); // a tombstone no reader can see past
+            } else if (keep != head) {
+                reclaimable.add(key); // newer versions are still kept for readers, check again later
+            }
+        }
+
+        // The newest version at or before the stamp
+        private static <T> Version<T> visible(Version<T> version, long stamp) {
+            while (version != null && version.stamp > stamp) {
+                version = version.older;
+            }
+            return version;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Cade Mock
+ * CWID: 50350556
+ * Date (Last Updated) : 10/19/2026
+ * Email: cmock2@leomail.tamuc.edu
+ */
+
+package com.example.librarymanagementsystem;
+
+import java.util.List;
+
+/**
+ * One page of a sorted listing of books, members or loans (see Library.pageBooks(), pageMembers() and pageLoans()).
+ *
+ * The next token is an opaque cursor that continues the listing right after the last item of this page.
+ * It stays valid while the library changes: items added after the cursor show up on later pages, and
+ * removed items are simply skipped.
+ *
+ * @param items      The items on this page, in listing order.
+ * @param nextToken  The token for the next page, or null if this is the last page.
+ * @param <T>        The type of the listed items.
+ */
+public record Page<T>(List<T> items, String nextToken) {
+    // The orders books can be listed in
+    public enum BookOrder {
+        ISBN,
+        TITLE
+    }
+
+    // Checks whether there are more items after this page
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Cade Mock
+ * CWID: 50350556
+ * Date (Last Updated) : 10/19/2026
+ * Email: cmock2@leomail.tamuc.edu
+ */
+
+package com.example.librarymanagementsystem;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Sorted indexes used to page through the library's books, members and loans.
+ *
+ * Each listing is a TreeMap from a unique sort key to the item, kept up to date as books, members and loans change,
+ * so a page is found by seeking to the key after the previous page (O(log n)) and reading the page from there.
+ * Sort keys end with the ISBN (or are the Member ID), and loan keys with the copy number after it, so items with
+ * the same title or due date still have a fixed order and a page never repeats or skips an item.
+ *
+ * Page tokens are the listing name and the last key of the page, Base64-encoded so callers treat them as opaque.
+ * The index is not thread-safe on its own, the library only uses it while holding its lock.
+ */
+class PageIndex {
+    private static final char SEPARATOR = '\0'; // between the parts of a sort key, sorts before any other character
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final TreeMap<String, Book> booksByIsbn = new TreeMap<>();
+    private final TreeMap<String, Book> booksByTitle = new TreeMap<>(); // normalized title + ISBN -> book
+    private final TreeMap<String, Member> membersById = new TreeMap<>();
+    private final TreeMap<String, ActiveLoan> loansByDueDate = new TreeMap<>(); // due date + ISBN + copy -> copy on loan
+    private final HashMap<String, List<String>> loanKeys = new HashMap<>(); // ISBN -> the keys of its copies in loansByDueDate
+
+    void addBook(Book book) {
+        booksByIsbn.put(book.getISBN(), book);
+        booksByTitle.put(titleKey(book), book);
+        updateLoan(book);
+    }
+
+    void removeBook(Book book) {
+        booksByIsbn.remove(book.getISBN());
+        booksByTitle.remove(titleKey(book));
+        removeLoans(book.getISBN());
+    }
+
+    void addMember(Member member) {
+        membersById.put(member.getMemberID(), member);
+    }
+
+    void removeMember(Member member) {
+        membersById.remove(member.getMemberID());
+    }
+
+    // Puts the copies of a book that are on loan in their places in the loan listing after one was lent or returned
+    void updateLoan(Book book) {
+        removeLoans(book.getISBN());
+        List<ActiveLoan> loans = ActiveLoan.of(book);
+        if (loans.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(loans.size());
+        for (ActiveLoan loan : loans) {
+            // loans without a due date (such as replicated loans) are listed first, the copy number is zero-padded
+            // so copies sort by number
+            String key = (loan.getDueDate() == null ? "" : loan.getDueDate().toString()) + SEPARATOR + book.getISBN()
+                    + SEPARATOR + String.format("%010d", loan.getCopy());
+            loansByDueDate.put(key, loan);
+            keys.add(key);
+        }
+        loanKeys.put(book.getISBN(), keys);
+    }
+
+    private void removeLoans(String ISBN) {
+        List<String> keys = loanKeys.remove(ISBN);
+        if (keys != null) {
+            for (String key : keys) {
+                loansByDueDate.remove(key);
+            }
+        }
+    }
+
+    // Rebuilds every listing from the book and member lists
+    void rebuild(List<Book> books, List<Member> members) {
+        booksByIsbn.clear();
+        booksByTitle.clear();
+        membersById.clear();
+        loansByDueDate.clear();
+        loanKeys.clear();
+        for (Book book : books) {
+            addBook(book);
+        }
+        for (Member member : members) {
+            addMember(member);
+        }
+    }
+
+    // Adds the listings to a footprint estimate, the keys that aren't ISBNs or Member IDs are strings of their own
+    void estimateFootprint(HeapFootprint footprint) {
+        long bookBytes = HeapFootprint.treeMap(booksByIsbn.size()) + HeapFootprint.treeMap(booksByTitle.size())
+                + HeapFootprint.treeMap(loansByDueDate.size()) + HeapFootprint.hashMap(loanKeys.size());
+        for (String key : booksByTitle.keySet()) {
+            bookBytes += footprint.string(key);
+        }
+        for (Map.Entry<String, ActiveLoan> entry : loansByDueDate.entrySet()) {
+            CopyLedger.Loan loan = entry.getValue().loan();
+            bookBytes += footprint.string(entry.getKey()) + HeapFootprint.object(2, 0) // the ActiveLoan
+                    + HeapFootprint.object(3, 4) + HeapFootprint.localDate(loan.borrowedDate())
+                    + HeapFootprint.localDate(loan.dueDate()); // and its Loan
+        }
+        for (List<String> keys : loanKeys.values()) {
+            bookBytes += HeapFootprint.arrayList(keys.size());
+        }
+        footprint.add("Page index (books)", HeapFootprint.Scale.BOOKS, bookBytes);
+        footprint.add("Page index (members)", HeapFootprint.Scale.MEMBERS, HeapFootprint.treeMap(membersById.size()));
+    }
+
+    Page<Book> books(Page.BookOrder order, String token, int size) {
+        return page(order == Page.BookOrder.ISBN ? booksByIsbn : booksByTitle, "books-" + order, token, size);
+    }
+
+    Page<Member> members(String token, int size) {
+        return page(membersById, "members", token, size);
+    }
+
+    Page<ActiveLoan> loans(String token, int size) {
+        return page(loansByDueDate, "loans", token, size);
+    }
+
+    // Reads one page of a listing, starting after the key in the token (or at the start if the token is null)
+    private static <T> Page<T> page(TreeMap<String, T> listing, String name, String token, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        NavigableMap<String, T> rest = token == null ? listing : listing.tailMap(decode(name, token), false);
+        List<T> items = new ArrayList<>(Math.min(size, listing.size())); // the size of a tailMap view is counted one entry at a time
+        String lastKey = null;
+        for (Map.Entry<String, T> entry : rest.entrySet()) {
+            if (items.size() == size) {
+                return new Page<>(items, encode(name, lastKey)); // there is at least one more item
+            }
+            items.add(entry.getValue());
+            lastKey = entry.getKey();
+        }
+        return new Page<>(items, null);
+    }
+
+    private static String titleKey(Book book) {
+        return SearchKey.field(book.getSearchKey(), 0) + SEPARATOR + book.getISBN();
+    }
+
+    private static String encode(String name, String key) {
+        return ENCODER.encodeToString((name + SEPARATOR + key).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Returns the key in a token, checking that the token belongs to the listing it is used with
+    private static String decode(String name, String token) {
+        String text;
+        try {
+            text = new String(DECODER.decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page token");
+        }
+        if (!text.startsWith(name + SEPARATOR)) {
+            throw new IllegalArgumentException("Page token belongs to a different listing");
+        }
+        return text.substring(name.length() + 1);
+    }
+}
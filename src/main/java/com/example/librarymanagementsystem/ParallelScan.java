@@ -0,0 +1,119 @@
+/*
+ * Cade Mock
+ * CWID: 50350556
+ * Date (Last Updated) : 10/19/2026
+ * Email: cmock2@leomail.tamuc.edu
+ */
+
+package com.example.librarymanagementsystem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Filters a large list on several threads, for filters no index can answer (see Library.scanBooks()).
+ *
+ * The list is split into contiguous chunks, a few per thread so a slow chunk doesn't leave the other threads idle.
+ * Each chunk collects its matches into its own buffer, and the buffers are joined in chunk order, so the result is
+ * in list order just like a sequential filter. Lists shorter than SEQUENTIAL_THRESHOLD are filtered on the calling
+ * thread, where starting tasks would cost more than the scan.
+ *
+ * Scans run on their own pool rather than the common pool, so a long scan doesn't hold up background compactions
+ * and a busy common pool doesn't slow down scans.
+ */
+final class ParallelScan {
+    static final int SEQUENTIAL_THRESHOLD = 1 << 15; // shorter lists are filtered on the calling thread
+    static final int MIN_CHUNK_SIZE = 1 << 12; // smallest chunk handed to a scan thread
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+        ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        worker.setName("library-scan-" + worker.getPoolIndex());
+        return worker; // pool threads are daemon threads, so they never keep the app running
+    }, null, false);
+
+    private ParallelScan() {
+    }
+
+    /**
+     * Returns the items of a list that match a filter, in list order. The list must not change during the scan.
+     * If the filter throws, the exception is rethrown once the chunks that already started are done.
+     *
+     * @param items   The list to scan.
+     * @param filter  The filter, which may be called from several threads at once.
+     * @return        A new list of the matching items.
+     */
+    static <T> ArrayList<T> filter(List<T> items, Predicate<? super T> filter) {
+        return collect(items, (item, buffer) -> {
+            if (filter.test(item)) {
+                buffer.add(item);
+            }
+        });
+    }
+
+    /**
+     * Scans a list like filter(), but each item may add any number of results, such as one per copy on loan.
+     * The results are in list order, and the results of one item in the order it added them.
+     *
+     * @param items      The list to scan.
+     * @param collector  Adds the results of one item to a buffer, may be called from several threads at once.
+     * @return           A new list of the results.
+     */
+    static <T, R> ArrayList<R> collect(List<T> items, BiConsumer<? super T, ? super List<R>> collector) {
+        int size = items.size();
+        int threads = POOL.getParallelism();
+        if (size < SEQUENTIAL_THRESHOLD || threads == 1) {
+            return scan(items, 0, size, collector);
+        }
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, Math.ceilDiv(size, threads * CHUNKS_PER_THREAD));
+        List<ForkJoinTask<ArrayList<R>>> chunks = new ArrayList<>(Math.ceilDiv(size, chunkSize));
+        for (int from = 0; from < size; from += chunkSize) {
+            int start = from;
+            int end = Math.min(size, from + chunkSize);
+            chunks.add(POOL.submit(() -> scan(items, start, end, collector)));
+        }
+
+        ArrayList<ArrayList<R>> buffers = new ArrayList<>(chunks.size());
+        RuntimeException failure = null;
+        for (ForkJoinTask<ArrayList<R>> chunk : chunks) {
+            if (failure != null) {
+                chunk.cancel(false); // chunks that haven't started are skipped, the others are waited for below
+            }
+            try {
+                buffers.add(chunk.join());
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+
+        int results = 0;
+        for (ArrayList<R> buffer : buffers) {
+            results += buffer.size();
+        }
+        ArrayList<R> result = new ArrayList<>(results);
+        for (ArrayList<R> buffer : buffers) {
+            result.addAll(buffer);
+        }
+        return result;
+    }
+
+    // Scans one chunk of the list into its own buffer
+    private static <T, R> ArrayList<R> scan(List<T> items, int from, int to,
+                                            BiConsumer<? super T, ? super List<R>> collector) {
+        ArrayList<R> buffer = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            collector.accept(items.get(i), buffer);
+        }
+        return buffer;
+    }
+}
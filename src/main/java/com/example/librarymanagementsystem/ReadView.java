@@ -0,0 +1,95 @@
+/*
+ * Cade Mock
+ * CWID: 50350556
+ * Date (Last Updated) : 10/19/2026
+ * Email: cmock2@leomail.tamuc.edu
+ */
+
+package com.example.librarymanagementsystem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A read-only view of a library as it was at one point, opened with Library.openReadView().
+ *
+ * Reads never take the library lock and always see the same state, even while books are borrowed and returned:
+ * a borrow is seen completely (the book and the member) or not at all. The books and members returned are the
+ * view's own versions and are shared with other views, so they must not be changed.
+ * Close the view when done so the library can reclaim the versions it kept for it.
+ */
+public class ReadView implements AutoCloseable {
+    private final MultiVersionStore store;
+    private final long stamp; // the commit this view sees
+    private boolean closed;
+
+    ReadView(MultiVersionStore store) {
+        this.store = store;
+        this.stamp = store.pin();
+    }
+
+    // Returns the version this view sees, a later view of the same library never has a smaller one
+    public long getStamp() {
+        return stamp;
+    }
+
+    // Returns the books that were in the library, in the order they were added
+    public List<Book> getBooks() {
+        checkOpen();
+        return store.books().all(stamp);
+    }
+
+    // Returns the members that were in the library, in the order they were added
+    public List<Member> getMembers() {
+        checkOpen();
+        return store.members().all(stamp);
+    }
+
+    // Finds a book by its ISBN, returns null if there was no such book
+    public Book findBook(String ISBN) {
+        checkOpen();
+        return store.books().get(ISBN, stamp);
+    }
+
+    // Finds a member by their ID, returns null if there was no such member
+    public Member findMember(String memberID) {
+        checkOpen();
+        return store.members().get(memberID, stamp);
+    }
+
+    // Returns the books matching a query the same way as Library.searchBooks(String)
+    public List<Book> searchBooks(String query) {
+        String key = SearchKey.normalize(query);
+        List<Book> results = new ArrayList<>();
+        for (Book book : getBooks()) {
+            if (Library.matches(book, key)) {
+                results.add(book);
+            }
+        }
+        return results;
+    }
+
+    // Returns the copies that were on loan, one ActiveLoan per copy
+    public List<ActiveLoan> getActiveLoans() {
+        List<ActiveLoan> loans = new ArrayList<>();
+        for (Book book : getBooks()) {
+            loans.addAll(ActiveLoan.of(book));
+        }
+        return loans;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("The read view is closed");
+        }
+    }
+
+    // Releases the view, it can't be read afterwards. Closing it again does nothing
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            store.unpin(stamp);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Cade Mock
+ * CWID: 50350556
+ * Date (Last Updated) : 10/19/2026
+ * Email: cmock2@leomail.tamuc.edu
+ */
+
+package com.example.librarymanagementsystem;
+
+import java.io.*;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+
+/**
+ * Keeps a read-only replica of a library up to date by applying the events streamed by a ReplicationLeader.
+ *
+ * The follower connects to the leader, asks for the first event it hasn't applied yet and applies every event it
+ * receives to its own Library. If the connection drops, it reconnects and continues from where it stopped; if it
+ * fell too far behind, the leader sends a snapshot and the follower continues from the snapshot's sequence number.
+ *
+ * Searches and loan queries are answered from the replica with bounded staleness: the caller says how far behind
+ * the leader the answer may be, and the query fails instead of returning data older than that.
+ */
+public class ReplicationFollower implements AutoCloseable {
+    private static final long RECONNECT_MILLIS = 500; // wait between reconnect attempts
+
+    private final Library replica;
+    private final String host;
+    private final int port;
+    private final Thread thread;
+    private volatile Socket socket;
+    private volatile boolean closed;
+
+    // replication progress, only written by the follower thread
+    private volatile long appliedSequence; // sequence number of the last leader event applied to the replica
+    private volatile long leaderSequence; // newest leader sequence number the follower knows about
+    private volatile long currentAsOf; // leader time at which the replica was known to be up to date
+
+    /**
+     * Creates a follower that replicates into the given library. Call start() to connect.
+     *
+     * @param replica  The library to apply the leader's events to, it should not be changed by anything else.
+     * @param host     The leader's host name (usually "localhost").
+     * @param port     The leader's port.
+     */
+    public ReplicationFollower(Library replica, String host, int port) {
+        this.replica = replica;
+        this.host = host;
+        this.port = port;
+        this.thread = new Thread(this::run, "replication-follower");
+        this.thread.setDaemon(true);
+    }
+
+    // Starts following the leader in the background
+    public void start() {
+        thread.start();
+    }
+
+    // Getters for the replica and the replication progress
+    public Library getReplica() {
+        return replica;
+    }
+
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    // Returns how many of the leader's events the replica hasn't applied yet
+    public long getLagEvents() {
+        return Math.max(0, leaderSequence - appliedSequence);
+    }
+
+    // Returns how old the replica's data may be, compared to the leader's current state
+    public Duration getStaleness() {
+        if (currentAsOf == 0) {
+            return Duration.ofMillis(Long.MAX_VALUE); // nothing received from the leader yet
+        }
+        return Duration.ofMillis(Math.max(0, System.currentTimeMillis() - currentAsOf));
+    }
+
+    /**
+     * Searches the replica for books, see Library.searchBooks().
+     *
+     * @param query         The search string to look for in the book details.
+     * @param maxStaleness  How far behind the leader the results may be.
+     * @return              A list of books that match the search query.
+     * @throws IllegalStateException  If the replica is more than maxStaleness behind the leader.
+     */
+    public ArrayList<Book> searchBooks(String query, Duration maxStaleness) {
+        checkStaleness(maxStaleness);
+        return replica.searchBooks(query);
+    }
+
+    /**
+     * Returns the copies that are currently on loan according to the replica.
+     *
+     * @param maxStaleness  How far behind the leader the results may be.
+     * @return              One ActiveLoan per copy on loan, on copies of the replica's books.
+     * @throws IllegalStateException  If the replica is more than maxStaleness behind the leader.
+     */
+    public ArrayList<ActiveLoan> getActiveLoans(Duration maxStaleness) {
+        checkStaleness(maxStaleness);
+        ArrayList<ActiveLoan> loans = new ArrayList<>();
+        for (Book book : replica.snapshot().getBooks()) {
+            loans.addAll(ActiveLoan.of(book));
+        }
+        return loans;
+    }
+
+    /**
+     * Waits until the replica has applied the given leader sequence number, useful for reading your own writes.
+     *
+     * @param sequence  The leader sequence number to wait for.
+     * @param timeout   How long to wait.
+     * @return          True if the sequence number was applied in time, false otherwise.
+     * @throws InterruptedException  If the thread is interrupted while waiting.
+     */
+    public boolean awaitSequence(long sequence, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (this) {
+            while (appliedSequence < sequence) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                wait(Math.max(1, remaining / 1_000_000));
+            }
+        }
+        return true;
+    }
+
+    private void checkStaleness(Duration maxStaleness) {
+        Duration staleness = getStaleness();
+        if (staleness.compareTo(maxStaleness) > 0) {
+            throw new IllegalStateException("Replica is " + staleness.toMillis() + " ms behind the leader ("
+                    + getLagEvents() + " events)");
+        }
+    }
+
+    // Connects to the leader and applies its messages, reconnecting until the follower is closed
+    private void run() {
+        while (!closed) {
+            try (Socket connection = new Socket(host, port)) {
+                socket = connection;
+                DataOutputStream out = new DataOutputStream(connection.getOutputStream());
+                out.writeLong(appliedSequence + 1); // ask for the first event we haven't applied
+                out.flush();
+
+                ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(connection.getInputStream()));
+                while (!closed) {
+                    handle(in.readObject());
+                }
+            } catch (IOException | ClassNotFoundException e) {
+                if (!closed) {
+                    sleepBeforeReconnect();
+                }
+            }
+        }
+    }
+
+    // Applies one message from the leader to the replica
+    private void handle(Object message) throws IOException {
+        if (message instanceof LibraryEvent event) {
+            if (event.getSequence() != appliedSequence + 1) {
+                throw new IOException("Missing events before " + event.getSequence()); // reconnect and resume
+            }
+            replica.applyEvent(event);
+            applied(event.getSequence(), Math.max(leaderSequence, event.getSequence()), event.getTimestamp());
+        } else if (message instanceof ReplicationLeader.SnapshotMessage snapshot) {
+            replica.restoreSnapshot(new LibrarySnapshot(snapshot.books(), snapshot.members(), 0, snapshot.sequence()));
+            applied(snapshot.sequence(), Math.max(leaderSequence, snapshot.sequence()), snapshot.timestamp());
+        } else if (message instanceof ReplicationLeader.Heartbeat heartbeat) {
+            leaderSequence = Math.max(leaderSequence, heartbeat.sequence());
+            if (appliedSequence >= heartbeat.sequence()) {
+                currentAsOf = heartbeat.timestamp(); // nothing newer existed on the leader at that time
+            }
+        }
+    }
+
+    // Records replication progress and wakes up threads waiting in awaitSequence()
+    private synchronized void applied(long sequence, long latest, long asOf) {
+        appliedSequence = sequence;
+        leaderSequence = latest;
+        if (sequence >= latest) {
+            currentAsOf = Math.max(currentAsOf, asOf);
+        }
+        notifyAll();
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(RECONNECT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            closed = true;
+        }
+    }
+
+    // Disconnects from the leader and stops the follower thread
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        Socket connection = socket;
+        if (connection != null) {
+            connection.close();
+        }
+        thread.interrupt();
+    }
+}
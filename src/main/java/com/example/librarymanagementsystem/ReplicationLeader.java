@@ -0,0 +1,187 @@
+/*
+ * Cade Mock
+ * CWID: 50350556
+ * Date (Last Updated) : 10/19/2026
+ * Email: cmock2@leomail.tamuc.edu
+ */
+
+package com.example.librarymanagementsystem;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streams a library's changes to read-only replicas (see ReplicationFollower) over sockets.
+ *
+ * The leader keeps the most recent events of its library in a fixed-size log. When a follower connects, it sends
+ * the sequence number of the next event it needs:
+ * - If that event is still in the log, the leader streams the log from that point.
+ * - If the follower is too far behind (or new), the leader first sends a snapshot of the library and then streams
+ *   the events that happened after the snapshot.
+ * While there are no new events the leader sends heartbeats, so followers can tell how stale they are.
+ *
+ * Messages are written with Java serialization, the same way the library is saved to disk.
+ * The leader should be started after the library has been loaded, changes made by loadData() aren't streamed.
+ */
+public class ReplicationLeader implements AutoCloseable {
+    static final long HEARTBEAT_MILLIS = 250; // how often an idle leader tells followers it is still current
+
+    /**
+     * Sent by an idle leader to tell followers the latest sequence number at a point in time.
+     */
+    record Heartbeat(long sequence, long timestamp) implements Serializable {
+    }
+
+    /**
+     * Sent to a follower that is too far behind to catch up from the log.
+     */
+    record SnapshotMessage(ArrayList<Book> books, ArrayList<Member> members, long sequence, long timestamp)
+            implements Serializable {
+    }
+
+    private final Library library;
+    private final ServerSocket serverSocket;
+    private final LibraryEvent[] log; // ring buffer of the most recent events, indexed by sequence % length
+    private final Consumer<LibraryEvent> listener = this::append;
+    private final List<Socket> followers = new ArrayList<>();
+    private final long firstSequence; // sequence number of the first event recorded by this leader
+    private long lastSequence; // sequence number of the newest event in the log
+    private volatile boolean closed;
+
+    /**
+     * Creates a leader for a library, listening on the loopback address.
+     *
+     * @param library      The library whose changes are streamed.
+     * @param port         The port to listen on, or 0 to pick a free port (see getPort()).
+     * @param logCapacity  How many recent events are kept for followers that reconnect, at least 1.
+     * @throws IOException  If the server socket can't be opened.
+     */
+    public ReplicationLeader(Library library, int port, int logCapacity) throws IOException {
+        if (logCapacity < 1) {
+            throw new IllegalArgumentException("The replication log needs room for at least one event");
+        }
+        this.library = library;
+        this.log = new LibraryEvent[logCapacity];
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+
+        // start recording events before anything else can change the library
+        synchronized (library) {
+            lastSequence = library.getEventSequence();
+            firstSequence = lastSequence + 1;
+            library.addEventListener(listener);
+        }
+
+        Thread acceptThread = new Thread(this::acceptFollowers, "replication-leader-accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    // Returns the port followers should connect to
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    // Adds a new event to the log and wakes up the follower threads, called while the library is locked
+    private void append(LibraryEvent event) {
+        synchronized (log) {
+            log[(int) (event.getSequence() % log.length)] = event;
+            lastSequence = event.getSequence();
+            log.notifyAll();
+        }
+    }
+
+    // Accepts follower connections until the leader is closed, each follower gets its own thread
+    private void acceptFollowers() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                synchronized (followers) {
+                    followers.add(socket);
+                }
+                Thread thread = new Thread(() -> serveFollower(socket), "replication-leader-follower");
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                if (!closed) {
+                    System.out.println("Replication leader failed to accept a follower: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends events to one follower, starting from the sequence number it asks for.
+     * Runs until the follower disconnects or the leader is closed.
+     */
+    private void serveFollower(Socket socket) {
+        try (socket;
+             ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+             DataInputStream in = new DataInputStream(socket.getInputStream())) {
+            long next = in.readLong(); // the next sequence number the follower needs
+
+            while (!closed) {
+                List<LibraryEvent> batch = null;
+                long heartbeatSequence;
+                synchronized (log) {
+                    if (next == lastSequence + 1) {
+                        log.wait(HEARTBEAT_MILLIS); // the follower is up to date, wait for new events
+                    }
+                    long oldestLogged = Math.max(firstSequence, lastSequence - log.length + 1);
+                    if (next >= oldestLogged && next <= lastSequence + 1) {
+                        batch = new ArrayList<>();
+                        for (long sequence = next; sequence <= lastSequence; sequence++) {
+                            batch.add(log[(int) (sequence % log.length)]);
+                        }
+                    } // otherwise the follower is too far behind (or ahead of us) and needs a snapshot
+                    heartbeatSequence = lastSequence;
+                }
+
+                if (batch == null) {
+                    long timestamp = System.currentTimeMillis();
+                    LibrarySnapshot snapshot = library.snapshot();
+                    out.writeObject(new SnapshotMessage(new ArrayList<>(snapshot.getBooks()),
+                            new ArrayList<>(snapshot.getMembers()), snapshot.getSequence(), timestamp));
+                    next = snapshot.getSequence() + 1;
+                } else if (batch.isEmpty()) {
+                    out.writeObject(new Heartbeat(heartbeatSequence, System.currentTimeMillis()));
+                } else {
+                    for (LibraryEvent event : batch) {
+                        out.writeObject(event);
+                    }
+                    next += batch.size();
+                }
+                out.flush();
+                out.reset(); // don't let the stream keep references to every object it has sent
+            }
+        } catch (IOException e) {
+            // the follower disconnected, it will reconnect and ask for the events it is missing
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (followers) {
+                followers.remove(socket);
+            }
+        }
+    }
+
+    // Stops listening, disconnects all followers and stops recording events
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        library.removeEventListener(listener);
+        serverSocket.close();
+        synchronized (followers) {
+            for (Socket socket : followers) {
+                socket.close();
+            }
+        }
+        synchronized (log) {
+            log.notifyAll();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Cade Mock
+ * CWID: 50350556
+ * Date (Last Updated) : 10/19/2026
+ * Email: cmock2@leomail.tamuc.edu
+ */
+
+package com.example.librarymanagementsystem;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+/**
+ * Remembers the results of recent book searches so repeated searches don't scan the whole catalog.
+ *
+ * The cache holds at most a fixed number of queries and evicts the least recently used one when it is full.
+ * When a book is added or removed, only the cached queries that match that book are evicted, so searches for
+ * other titles and authors stay cached.
+ *
+ * The cache is not thread-safe on its own, the library only uses it while holding its lock.
+ */
+public class SearchCache {
+    /**
+     * Hit and miss counts of a search cache.
+     *
+     * @param hits       The number of searches answered from the cache.
+     * @param misses     The number of searches that had to scan the catalog.
+     * @param evictions  The number of cached queries dropped because the cache was full or a book changed.
+     * @param size       The number of queries currently cached.
+     */
+    public record Stats(long hits, long misses, long evictions, int size) {
+        // Returns the fraction of searches answered from the cache, or 0 if nothing was searched yet
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+    private final int capacity;
+    private final BiPredicate<Book, String> matcher; // decides whether a book matches a (normalized) query
+    private final LinkedHashMap<String, ArrayList<Book>> entries; // in access order, so the eldest is the LRU entry
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param capacity  The most queries to remember.
+     * @param matcher   The same test the search uses, used to find the cached queries a changed book affects.
+     */
+    SearchCache(int capacity, BiPredicate<Book, String> matcher) {
+        this.capacity = capacity;
+        this.matcher = matcher;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ArrayList<Book>> eldest) {
+                if (size() > SearchCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // Returns the cached results for a query, or null if it isn't cached
+    ArrayList<Book> get(String query) {
+        ArrayList<Book> results = entries.get(query);
+        if (results == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return results;
+    }
+
+    void put(String query, ArrayList<Book> results) {
+        if (capacity > 0) {
+            entries.put(query, results);
+        }
+    }
+
+    // Evicts every cached query that the given book matches, called when the book is added or removed
+    void invalidate(Book book) {
+        Iterator<String> queries = entries.keySet().iterator();
+        while (queries.hasNext()) {
+            if (matcher.test(book, queries.next())) {
+                queries.remove();
+                evictions++;
+            }
+        }
+    }
+
+    // Evicts everything, called when the book list is replaced
+    void clear() {
+        evictions += entries.size();
+        entries.clear();
+    }
+
+    Stats stats() {
+        return new Stats(hits, misses, evictions, entries.size());
+    }
+
+    // Adds the cached queries and result lists to a footprint estimate, the cache is bounded so it doesn't scale
+    void estimateFootprint(HeapFootprint footprint) {
+        long bytes = HeapFootprint.linkedHashMap(entries.size());
+        for (Map.Entry<String, ArrayList<Book>> entry : entries.entrySet()) {
+            bytes += footprint.string(entry.getKey()) + HeapFootprint.arrayList(entry.getValue().size());
+        }
+        footprint.add("Search cache", HeapFootprint.Scale.FIXED, bytes);
+    }
+}
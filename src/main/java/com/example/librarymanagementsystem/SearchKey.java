@@ -0,0 +1,152 @@
+/*
+ * Cade Mock
+ * CWID: 50350556
+ * Date (Last Updated) : 10/19/2026
+ * Email: cmock2@leomail.tamuc.edu
+ */
+
+package com.example.librarymanagementsystem;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Normalized search keys and the matcher every search uses.
+ *
+ * A key is the text with compatibility characters split up (Unicode NFKD), accents and other combining marks
+ * removed, case folded and whitespace collapsed to single spaces, so "García  Márquez" and "garcia marquez" have
+ * the same key. Books and members store a key of their searchable fields, separated by SEPARATOR, which is computed
+ * once when the record is created and saved with it. A search normalizes its query once and then only compares
+ * keys, so matching a row allocates nothing and ignores case and accents.
+ */
+final class SearchKey {
+    static final char SEPARATOR = '\0'; // between the fields of a record key, never part of a normalized query
+
+    private SearchKey() {
+    }
+
+    /**
+     * Normalizes text for searching. Text that is already normalized, such as most ISBNs and Member IDs, is
+     * returned as is.
+     *
+     * @param text  The text to normalize.
+     * @return      The text in NFKD form without combining marks, case folded, with single spaces between words.
+     */
+    static String normalize(String text) {
+        if (isNormalized(text)) {
+            return text;
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        StringBuilder key = new StringBuilder(decomposed.length());
+        boolean space = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.isWhitespace(c) || Character.isSpaceChar(c) || c == SEPARATOR) {
+                space = key.length() > 0; // leading whitespace is dropped, inner runs become one space
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK
+                    && Character.getType(c) != Character.COMBINING_SPACING_MARK
+                    && Character.getType(c) != Character.ENCLOSING_MARK) {
+                if (space) {
+                    key.append(' ');
+                    space = false;
+                }
+                key.append(c);
+            }
+        }
+        // upper then lower case folds letters like "ß" to "ss", as case-insensitive comparison of Unicode expects
+        return key.toString().toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+
+    // Splits text into normalized words of letters and digits, the terms the word indexes are built from
+    static List<String> words(String text) {
+        text = normalize(text);
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean letter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                words.add(text.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    // Joins the normalized fields of a record into its key
+    static String of(String... fields) {
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                key.append(SEPARATOR);
+            }
+            key.append(fields[i] == null ? "" : normalize(fields[i]));
+        }
+        return key.toString();
+    }
+
+    /**
+     * The shared matcher: checks whether a normalized query occurs in one of the first fields of a record key,
+     * without allocating.
+     *
+     * @param recordKey  The key of a book or member.
+     * @param query      The normalized query.
+     * @param fields     How many fields from the start to look in.
+     * @return           True if the query is part of one of those fields.
+     */
+    static boolean contains(String recordKey, String query, int fields) {
+        int at = recordKey.indexOf(query); // the query has no separator, so a match never spans two fields
+        return at >= 0 && at <= fieldEnd(recordKey, fields - 1);
+    }
+
+    // Checks whether a field of a record key is exactly the normalized query, without allocating
+    static boolean fieldEquals(String recordKey, int field, String query) {
+        int start = fieldStart(recordKey, field);
+        return fieldEnd(recordKey, field) - start == query.length() && recordKey.startsWith(query, start);
+    }
+
+    // Returns a field of a record key
+    static String field(String recordKey, int field) {
+        return recordKey.substring(fieldStart(recordKey, field), fieldEnd(recordKey, field));
+    }
+
+    // Checks whether text contains a normalized query ignoring case, without allocating, for text without a key
+    static boolean containsIgnoreCase(String text, String query) {
+        for (int i = 0; i <= text.length() - query.length(); i++) {
+            if (text.regionMatches(true, i, query, 0, query.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Index of the first character of a field
+    static int fieldStart(String recordKey, int field) {
+        int start = 0;
+        for (int i = 0; i < field; i++) {
+            start = recordKey.indexOf(SEPARATOR, start) + 1;
+        }
+        return start;
+    }
+
+    // Index just past the last character of a field
+    static int fieldEnd(String recordKey, int field) {
+        int end = recordKey.indexOf(SEPARATOR, fieldStart(recordKey, field));
+        return end < 0 ? recordKey.length() : end;
+    }
+
+    // Checks for the common case of text that normalization wouldn't change: lowercase ASCII with single spaces
+    private static boolean isNormalized(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x7F || c < ' ' || (c >= 'A' && c <= 'Z')
+                    || (c == ' ' && (i == 0 || i == text.length() - 1 || text.charAt(i - 1) == ' '))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
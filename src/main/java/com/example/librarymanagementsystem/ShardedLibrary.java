@@ -0,0 +1,224 @@
+/*
+ * Cade Mock
+ * CWID: 50350556
+ * Date (Last Updated) : 10/19/2026
+ * Email: cmock2@leomail.tamuc.edu
+ */
+
+package com.example.librarymanagementsystem;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Spreads a large library over several independent Library shards so they don't all wait on one lock.
+ *
+ * Books are assigned to a shard by the hash of their ISBN and members by the hash of their Member ID.
+ * Each shard has its own lock and its own data file, and the router sends every operation to the shard that owns it:
+ * - Searches are sent to every shard in parallel and the results are merged.
+ * - Borrowing uses a two-phase protocol: a loan slot is reserved on the member's shard (checking the borrow limit),
+ *   the book is checked out on the book's shard, and the reservation is then committed or aborted.
+ * - Returns check the book in on its shard, then remove it from the borrower's record on the member's shard.
+ * When the book and the member are on the same shard, the shard does both in one step, so each change is published
+ * once on each shard it touches.
+ *
+ * The router never holds more than one shard lock at a time, so shards can't deadlock on each other.
+ */
+public class ShardedLibrary implements AutoCloseable {
+    private final Library[] shards;
+    private final ExecutorService searchExecutor; // runs the per-shard searches in parallel
+
+    /**
+     * Creates a sharded library. Shard i is saved to "{dataFilePrefix}_shard{i}.dat".
+     *
+     * @param shardCount      The number of shards to spread books and members over.
+     * @param dataFilePrefix  The prefix of each shard's data file.
+     */
+    public ShardedLibrary(int shardCount, String dataFilePrefix) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("A sharded library needs at least one shard");
+        }
+        shards = new Library[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Library(dataFilePrefix + "_shard" + i + ".dat");
+        }
+        searchExecutor = Executors.newFixedThreadPool(shardCount, runnable -> {
+            Thread thread = new Thread(runnable, "library-shard-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Getters for the shards
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public Library getShard(int index) {
+        return shards[index];
+    }
+
+    // Returns the shard that owns the book with the given ISBN
+    public Library shardForBook(String ISBN) {
+        return shards[Math.floorMod(ISBN.hashCode(), shards.length)];
+    }
+
+    // Returns the shard that owns the member with the given ID
+    public Library shardForMember(String memberID) {
+        return shards[Math.floorMod(memberID.hashCode(), shards.length)];
+    }
+
+    // Methods to add/remove books and members, each goes to the owning shard
+    public boolean addBook(Book book) {
+        return shardForBook(book.getISBN()).addBook(book);
+    }
+
+    public boolean addCopies(String ISBN, int count) {
+        return shardForBook(ISBN).addCopies(ISBN, count);
+    }
+
+    // Removes a book from its shard and its returned loans from the borrowers' records, wherever they are stored
+    public void removeBook(String ISBN) {
+        for (String borrowerID : shardForBook(ISBN).removeBook(ISBN)) {
+            Library memberShard = shardForMember(borrowerID);
+            if (memberShard != shardForBook(ISBN)) {
+                memberShard.releaseLoan(borrowerID, ISBN);
+            }
+        }
+    }
+
+    public boolean addMember(Member member) {
+        return shardForMember(member.getMemberID()).addMember(member);
+    }
+
+    public void removeMember(String memberID) {
+        shardForMember(memberID).removeMember(memberID);
+    }
+
+    /**
+     * Lets a member borrow a book using a two-phase protocol across the member's shard and the book's shard.
+     *
+     * @param ISBN      The ISBN of the book to be borrowed.
+     * @param memberID  The ID of the member borrowing the book.
+     * @return          True if the borrowing process is successful, false otherwise.
+     */
+    public boolean borrowBook(String ISBN, String memberID) {
+        Library memberShard = shardForMember(memberID);
+        Library bookShard = shardForBook(ISBN);
+        if (memberShard == bookShard) {
+            return bookShard.borrowBook(ISBN, memberID); // one shard has both records, no need for two phases
+        }
+        // Phase 1: reserve a loan slot for the member, this fails if the member doesn't exist or is at the limit
+        if (!memberShard.reserveLoan(memberID)) {
+            return false;
+        }
+        // Phase 1 (continued): check the book out on its shard
+        if (!bookShard.checkOutBook(ISBN, memberID)) {
+            memberShard.abortLoan(memberID); // Phase 2: give the slot back, the book wasn't available
+            return false;
+        }
+        memberShard.commitLoan(memberID, ISBN); // Phase 2: record the loan on the member
+        return true;
+    }
+
+    /**
+     * Returns a book and removes it from its borrower's record, wherever the borrower is stored.
+     *
+     * @param ISBN      The ISBN of the book being returned.
+     * @param memberID  The ID of the member returning the book, only used for titles with several copies
+     *                  (see Library.returnBook).
+     * @return          True if the return process is successful, false otherwise.
+     */
+    public boolean returnBook(String ISBN, String memberID) {
+        Library bookShard = shardForBook(ISBN);
+        String borrowerID = bookShard.checkInBook(ISBN, memberID);
+        if (borrowerID == null) {
+            return false; // the book doesn't exist or isn't checked out
+        }
+        Library memberShard = shardForMember(borrowerID);
+        if (memberShard != bookShard) { // checkInBook already updated a borrower on the book's shard
+            memberShard.releaseLoan(borrowerID, ISBN);
+        }
+        return true;
+    }
+
+    /**
+     * Searches every shard in parallel and merges the results.
+     * Results are ordered by shard, then in each shard's own order.
+     *
+     * @param query  The search string to look for in the book details.
+     * @return       A list of books that match the search query.
+     */
+    public ArrayList<Book> searchBooks(String query) {
+        List<Future<ArrayList<Book>>> futures = new ArrayList<>(shards.length);
+        for (Library shard : shards) {
+            futures.add(searchExecutor.submit(() -> shard.searchBooks(query)));
+        }
+
+        ArrayList<Book> results = new ArrayList<>();
+        for (Future<ArrayList<Book>> future : futures) {
+            results.addAll(await(future));
+        }
+        return results;
+    }
+
+    /**
+     * Saves every shard to its own data file, in parallel.
+     *
+     * @throws IOException  If any shard fails to save.
+     */
+    public void saveData() throws IOException {
+        List<Future<Void>> futures = new ArrayList<>(shards.length);
+        for (Library shard : shards) {
+            futures.add(searchExecutor.submit(() -> {
+                shard.saveData();
+                return null;
+            }));
+        }
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new IOException("Failed to save shard: " + e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while saving shards");
+            }
+        }
+    }
+
+    /**
+     * Loads every shard from its own data file.
+     *
+     * @throws IOException            If an I/O error occurs during file operations.
+     * @throws ClassNotFoundException If the objects in a file cannot be deserialized.
+     */
+    public void loadData() throws IOException, ClassNotFoundException {
+        for (Library shard : shards) {
+            shard.loadData();
+        }
+    }
+
+    // Stops the search threads
+    @Override
+    public void close() {
+        searchExecutor.shutdown();
+    }
+
+    // Waits for a shard search, rethrowing failures as unchecked exceptions
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Shard search failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while searching shards", e);
+        }
+    }
+}
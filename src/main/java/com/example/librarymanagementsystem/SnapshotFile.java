@@ -0,0 +1,424 @@
+/*
+ * Cade Mock
+ * CWID: 50350556
+ * Date (Last Updated) : 10/19/2026
+ * Email: cmock2@leomail.tamuc.edu
+ */
+
+package com.example.librarymanagementsystem;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Reads and writes the block-structured snapshot format used for `library_data.dat`.
+ *
+ * File layout:
+ * - Header: the magic bytes "LMSSNAP1".
+ * - Blocks: groups of up to BLOCK_RECORDS books or members, each serialized, Deflate-compressed and checksummed.
+ * - Index footer: the kind, record count, position, sizes and CRC32C checksum of every block.
+ * - Trailer: the position of the index footer followed by the magic bytes again.
+ *
+ * Blocks are independent of each other, so they are compressed and decompressed in parallel, and a damaged block is
+ * reported on its own instead of making the whole file unreadable.
+ *
+ * Blocks are coded on their own pool rather than the common pool. Library.loadData() waits for the blocks while
+ * holding the library lock, and a block queued behind a background compaction on the common pool, which needs that
+ * lock, would never run.
+ */
+public class SnapshotFile {
+    static final int BLOCK_RECORDS = 1024; // number of books or members stored in one block
+
+    private static final byte[] MAGIC = "LMSSNAP1".getBytes(StandardCharsets.US_ASCII);
+    private static final byte KIND_BOOKS = 0;
+    private static final byte KIND_MEMBERS = 1;
+    private static final int INDEX_ENTRY_SIZE = 1 + 4 + 8 + 4 + 4 + 4; // kind, records, position, compressed, raw, crc
+    private static final int TRAILER_SIZE = 8 + MAGIC.length;
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+        ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        worker.setName("library-snapshot-" + worker.getPoolIndex());
+        return worker; // pool threads are daemon threads, so they never keep the app running
+    }, null, false);
+
+    /**
+     * Thrown when one or more blocks of a snapshot file fail their checksum or can't be decompressed.
+     */
+    public static class CorruptSnapshotException extends IOException {
+        private static final long serialVersionUID = -3158320745211983764L;
+
+        private final int[] corruptBlocks; // an array rather than a List so the exception stays serializable
+
+        CorruptSnapshotException(List<Integer> corruptBlocks) {
+            super("Snapshot file is corrupt, damaged blocks: " + corruptBlocks);
+            this.corruptBlocks = corruptBlocks.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        public List<Integer> getCorruptBlocks() {
+            return Arrays.stream(corruptBlocks).boxed().toList();
+        }
+    }
+
+    // Describes one block in the index footer
+    private record BlockInfo(byte kind, int records, long position, int compressedLength, int rawLength, int crc) {
+    }
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Checks whether a file starts with the snapshot magic bytes.
+     * Files written before this format existed contain plain serialized lists and return false.
+     *
+     * @param file  The file to check.
+     * @return      True if the file is a block-structured snapshot file.
+     * @throws IOException  If the file can't be read.
+     */
+    public static boolean isSnapshotFile(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return Arrays.equals(in.readNBytes(MAGIC.length), MAGIC);
+        }
+    }
+
+    /**
+     * Writes books and members to a snapshot file, replacing any existing file.
+     *
+     * @param file     The file to write.
+     * @param books    The books to write.
+     * @param members  The members to write.
+     * @throws IOException  If an I/O error occurs during file operations.
+     */
+    public static void write(Path file, List<Book> books, List<Member> members) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             Writer writer = new Writer(channel)) {
+            for (Book book : books) {
+                writer.addBook(book);
+            }
+            for (Member member : members) {
+                writer.addMember(member);
+            }
+            writer.finish();
+            channel.force(true); // make sure the data is on disk before the file is renamed into place
+        }
+    }
+
+    /**
+     * Reads all books and members from a snapshot file, decompressing the blocks in parallel.
+     *
+     * @param file  The file to read.
+     * @return      A snapshot holding the books and members in the order they were written.
+     * @throws CorruptSnapshotException  If any block fails its checksum or can't be decoded.
+     * @throws IOException               If the file isn't a snapshot file or can't be read.
+     */
+    public static LibrarySnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<BlockInfo> index = readIndex(channel);
+
+            // decode every block on the snapshot pool, then collect the results in file order
+            List<Future<List<?>>> results = new ArrayList<>(index.size());
+            for (BlockInfo block : index) {
+                results.add(POOL.submit(() -> decodeBlock(channel, block)));
+            }
+
+            ArrayList<Book> books = new ArrayList<>();
+            ArrayList<Member> members = new ArrayList<>();
+            List<Integer> corruptBlocks = new ArrayList<>();
+            for (int i = 0; i < index.size(); i++) {
+                try {
+                    List<?> records = results.get(i).get();
+                    for (Object record : records) {
+                        if (index.get(i).kind() == KIND_BOOKS) {
+                            books.add((Book) record);
+                        } else {
+                            members.add((Member) record);
+                        }
+                    }
+                } catch (ExecutionException e) {
+                    corruptBlocks.add(i); // keep going so every damaged block is reported at once
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while reading " + file);
+                }
+            }
+
+            if (!corruptBlocks.isEmpty()) {
+                throw new CorruptSnapshotException(corruptBlocks);
+            }
+            return new LibrarySnapshot(books, members, 0, 0);
+        }
+    }
+
+    /**
+     * Checks every block of a snapshot file without keeping the decoded records.
+     *
+     * @param file  The file to check.
+     * @return      The indexes of the blocks that failed their checksum or couldn't be decoded (empty if the file is fine).
+     * @throws IOException  If the file isn't a snapshot file or its index can't be read.
+     */
+    public static List<Integer> verify(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<BlockInfo> index = readIndex(channel);
+
+            // decode every block on the snapshot pool, each block's records are dropped as soon as it is decoded
+            List<Future<Integer>> results = new ArrayList<>(index.size());
+            for (BlockInfo block : index) {
+                results.add(POOL.submit(() -> decodeBlock(channel, block).size()));
+            }
+
+            List<Integer> corruptBlocks = new ArrayList<>();
+            for (int i = 0; i < index.size(); i++) {
+                try {
+                    results.get(i).get();
+                } catch (ExecutionException e) {
+                    corruptBlocks.add(i);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while verifying " + file);
+                }
+            }
+            return corruptBlocks;
+        }
+    }
+
+    // Reads the trailer and the index footer that describes every block in the file
+    private static List<BlockInfo> readIndex(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < MAGIC.length + 4 + TRAILER_SIZE) {
+            throw new IOException("File is too small to be a snapshot file");
+        }
+
+        ByteBuffer trailer = readFully(channel, size - TRAILER_SIZE, TRAILER_SIZE);
+        long indexPosition = trailer.getLong();
+        byte[] magic = new byte[MAGIC.length];
+        trailer.get(magic);
+        if (!Arrays.equals(magic, MAGIC) || indexPosition < MAGIC.length || indexPosition > size - TRAILER_SIZE - 4) {
+            throw new IOException("Snapshot file is truncated or has a damaged index footer");
+        }
+
+        ByteBuffer countBuffer = readFully(channel, indexPosition, 4);
+        int blockCount = countBuffer.getInt();
+        if (blockCount < 0 || (long) blockCount * INDEX_ENTRY_SIZE != size - TRAILER_SIZE - indexPosition - 4) {
+            throw new IOException("Snapshot file has a damaged index footer");
+        }
+
+        ByteBuffer entries = readFully(channel, indexPosition + 4, blockCount * INDEX_ENTRY_SIZE);
+        List<BlockInfo> index = new ArrayList<>(blockCount);
+        for (int i = 0; i < blockCount; i++) {
+            index.add(new BlockInfo(entries.get(), entries.getInt(), entries.getLong(),
+                    entries.getInt(), entries.getInt(), entries.getInt()));
+        }
+        return index;
+    }
+
+    // Reads one block, checks its checksum, then inflates and deserializes its records
+    private static List<?> decodeBlock(FileChannel channel, BlockInfo block) throws IOException, ClassNotFoundException {
+        ByteBuffer compressed = readFully(channel, block.position(), block.compressedLength());
+
+        CRC32C crc = new CRC32C();
+        crc.update(compressed.duplicate());
+        if ((int) crc.getValue() != block.crc()) {
+            throw new IOException("Checksum mismatch");
+        }
+
+        byte[] raw = new byte[block.rawLength()];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int length = 0;
+            while (length < raw.length && !inflater.finished()) {
+                int read = inflater.inflate(raw, length, raw.length - length);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Block ended early");
+                }
+                length += read;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Block can't be decompressed", e);
+        } finally {
+            inflater.end();
+        }
+
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(raw))) {
+            List<?> records = (List<?>) ois.readObject();
+            if (records.size() != block.records()) {
+                throw new IOException("Block has the wrong number of records");
+            }
+            return records;
+        }
+    }
+
+    // Reads exactly length bytes at the given position, positional reads are safe to run from several threads
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of snapshot file");
+            }
+        }
+        return buffer.flip();
+    }
+
+    // Serializes, compresses and checksums one block, runs on the snapshot pool
+    private static EncodedBlock encodeBlock(byte kind, ArrayList<?> records) throws IOException {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(raw)) {
+            oos.writeObject(records);
+        }
+        byte[] rawBytes = raw.toByteArray();
+
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(rawBytes.length / 4 + 64);
+        try {
+            deflater.setInput(rawBytes);
+            deflater.finish();
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                compressed.write(buffer, 0, length);
+            }
+        } finally {
+            deflater.end();
+        }
+        byte[] compressedBytes = compressed.toByteArray();
+
+        CRC32C crc = new CRC32C();
+        crc.update(compressedBytes);
+        return new EncodedBlock(kind, records.size(), compressedBytes, rawBytes.length, (int) crc.getValue());
+    }
+
+    // A block that has been encoded but not yet written to the file
+    private record EncodedBlock(byte kind, int records, byte[] data, int rawLength, int crc) {
+    }
+
+    /**
+     * Streams books and members into a snapshot file.
+     * Records are grouped into blocks, and full blocks are encoded on the snapshot pool while more records are
+     * added. Only a few blocks are kept in memory at a time, and blocks are written in the order they were filled.
+     */
+    public static class Writer implements Closeable {
+        private final FileChannel channel;
+        private final ArrayDeque<Future<EncodedBlock>> pending = new ArrayDeque<>();
+        private final List<BlockInfo> index = new ArrayList<>();
+        private final int maxPending = Math.max(2, POOL.getParallelism() * 2);
+        private ArrayList<Book> books = new ArrayList<>();
+        private ArrayList<Member> members = new ArrayList<>();
+        private long position;
+        private boolean finished;
+
+        /**
+         * Creates a writer and writes the file header at the channel's current position.
+         *
+         * @param channel  The channel to write to, it is not closed by the writer.
+         * @throws IOException  If the header can't be written.
+         */
+        public Writer(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.position = channel.position();
+            writeBytes(ByteBuffer.wrap(MAGIC));
+        }
+
+        // Adds a book to the current book block, starting a new block when it is full
+        public void addBook(Book book) throws IOException {
+            books.add(book);
+            if (books.size() == BLOCK_RECORDS) {
+                submit(KIND_BOOKS, books);
+                books = new ArrayList<>();
+            }
+        }
+
+        // Adds a member to the current member block, starting a new block when it is full
+        public void addMember(Member member) throws IOException {
+            members.add(member);
+            if (members.size() == BLOCK_RECORDS) {
+                submit(KIND_MEMBERS, members);
+                members = new ArrayList<>();
+            }
+        }
+
+        /**
+         * Writes the remaining partial blocks, the index footer and the trailer.
+         * No records can be added after this.
+         *
+         * @throws IOException  If a block can't be encoded or written.
+         */
+        public void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            if (!books.isEmpty()) {
+                submit(KIND_BOOKS, books);
+            }
+            if (!members.isEmpty()) {
+                submit(KIND_MEMBERS, members);
+            }
+            while (!pending.isEmpty()) {
+                writeOldest();
+            }
+
+            long indexPosition = position;
+            ByteBuffer footer = ByteBuffer.allocate(4 + index.size() * INDEX_ENTRY_SIZE + TRAILER_SIZE);
+            footer.putInt(index.size());
+            for (BlockInfo block : index) {
+                footer.put(block.kind()).putInt(block.records()).putLong(block.position())
+                        .putInt(block.compressedLength()).putInt(block.rawLength()).putInt(block.crc());
+            }
+            footer.putLong(indexPosition).put(MAGIC);
+            writeBytes(footer.flip());
+            finished = true;
+        }
+
+        // Finishes the file if finish() wasn't called, the channel itself is left open
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+
+        // Sends a full block to the snapshot pool, waiting for older blocks first if too many are in flight
+        private void submit(byte kind, ArrayList<?> records) throws IOException {
+            pending.add(POOL.submit(() -> encodeBlock(kind, records)));
+            while (pending.size() > maxPending) {
+                writeOldest();
+            }
+        }
+
+        // Waits for the oldest block to finish encoding and writes it to the file
+        private void writeOldest() throws IOException {
+            EncodedBlock block;
+            try {
+                block = pending.remove().get();
+            } catch (ExecutionException e) {
+                throw new IOException("Failed to encode snapshot block", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while writing snapshot");
+            }
+            index.add(new BlockInfo(block.kind(), block.records(), position, block.data().length,
+                    block.rawLength(), block.crc()));
+            writeBytes(ByteBuffer.wrap(block.data()));
+        }
+
+        private void writeBytes(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer);
+            }
+        }
+    }
+}
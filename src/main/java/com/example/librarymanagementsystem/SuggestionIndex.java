@@ -0,0 +1,384 @@
+/*
+ * Cade Mock
+ * CWID: 50350556
+ * Date (Last Updated) : 10/19/2026
+ * Email: cmock2@leomail.tamuc.edu
+ */
+
+package com.example.librarymanagementsystem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Suggests titles and authors while staff type the first letters of a search.
+ *
+ * Every title and author is a suggestion, keyed by its normalized words (see SearchKey) from each word to the end
+ * ("lord of the rings" is found by "lor", "of the" and "rin", and "Garcia" finds "García"). The keys are stored in
+ * a compressed prefix trie, where a chain of nodes with one child is a single edge with a multi-character label.
+ * Each node keeps the best TOP_K suggestions of everything below it, so a lookup only walks the letters of the
+ * prefix and returns that node's list, however large the catalog is. Suggestions are ranked by how often their
+ * books were borrowed, then alphabetically.
+ *
+ * Adding a suggestion or raising its weight only offers it to the lists on the paths of its keys. Removing one or
+ * lowering its weight rebuilds those lists from the children's lists, deepest first.
+ * The index is not thread-safe on its own, the library only uses it while holding its lock.
+ */
+class SuggestionIndex {
+    static final int TOP_K = 8; // suggestions kept per node, the most a lookup returns
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Suggestion[] NO_SUGGESTIONS = new Suggestion[0];
+    private static final Comparator<Suggestion> BEST_FIRST = Comparator.comparingLong((Suggestion s) -> -s.borrows)
+            .thenComparing(s -> s.text);
+
+    // A title or author that can be suggested, shared by every node that lists it
+    private static final class Suggestion {
+        final String text;
+        final List<String> keys;
+        int books; // books with this title or author
+        long borrows; // times those books were borrowed
+
+        Suggestion(String text) {
+            this.text = text;
+            this.keys = keys(text);
+        }
+    }
+
+    // A node of the trie, reached from its parent by its label
+    private static final class Node {
+        String label;
+        Node[] children = NO_CHILDREN; // sorted by the first character of their labels
+        Suggestion[] terminals = NO_SUGGESTIONS; // suggestions with a key that ends at this node
+        Suggestion[] top = NO_SUGGESTIONS; // the best TOP_K suggestions at or below this node, best first
+
+        Node(String label) {
+            this.label = label;
+        }
+    }
+
+    private final Node root = new Node("");
+    private final HashMap<String, Suggestion> suggestions = new HashMap<>(); // text -> suggestion
+
+    void addBook(Book book) {
+        add(book.getTitle(), book.getBorrowCount());
+        add(book.getAuthor(), book.getBorrowCount());
+    }
+
+    void addBooks(List<Book> books) {
+        for (Book book : books) {
+            addBook(book);
+        }
+    }
+
+    void removeBook(Book book) {
+        remove(book.getTitle(), book.getBorrowCount());
+        remove(book.getAuthor(), book.getBorrowCount());
+    }
+
+    // Raises the weight of a book's title and author after it was borrowed
+    void recordBorrow(Book book) {
+        for (String text : new String[]{book.getTitle(), book.getAuthor()}) {
+            Suggestion suggestion = suggestions.get(text);
+            if (suggestion != null) {
+                suggestion.borrows++;
+                for (String key : suggestion.keys) {
+                    offerAlong(key, suggestion);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the titles and authors with a word starting with the prefix, in O(prefix length).
+     *
+     * @param prefix  The start of one or more words, in any case.
+     * @param limit   The most suggestions to return, at most TOP_K.
+     * @return        The suggestions, most borrowed first.
+     */
+    List<String> suggest(String prefix, int limit) {
+        String key = SearchKey.normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int index = childIndex(node, key.charAt(i));
+            if (index < 0) {
+                return List.of();
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, key, i);
+            if (i + common < key.length() && common < child.label.length()) {
+                return List.of(); // the prefix leaves the trie in the middle of the label
+            }
+            node = child;
+            i += common;
+        }
+        List<String> texts = new ArrayList<>(Math.min(limit, node.top.length));
+        for (int j = 0; j < node.top.length && j < limit; j++) {
+            texts.add(node.top[j].text);
+        }
+        return texts;
+    }
+
+    private void add(String text, long borrows) {
+        Suggestion suggestion = suggestions.get(text);
+        if (suggestion == null) {
+            suggestion = new Suggestion(text);
+            suggestions.put(text, suggestion);
+            suggestion.books = 1;
+            suggestion.borrows = borrows;
+            for (String key : suggestion.keys) {
+                insert(key, suggestion);
+            }
+            return;
+        }
+        suggestion.books++;
+        if (borrows > 0) {
+            suggestion.borrows += borrows;
+            for (String key : suggestion.keys) {
+                offerAlong(key, suggestion);
+            }
+        }
+    }
+
+    private void remove(String text, long borrows) {
+        Suggestion suggestion = suggestions.get(text);
+        if (suggestion == null) {
+            return;
+        }
+        suggestion.books--;
+        suggestion.borrows -= borrows;
+        boolean gone = suggestion.books == 0;
+        if (gone) {
+            suggestions.remove(text);
+        }
+        if (gone || borrows > 0) {
+            for (String key : suggestion.keys) {
+                update(root, key, 0, suggestion, gone);
+            }
+        }
+    }
+
+    // Adds a key, splitting the edge where it leaves the trie, and offers the suggestion to every node on its path
+    private void insert(String key, Suggestion suggestion) {
+        Node node = root;
+        int i = 0;
+        while (true) {
+            offer(node, suggestion);
+            if (i == key.length()) {
+                node.terminals = append(node.terminals, suggestion);
+                return;
+            }
+            int index = childIndex(node, key.charAt(i));
+            if (index < 0) {
+                Node leaf = new Node(key.substring(i));
+                leaf.terminals = new Suggestion[]{suggestion};
+                leaf.top = new Suggestion[]{suggestion};
+                node.children = insertChild(node.children, -index - 1, leaf);
+                return;
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                Node middle = new Node(child.label.substring(0, common)); // the shared start of the edge
+                middle.children = new Node[]{child};
+                middle.top = child.top;
+                child.label = child.label.substring(common);
+                node.children[index] = middle;
+                child = middle;
+            }
+            node = child;
+            i += common;
+        }
+    }
+
+    // Offers a suggestion whose weight went up to every node on the path of one of its keys
+    private void offerAlong(String key, Suggestion suggestion) {
+        Node node = root;
+        int i = 0;
+        while (true) {
+            offer(node, suggestion);
+            if (i == key.length()) {
+                return;
+            }
+            node = node.children[childIndex(node, key.charAt(i))];
+            i += node.label.length();
+        }
+    }
+
+    /**
+     * Walks the path of a key after a suggestion was removed or its weight went down. Takes the suggestion out of
+     * the node the key ends at if it was removed, drops nodes left empty and merges nodes left with a single child
+     * into it, then rebuilds the lists that had the suggestion, deepest first.
+     */
+    private void update(Node node, String key, int i, Suggestion suggestion, boolean removed) {
+        if (i == key.length()) {
+            if (removed) {
+                node.terminals = without(node.terminals, suggestion);
+            }
+        } else {
+            int index = childIndex(node, key.charAt(i));
+            Node child = node.children[index];
+            update(child, key, i + child.label.length(), suggestion, removed);
+            if (child.terminals.length == 0 && child.children.length == 0) {
+                node.children = removeChild(node.children, index);
+            } else if (child.terminals.length == 0 && child.children.length == 1) {
+                Node only = child.children[0];
+                only.label = child.label + only.label;
+                node.children[index] = only;
+            }
+        }
+        if (indexOf(node.top, suggestion) >= 0) {
+            rebuildTop(node);
+        }
+    }
+
+    // Puts a new or heavier suggestion in its place in a node's list, if it is among the best
+    private static void offer(Node node, Suggestion suggestion) {
+        Suggestion[] top = node.top;
+        int at = indexOf(top, suggestion);
+        if (at < 0) {
+            if (top.length == TOP_K && BEST_FIRST.compare(suggestion, top[TOP_K - 1]) >= 0) {
+                return;
+            }
+            top = Arrays.copyOf(top, Math.min(top.length + 1, TOP_K));
+            at = top.length - 1; // takes the place of the last one if the list is full
+            top[at] = suggestion;
+        } else {
+            top = top.clone(); // the array may be shared with a child since an edge was split
+        }
+        while (at > 0 && BEST_FIRST.compare(top[at], top[at - 1]) < 0) {
+            Suggestion better = top[at];
+            top[at] = top[at - 1];
+            top[at - 1] = better;
+            at--;
+        }
+        node.top = top;
+    }
+
+    // Rebuilds a node's list from its own suggestions and its children's lists
+    private static void rebuildTop(Node node) {
+        List<Suggestion> candidates = new ArrayList<>(Arrays.asList(node.terminals));
+        for (Node child : node.children) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+        candidates.sort(BEST_FIRST);
+        Set<Suggestion> best = new LinkedHashSet<>(); // a suggestion can be under two children through two keys
+        for (int i = 0; i < candidates.size() && best.size() < TOP_K; i++) {
+            best.add(candidates.get(i));
+        }
+        node.top = best.toArray(NO_SUGGESTIONS);
+    }
+
+    // Adds the trie and its suggestions to a footprint estimate
+    void estimateFootprint(HeapFootprint footprint) {
+        long bytes = HeapFootprint.hashMap(suggestions.size());
+        for (Suggestion suggestion : suggestions.values()) {
+            bytes += HeapFootprint.object(2, 12) + footprint.string(suggestion.text)
+                    + HeapFootprint.arrayList(suggestion.keys.size());
+            for (String key : suggestion.keys) {
+                bytes += footprint.string(key);
+            }
+        }
+        List<Node> pending = new ArrayList<>(List.of(root));
+        while (!pending.isEmpty()) {
+            Node node = pending.remove(pending.size() - 1);
+            bytes += HeapFootprint.object(4, 0) + footprint.string(node.label)
+                    + HeapFootprint.array(node.children.length, HeapFootprint.REFERENCE)
+                    + HeapFootprint.array(node.terminals.length, HeapFootprint.REFERENCE)
+                    + HeapFootprint.array(node.top.length, HeapFootprint.REFERENCE);
+            pending.addAll(Arrays.asList(node.children));
+        }
+        footprint.add("Suggestion index", HeapFootprint.Scale.BOOKS, bytes);
+    }
+
+    // The normalized text from each of its words to the end
+    private static List<String> keys(String text) {
+        String normalized = SearchKey.normalize(text);
+        List<String> keys = new ArrayList<>();
+        if (normalized.isEmpty()) {
+            return keys;
+        }
+        keys.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            keys.add(normalized.substring(i + 1));
+        }
+        return keys;
+    }
+
+    // Finds the child whose label starts with c, or returns -(insertion point) - 1 like Arrays.binarySearch
+    private static int childIndex(Node node, char c) {
+        int low = 0;
+        int high = node.children.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char first = node.children[middle].label.charAt(0);
+            if (first < c) {
+                low = middle + 1;
+            } else if (first > c) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -low - 1;
+    }
+
+    // Number of characters the label has in common with the key from the offset
+    private static int commonPrefix(String label, String key, int offset) {
+        int n = 0;
+        while (n < label.length() && offset + n < key.length() && label.charAt(n) == key.charAt(offset + n)) {
+            n++;
+        }
+        return n;
+    }
+
+    private static Node[] insertChild(Node[] children, int index, Node child) {
+        Node[] grown = new Node[children.length + 1];
+        System.arraycopy(children, 0, grown, 0, index);
+        grown[index] = child;
+        System.arraycopy(children, index, grown, index + 1, children.length - index);
+        return grown;
+    }
+
+    private static Node[] removeChild(Node[] children, int index) {
+        Node[] shrunk = new Node[children.length - 1];
+        System.arraycopy(children, 0, shrunk, 0, index);
+        System.arraycopy(children, index + 1, shrunk, index, shrunk.length - index);
+        return shrunk;
+    }
+
+    private static Suggestion[] append(Suggestion[] suggestions, Suggestion suggestion) {
+        Suggestion[] grown = Arrays.copyOf(suggestions, suggestions.length + 1);
+        grown[suggestions.length] = suggestion;
+        return grown;
+    }
+
+    private static Suggestion[] without(Suggestion[] suggestions, Suggestion suggestion) {
+        int index = indexOf(suggestions, suggestion);
+        if (index < 0) {
+            return suggestions;
+        }
+        Suggestion[] shrunk = new Suggestion[suggestions.length - 1];
+        System.arraycopy(suggestions, 0, shrunk, 0, index);
+        System.arraycopy(suggestions, index + 1, shrunk, index, shrunk.length - index);
+        return shrunk;
+    }
+
+    private static int indexOf(Suggestion[] suggestions, Suggestion suggestion) {
+        for (int i = 0; i < suggestions.length; i++) {
+            if (suggestions[i] == suggestion) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}